@@ -6,8 +6,10 @@ import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import pl.pjatk.RestaurantManager.dto.PairedDishesDto;
 import pl.pjatk.RestaurantManager.model.Dish;
 import pl.pjatk.RestaurantManager.request.DishRequest;
+import pl.pjatk.RestaurantManager.service.DishPairingService;
 import pl.pjatk.RestaurantManager.service.DishService;
 
 import javax.validation.Valid;
@@ -23,6 +25,7 @@ import java.util.Optional;
 @CrossOrigin()
 public class DishController {
     private final DishService dishService;
+    private final DishPairingService dishPairingService;
 
     @PostConstruct
     public void init() {
@@ -45,6 +48,12 @@ public class DishController {
         return dishById.map(ResponseEntity::ok).orElseGet(() -> ResponseEntity.notFound().build());
     }
 
+    @GetMapping("/{id}/paired")
+    public ResponseEntity<PairedDishesDto> findPairedDishes(@PathVariable Integer id,
+                                                            @RequestParam(value = "limit", defaultValue = "5") int limit) {
+        return ResponseEntity.ok(dishPairingService.findPairedDishes(id, limit));
+    }
+
     @PreAuthorize("hasAnyAuthority('MANAGER', 'ADMIN')")
     @PostMapping(value = "/add", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
     public ResponseEntity<Dish> addDish(@ModelAttribute @Valid DishRequest request) {
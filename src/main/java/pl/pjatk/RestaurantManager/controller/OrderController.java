@@ -1,24 +1,43 @@
 package pl.pjatk.RestaurantManager.controller;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
 import org.modelmapper.ModelMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import pl.pjatk.RestaurantManager.dto.ItemBumpDto;
+import pl.pjatk.RestaurantManager.dto.OpenOrderDto;
 import pl.pjatk.RestaurantManager.dto.OrderUpdateDto;
+import pl.pjatk.RestaurantManager.dto.ServeStatusDto;
+import pl.pjatk.RestaurantManager.exceptions.PreconditionFailedException;
+import pl.pjatk.RestaurantManager.model.ExportFormat;
 import pl.pjatk.RestaurantManager.model.Order;
 import pl.pjatk.RestaurantManager.model.Status;
+import pl.pjatk.RestaurantManager.request.ItemBumpRequest;
 import pl.pjatk.RestaurantManager.request.OrderCreateRequest;
+import pl.pjatk.RestaurantManager.request.OrderItemPatchRequest;
 import pl.pjatk.RestaurantManager.request.OrderUpdateRequest;
+import pl.pjatk.RestaurantManager.service.OrderExportService;
 import pl.pjatk.RestaurantManager.service.OrderService;
+import pl.pjatk.RestaurantManager.service.ServeStatusStreamService;
 
 import javax.validation.Valid;
+import java.io.OutputStream;
 import java.time.LocalDate;
 import java.util.List;
-import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
+import java.util.zip.GZIPOutputStream;
 
 @RestController
 @RequestMapping("/api/order")
@@ -26,7 +45,13 @@ import java.util.stream.Collectors;
 @CrossOrigin()
 public class OrderController {
     private final OrderService orderService;
+    private final OrderExportService orderExportService;
+    private final ServeStatusStreamService serveStatusStreamService;
     private final ModelMapper modelMapper;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${order.stream.timeout-ms:1800000}")
+    private long streamTimeout;
 
     @GetMapping("/all")
     public ResponseEntity<List<Order>> findAll() {
@@ -34,15 +59,16 @@ public class OrderController {
     }
 
     @GetMapping("/all-opened")
-    public ResponseEntity<List<Order>> findAllOpened() {
-        return ResponseEntity.ok(orderService.findAllNotClosed());
+    public ResponseEntity<List<OpenOrderDto>> findAllOpened() {
+        return ResponseEntity.ok(orderService.findOpenOrders());
     }
 
     @GetMapping("/{id}")
     public ResponseEntity<Order> findById(@PathVariable Integer id) {
         Optional<Order> orderById = orderService.findById(id);
 
-        return orderById.map(ResponseEntity::ok).orElseGet(() -> ResponseEntity.notFound().build());
+        return orderById.map(order -> ResponseEntity.ok().eTag(eTagOf(order)).body(order))
+                .orElseGet(() -> ResponseEntity.notFound().build());
     }
 
     @GetMapping("/status")
@@ -67,9 +93,48 @@ public class OrderController {
         );
     }
 
+    @PreAuthorize("hasAnyAuthority('MANAGER', 'ADMIN')")
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportOrders(
+            @RequestParam("startDate") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam("endDate") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(value = "status", defaultValue = "CLOSED") String status,
+            @RequestParam(value = "format", defaultValue = "NDJSON") String format,
+            @RequestParam(value = "gzip", defaultValue = "false") Boolean gzip) {
+        Status exportStatus = Status.valueOf(status);
+        ExportFormat exportFormat = ExportFormat.valueOf(format.toUpperCase());
+        String fileName = "orders-" + startDate + "-" + endDate + (exportFormat == ExportFormat.CSV ? ".csv" : ".ndjson");
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(exportFormat == ExportFormat.CSV
+                        ? new MediaType("text", "csv")
+                        : MediaType.APPLICATION_NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"");
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+
+        return response.body(outputStream -> {
+            OutputStream output = gzip ? new GZIPOutputStream(outputStream, 64 * 1024) : outputStream;
+            orderExportService.export(startDate, endDate, exportStatus, exportFormat, output);
+            if (output instanceof GZIPOutputStream gzipOutput) {
+                gzipOutput.finish();
+            }
+        });
+    }
+
     @GetMapping("serve-status")
-    public Optional<List<Map<String, Object>>> getOpenOrderServeStatus() {
-        return orderService.getOpenOrderServeStatus();
+    public ResponseEntity<List<ServeStatusDto>> getOpenOrderServeStatus() {
+        return ResponseEntity.ok(orderService.getOpenOrderServeStatus());
+    }
+
+    /**
+     * Ends after {@code order.stream.timeout-ms} milliseconds; EventSource clients reconnect and
+     * receive a new snapshot.
+     */
+    @GetMapping(value = "/serve-status/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamServeStatus(@RequestParam(value = "tableIds", required = false) Set<Integer> tableIds) {
+        return serveStatusStreamService.subscribe(new SseEmitter(streamTimeout), tableIds);
     }
 
     @PreAuthorize("hasAnyAuthority('WAITER')")
@@ -79,13 +144,32 @@ public class OrderController {
     }
 
     @PutMapping("/update/{id}")
-    public ResponseEntity<OrderUpdateDto> updateOrder(@PathVariable Integer id, @RequestBody OrderUpdateRequest request) {
-        return ResponseEntity.ok(convertToDto(orderService.updateOrder(id, request).get()));
+    public ResponseEntity<OrderUpdateDto> updateOrder(@PathVariable Integer id, @RequestBody OrderUpdateRequest request,
+                                                      @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Order order = orderService.updateOrder(id, request, versionOf(ifMatch)).get();
+        return ResponseEntity.ok().eTag(eTagOf(order)).body(convertToDto(order));
+    }
+
+    @PatchMapping("/{id}/items")
+    public ResponseEntity<OrderUpdateDto> patchOrderItems(@PathVariable Integer id,
+                                                          @RequestBody OrderItemPatchRequest request,
+                                                          @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return orderService.patchOrderItems(id, request, versionOf(ifMatch))
+                .map(order -> ResponseEntity.ok().eTag(eTagOf(order)).body(convertToDto(order)))
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    @PreAuthorize("hasAnyAuthority('COOK', 'MANAGER', 'ADMIN')")
+    @PostMapping("/kitchen/bump")
+    public ResponseEntity<ItemBumpDto> bumpItems(@RequestBody ItemBumpRequest request) {
+        return ResponseEntity.ok(orderService.bumpItems(request));
     }
 
     @PutMapping("/set-ready/{id}")
-    public ResponseEntity<OrderUpdateDto> setReadyToServe(@PathVariable Integer id, @RequestParam Boolean isReady) {
-        return ResponseEntity.ok(convertToDto(orderService.setReadyToServe(id, isReady).get()));
+    public ResponseEntity<OrderUpdateDto> setReadyToServe(@PathVariable Integer id, @RequestParam Boolean isReady,
+                                                          @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Order order = orderService.setReadyToServe(id, isReady, versionOf(ifMatch)).get();
+        return ResponseEntity.ok().eTag(eTagOf(order)).body(convertToDto(order));
     }
 
     @DeleteMapping("/delete/{id}")
@@ -93,6 +177,41 @@ public class OrderController {
         return ResponseEntity.ok(orderService.deleteOrder(id));
     }
 
+    @ExceptionHandler(PreconditionFailedException.class)
+    public ResponseEntity<String> handlePreconditionFailed(PreconditionFailedException e) {
+        meterRegistry.counter("order.conflicts", "cause", "if-match").increment();
+        return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).body(e.getMessage());
+    }
+
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<String> handleConcurrentWrite(OptimisticLockingFailureException e) {
+        meterRegistry.counter("order.conflicts", "cause", "concurrent-write").increment();
+        return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).body("Order has been modified");
+    }
+
+    private static String eTagOf(Order order) {
+        return "\"" + order.getVersion() + "\"";
+    }
+
+    /**
+     * The version named by an If-Match header, or null when the header is absent or "*". A weak
+     * or unparsable tag never matches.
+     */
+    private static Long versionOf(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String tag = ifMatch.trim();
+        if (tag.length() < 2 || !tag.startsWith("\"") || !tag.endsWith("\"")) {
+            throw new PreconditionFailedException("Order has been modified");
+        }
+        try {
+            return Long.valueOf(tag.substring(1, tag.length() - 1));
+        } catch (NumberFormatException e) {
+            throw new PreconditionFailedException("Order has been modified");
+        }
+    }
+
     private OrderUpdateDto convertToDto(Order order) {
         OrderUpdateDto orderUpdateDto = modelMapper.map(order, OrderUpdateDto.class);
         orderUpdateDto.setId(order.getId());
@@ -102,10 +221,12 @@ public class OrderController {
         orderUpdateDto.setOrderItems(order.getOrderItems());
         orderUpdateDto.setStartDateTime(order.getStartDateTime());
         orderUpdateDto.setOrderProcessingStart(order.getOrderProcessingStart());
+        orderUpdateDto.setReadyDateTime(order.getReadyDateTime());
         orderUpdateDto.setStatus(order.getStatus());
         orderUpdateDto.setIsReadyToServe(order.getIsReadyToServe());
         orderUpdateDto.setTotalPrice(order.getTotalPrice());
         orderUpdateDto.setDuration(order.getDuration());
+        orderUpdateDto.setVersion(order.getVersion());
 
         return orderUpdateDto;
     }
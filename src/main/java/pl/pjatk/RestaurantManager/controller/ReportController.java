@@ -0,0 +1,87 @@
+package pl.pjatk.RestaurantManager.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import pl.pjatk.RestaurantManager.dto.DayReportDto;
+import pl.pjatk.RestaurantManager.dto.ReportJobDto;
+import pl.pjatk.RestaurantManager.dto.StatisticSummaryDto;
+import pl.pjatk.RestaurantManager.model.ReportJobStatus;
+import pl.pjatk.RestaurantManager.request.ReportJobRequest;
+import pl.pjatk.RestaurantManager.service.DayReportService;
+import pl.pjatk.RestaurantManager.service.ReportJobService;
+
+import javax.validation.Valid;
+import java.time.LocalDate;
+import java.util.Optional;
+import java.util.concurrent.RejectedExecutionException;
+
+@RestController
+@RequestMapping("/api/report")
+@RequiredArgsConstructor
+@CrossOrigin()
+public class ReportController {
+    private final ReportJobService reportJobService;
+    private final DayReportService dayReportService;
+
+    @PostMapping("/jobs")
+    public ResponseEntity<ReportJobDto> submitJob(@RequestBody @Valid ReportJobRequest request) {
+        if (request.getStartDate() == null || request.getEndDate() == null
+                || request.getEndDate().isBefore(request.getStartDate())) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        try {
+            return ResponseEntity.status(HttpStatus.ACCEPTED)
+                    .body(reportJobService.submit(request.getStartDate(), request.getEndDate(), request.getMetrics()));
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+    }
+
+    @GetMapping("/jobs/{id}")
+    public ResponseEntity<ReportJobDto> findJob(@PathVariable String id) {
+        return reportJobService.findJob(id).map(ResponseEntity::ok).orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/jobs/{id}/result")
+    public ResponseEntity<StatisticSummaryDto> findResult(@PathVariable String id) {
+        Optional<ReportJobDto> job = reportJobService.findJob(id);
+        if (job.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+
+        ReportJobStatus status = job.get().getStatus();
+        if (status == ReportJobStatus.PENDING || status == ReportJobStatus.RUNNING) {
+            return ResponseEntity.status(HttpStatus.ACCEPTED).build();
+        }
+        return reportJobService.findResult(id)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.CONFLICT).build());
+    }
+
+    @DeleteMapping("/jobs/{id}")
+    public ResponseEntity<ReportJobDto> cancelJob(@PathVariable String id) {
+        return reportJobService.cancel(id).map(ResponseEntity::ok).orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/day/{date}")
+    public ResponseEntity<DayReportDto> getDayReport(
+            @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        return ResponseEntity.ok(dayReportService.getReport(date));
+    }
+
+    @PreAuthorize("hasAnyAuthority('MANAGER', 'ADMIN')")
+    @PostMapping("/day/{date}/close")
+    public ResponseEntity<DayReportDto> closeDay(
+            @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        if (date.isAfter(LocalDate.now())) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        return ResponseEntity.ok(dayReportService.closeDay(date));
+    }
+}
@@ -3,12 +3,35 @@ package pl.pjatk.RestaurantManager.controller;
 import lombok.RequiredArgsConstructor;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import pl.pjatk.RestaurantManager.dto.HeatmapCellDto;
+import pl.pjatk.RestaurantManager.dto.LatencyStatisticDto;
+import pl.pjatk.RestaurantManager.dto.LiveStatisticDto;
+import pl.pjatk.RestaurantManager.dto.RevenueSeriesDto;
+import pl.pjatk.RestaurantManager.dto.StatisticSummaryDto;
+import pl.pjatk.RestaurantManager.dto.TableUtilizationDto;
+import pl.pjatk.RestaurantManager.dto.TopDishesDto;
+import pl.pjatk.RestaurantManager.dto.WaiterStatisticDto;
+import pl.pjatk.RestaurantManager.model.LatencyMetric;
+import pl.pjatk.RestaurantManager.model.RevenueComparison;
+import pl.pjatk.RestaurantManager.model.StatisticMetric;
+import pl.pjatk.RestaurantManager.service.DailyOrderStatisticService;
+import pl.pjatk.RestaurantManager.service.DishPairingService;
+import pl.pjatk.RestaurantManager.service.DishPopularityService;
+import pl.pjatk.RestaurantManager.service.HourlyOrderStatisticService;
+import pl.pjatk.RestaurantManager.service.KitchenLatencyService;
+import pl.pjatk.RestaurantManager.service.LiveStatisticService;
+import pl.pjatk.RestaurantManager.service.OrderFactService;
 import pl.pjatk.RestaurantManager.service.StatisticService;
+import pl.pjatk.RestaurantManager.service.TableUtilizationService;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.EnumSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/api/statistic")
@@ -17,6 +40,14 @@ import java.util.Map;
 public class StatisticController {
 
     private final StatisticService statisticService;
+    private final DailyOrderStatisticService dailyOrderStatisticService;
+    private final HourlyOrderStatisticService hourlyOrderStatisticService;
+    private final DishPopularityService dishPopularityService;
+    private final OrderFactService orderFactService;
+    private final KitchenLatencyService kitchenLatencyService;
+    private final LiveStatisticService liveStatisticService;
+    private final TableUtilizationService tableUtilizationService;
+    private final DishPairingService dishPairingService;
 
     @GetMapping("/order-count-statistics")
     public ResponseEntity<Map<String, Integer>> getOrderCountStatistics(
@@ -35,6 +66,17 @@ public class StatisticController {
         return ResponseEntity.ok(totalPriceStatistics);
     }
 
+    @GetMapping("/revenue-series")
+    public ResponseEntity<RevenueSeriesDto> getRevenueSeries(
+            @RequestParam("startDate") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam("endDate") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(value = "compare", required = false) RevenueComparison comparison) {
+        if (endDate.isBefore(startDate)) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(dailyOrderStatisticService.calculateRevenueSeries(startDate, endDate, comparison));
+    }
+
     @GetMapping("/waiter-statistics")
     public ResponseEntity<Map<String, Integer>> getWaiterStatistics(
             @RequestParam("startDate") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
@@ -43,6 +85,20 @@ public class StatisticController {
         return ResponseEntity.ok(statistics);
     }
 
+    @GetMapping("/waiter-performance")
+    public ResponseEntity<List<WaiterStatisticDto>> getWaiterPerformance(
+            @RequestParam("startDate") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam("endDate") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+        return ResponseEntity.ok(statisticService.calculateWaiterPerformance(startDate, endDate));
+    }
+
+    @GetMapping("/kitchen-latency")
+    public ResponseEntity<Map<LatencyMetric, LatencyStatisticDto>> getKitchenLatency(
+            @RequestParam("startDate") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam("endDate") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+        return ResponseEntity.ok(kitchenLatencyService.calculateLatency(startDate, endDate));
+    }
+
     @GetMapping("/dish-statistics")
     public ResponseEntity<Map<String, Integer>> getDishStatistics(
             @RequestParam("startDate") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
@@ -65,4 +121,78 @@ public class StatisticController {
         Map<Integer, Integer> orderCountByHour = statisticService.calculateOrderCountByHour(date);
         return ResponseEntity.ok(orderCountByHour);
     }
+
+    @GetMapping("/traffic-heatmap")
+    public ResponseEntity<List<HeatmapCellDto>> getTrafficHeatmap(
+            @RequestParam("startDate") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam("endDate") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+        return ResponseEntity.ok(hourlyOrderStatisticService.calculateHeatmap(startDate, endDate));
+    }
+
+    @GetMapping("/table-utilization")
+    public ResponseEntity<TableUtilizationDto> getTableUtilization(
+            @RequestParam("startDate") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam("endDate") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(value = "slotMinutes", defaultValue = "60") int slotMinutes) {
+        if (endDate.isBefore(startDate) || !TableUtilizationService.isValidSlot(slotMinutes)) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(tableUtilizationService.calculateUtilization(startDate, endDate, slotMinutes));
+    }
+
+    @GetMapping("/live")
+    public ResponseEntity<LiveStatisticDto> getLiveStatistics() {
+        return ResponseEntity.ok(liveStatisticService.getLiveStatistics());
+    }
+
+    @GetMapping("/top-dishes")
+    public ResponseEntity<TopDishesDto> getTopDishes(
+            @RequestParam("startDate") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam("endDate") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(value = "k", defaultValue = "10") int k) {
+        if (endDate.isBefore(startDate) || !dishPopularityService.isValidK(k)) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(dishPopularityService.findTopDishes(startDate, endDate, k));
+    }
+
+    @GetMapping("/summary")
+    public ResponseEntity<StatisticSummaryDto> getSummary(
+            @RequestParam("startDate") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam("endDate") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(value = "metrics", required = false) Set<StatisticMetric> metrics) {
+        Set<StatisticMetric> selectedMetrics = metrics == null || metrics.isEmpty()
+                ? EnumSet.allOf(StatisticMetric.class)
+                : metrics;
+        return ResponseEntity.ok(statisticService.calculateSummary(startDate, endDate, selectedMetrics));
+    }
+
+    @PreAuthorize("hasAnyAuthority('MANAGER', 'ADMIN')")
+    @PostMapping("/daily/rebuild")
+    public ResponseEntity<Integer> rebuildDailyStatistics(
+            @RequestParam("startDate") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam("endDate") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+        return ResponseEntity.ok(dailyOrderStatisticService.rebuild(startDate, endDate));
+    }
+
+    @PreAuthorize("hasAnyAuthority('MANAGER', 'ADMIN')")
+    @PostMapping("/hourly/rebuild")
+    public ResponseEntity<Integer> rebuildHourlyStatistics(
+            @RequestParam("startDate") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam("endDate") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+        return ResponseEntity.ok(hourlyOrderStatisticService.rebuild(startDate, endDate));
+    }
+
+    @PreAuthorize("hasAnyAuthority('MANAGER', 'ADMIN')")
+    @PostMapping("/facts/rebuild")
+    public ResponseEntity<Integer> rebuildOrderFacts() {
+        return ResponseEntity.ok(orderFactService.rebuild());
+    }
+
+    @PreAuthorize("hasAnyAuthority('MANAGER', 'ADMIN')")
+    @PostMapping("/pairs/rebuild")
+    public ResponseEntity<Integer> rebuildDishPairs() {
+        dishPairingService.rebuild();
+        return ResponseEntity.ok(dishPairingService.getDishCount());
+    }
 }
@@ -0,0 +1,51 @@
+package pl.pjatk.RestaurantManager.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import pl.pjatk.RestaurantManager.model.Status;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class DayReportDto {
+
+    private LocalDate businessDate;
+    private boolean closed;
+    private Timestamp closedAt;
+    private int closedStaleOrders;
+    private int freedTables;
+    private BigDecimal revenue;
+    private Map<Status, Integer> ordersByStatus;
+    private int cancelledOrders;
+    private BigDecimal cancelledTotal;
+    private List<Waiter> waiters;
+    private List<Dish> dishes;
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class Waiter {
+        private Integer userId;
+        private String userName;
+        private int orderCount;
+        private BigDecimal revenue;
+    }
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class Dish {
+        private Integer dishId;
+        private String dishName;
+        private int quantity;
+    }
+}
@@ -0,0 +1,36 @@
+package pl.pjatk.RestaurantManager.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ItemBumpDto {
+    private List<Item> items;
+    private List<OrderState> orders;
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class Item {
+        private Integer orderId;
+        private Integer itemId;
+        private boolean ready;
+    }
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class OrderState {
+        private Integer orderId;
+        private Boolean isReadyToServe;
+        private Timestamp readyDateTime;
+    }
+}
@@ -0,0 +1,21 @@
+package pl.pjatk.RestaurantManager.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Duration;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class LatencyStatisticDto {
+    private Long count;
+    private Duration p50;
+    private Duration p90;
+    private Duration p95;
+    private Duration p99;
+    private Duration max;
+}
@@ -0,0 +1,22 @@
+package pl.pjatk.RestaurantManager.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class LiveStatisticDto {
+    private LocalDate date;
+    private Long orderCount;
+    private Long openOrders;
+    private Long closedOrders;
+    private BigDecimal revenue;
+    private Long covers;
+}
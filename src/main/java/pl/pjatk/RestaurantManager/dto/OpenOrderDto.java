@@ -0,0 +1,49 @@
+package pl.pjatk.RestaurantManager.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import pl.pjatk.RestaurantManager.model.Status;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class OpenOrderDto {
+    private Integer id;
+    private Label user;
+    private Label table;
+    private List<Item> orderItems;
+    private Timestamp startDateTime;
+    private Timestamp orderProcessingStart;
+    private Timestamp readyDateTime;
+    private Status status;
+    private Boolean isReadyToServe;
+    private BigDecimal totalPrice;
+    private Duration duration;
+    private Long version;
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class Label {
+        private Integer id;
+        private String name;
+    }
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class Item {
+        private Integer id;
+        private Label dish;
+        private int quantity;
+        private boolean ready;
+    }
+}
@@ -0,0 +1,42 @@
+package pl.pjatk.RestaurantManager.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import pl.pjatk.RestaurantManager.model.Status;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class OrderExportDto {
+
+    private Integer id;
+    private Integer userId;
+    private String userName;
+    private Integer tableId;
+    private String tableName;
+    private Timestamp startDateTime;
+    private Timestamp orderProcessingStart;
+    private Status status;
+    private Boolean isReadyToServe;
+    private BigDecimal totalPrice;
+    private Duration duration;
+    private List<Item> orderItems;
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class Item {
+        private Integer dishId;
+        private String dishName;
+        private Integer quantity;
+        private Boolean ready;
+    }
+}
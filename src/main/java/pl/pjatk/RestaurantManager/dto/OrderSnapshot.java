@@ -0,0 +1,76 @@
+package pl.pjatk.RestaurantManager.dto;
+
+import lombok.Builder;
+import lombok.Value;
+import pl.pjatk.RestaurantManager.model.Order;
+import pl.pjatk.RestaurantManager.model.OrderItem;
+import pl.pjatk.RestaurantManager.model.Status;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+
+@Value
+@Builder
+public class OrderSnapshot {
+    Integer id;
+    Integer userId;
+    Integer tableId;
+    Timestamp startDateTime;
+    Timestamp orderProcessingStart;
+    Timestamp readyDateTime;
+    Status status;
+    Boolean isReadyToServe;
+    BigDecimal totalPrice;
+    Duration duration;
+    Long version;
+    List<Item> items;
+
+    @Value
+    public static class Item {
+        Integer id;
+        Integer dishId;
+        int quantity;
+        boolean ready;
+    }
+
+    public static OrderSnapshot of(Order order) {
+        List<Item> items = order.getOrderItems() == null ? List.of() : order.getOrderItems().stream()
+                .map(OrderSnapshot::itemOf)
+                .toList();
+
+        return OrderSnapshot.builder()
+                .id(order.getId())
+                .userId(order.getUser() != null ? order.getUser().getId() : null)
+                .tableId(order.getTable() != null ? order.getTable().getId() : null)
+                .startDateTime(order.getStartDateTime())
+                .orderProcessingStart(order.getOrderProcessingStart())
+                .readyDateTime(order.getReadyDateTime())
+                .status(order.getStatus())
+                .isReadyToServe(order.getIsReadyToServe())
+                .totalPrice(order.getTotalPrice())
+                .duration(order.getDuration())
+                .version(order.getVersion())
+                .items(items)
+                .build();
+    }
+
+    private static Item itemOf(OrderItem orderItem) {
+        Integer dishId = orderItem.getDish() != null ? orderItem.getDish().getId() : null;
+        return new Item(orderItem.getId(), dishId, orderItem.getQuantity(), orderItem.isReady());
+    }
+
+    public boolean isClosed() {
+        return status == Status.CLOSED;
+    }
+
+    public LocalDate getStartDate() {
+        return startDateTime != null ? startDateTime.toLocalDateTime().toLocalDate() : null;
+    }
+
+    public int getItemCount() {
+        return items.stream().mapToInt(Item::getQuantity).sum();
+    }
+}
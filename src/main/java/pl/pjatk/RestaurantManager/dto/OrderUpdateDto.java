@@ -26,8 +26,10 @@ public class OrderUpdateDto {
     private List<OrderItem> orderItems;
     private Timestamp startDateTime;
     private Timestamp orderProcessingStart;
+    private Timestamp readyDateTime;
     private Status status;
     private Boolean isReadyToServe;
     private BigDecimal totalPrice;
     private Duration duration;
+    private Long version;
 }
@@ -0,0 +1,28 @@
+package pl.pjatk.RestaurantManager.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class PairedDishesDto {
+    private Integer dishId;
+    private long orderCount;
+    private List<Partner> partners;
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class Partner {
+        private Integer dishId;
+        private String name;
+        private long orderCount;
+        private double confidence;
+    }
+}
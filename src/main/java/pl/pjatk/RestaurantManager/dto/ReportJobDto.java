@@ -0,0 +1,30 @@
+package pl.pjatk.RestaurantManager.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import pl.pjatk.RestaurantManager.model.ReportJobStatus;
+import pl.pjatk.RestaurantManager.model.StatisticMetric;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Set;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ReportJobDto {
+    private String id;
+    private LocalDate startDate;
+    private LocalDate endDate;
+    private Set<StatisticMetric> metrics;
+    private ReportJobStatus status;
+    private Double progress;
+    private Instant submittedAt;
+    private Instant finishedAt;
+    private String error;
+}
@@ -0,0 +1,37 @@
+package pl.pjatk.RestaurantManager.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import pl.pjatk.RestaurantManager.model.RevenueComparison;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class RevenueSeriesDto {
+
+    private LocalDate startDate;
+    private LocalDate endDate;
+    private BigDecimal total;
+    private List<Point> points;
+    private RevenueComparison comparedWith;
+    private RevenueSeriesDto comparison;
+    private BigDecimal change;
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class Point {
+        private LocalDate date;
+        private BigDecimal revenue;
+        private BigDecimal cumulativeRevenue;
+        private BigDecimal movingAverage7;
+        private BigDecimal movingAverage28;
+    }
+}
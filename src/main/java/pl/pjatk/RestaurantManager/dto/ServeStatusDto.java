@@ -0,0 +1,18 @@
+package pl.pjatk.RestaurantManager.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import pl.pjatk.RestaurantManager.model.Status;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ServeStatusDto {
+    private Integer id;
+    private Status status;
+    private Boolean isReadyToServe;
+    private Integer tableId;
+}
@@ -0,0 +1,24 @@
+package pl.pjatk.RestaurantManager.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class StatisticSummaryDto {
+    private Map<String, Integer> orderCount;
+    private Map<String, BigDecimal> totalPrice;
+    private Map<String, Integer> waiters;
+    private Map<String, Integer> dishes;
+    private Map<String, Double> ingredients;
+    private Map<Integer, Integer> traffic;
+}
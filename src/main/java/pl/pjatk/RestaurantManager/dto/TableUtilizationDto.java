@@ -0,0 +1,44 @@
+package pl.pjatk.RestaurantManager.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class TableUtilizationDto {
+
+    private LocalDate startDate;
+    private LocalDate endDate;
+    private int slotMinutes;
+    private List<TableUsage> tables;
+    private List<SlotUsage> slots;
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class TableUsage {
+        private Integer tableId;
+        private String tableName;
+        private Integer seatsNumber;
+        private long occupiedMinutes;
+        private int turnover;
+        private double utilization;
+    }
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class SlotUsage {
+        private LocalTime start;
+        private double seatHours;
+        private double utilization;
+    }
+}
@@ -0,0 +1,30 @@
+package pl.pjatk.RestaurantManager.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class TopDishesDto {
+    private List<DishCount> dishes;
+    private long totalQuantity;
+    private long maxError;
+    private long errorBound;
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class DishCount {
+        private Integer dishId;
+        private String name;
+        private long quantity;
+        private long maxError;
+        private boolean guaranteed;
+    }
+}
@@ -0,0 +1,22 @@
+package pl.pjatk.RestaurantManager.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class WaiterStatisticDto {
+    private Integer userId;
+    private String userName;
+    private Long orderCount;
+    private BigDecimal revenue;
+    private Duration averageDuration;
+    private Duration averageTimeToProcessing;
+}
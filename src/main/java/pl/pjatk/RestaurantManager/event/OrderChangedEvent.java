@@ -0,0 +1,14 @@
+package pl.pjatk.RestaurantManager.event;
+
+import lombok.Value;
+import pl.pjatk.RestaurantManager.dto.OrderSnapshot;
+
+/**
+ * Published by {@link pl.pjatk.RestaurantManager.service.OrderService} after every order mutation.
+ * {@code previous} is null for a created order and {@code current} is null for a deleted one.
+ */
+@Value
+public class OrderChangedEvent {
+    OrderSnapshot previous;
+    OrderSnapshot current;
+}
@@ -0,0 +1,7 @@
+package pl.pjatk.RestaurantManager.exceptions;
+
+public class PreconditionFailedException extends RuntimeException {
+    public PreconditionFailedException(String message) {
+        super(message);
+    }
+}
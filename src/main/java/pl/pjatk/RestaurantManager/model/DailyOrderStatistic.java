@@ -0,0 +1,29 @@
+package pl.pjatk.RestaurantManager.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity(name = "daily_order_statistics")
+public class DailyOrderStatistic {
+    @Id
+    private LocalDate businessDate;
+
+    private int orderCount;
+
+    private BigDecimal revenue;
+
+    private int itemCount;
+
+    private long totalDurationSeconds;
+}
@@ -0,0 +1,27 @@
+package pl.pjatk.RestaurantManager.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity(name = "day_closes")
+public class DayClose {
+    @Id
+    private LocalDate businessDate;
+
+    private Timestamp closedAt;
+
+    private int closedStaleOrders;
+
+    private int freedTables;
+}
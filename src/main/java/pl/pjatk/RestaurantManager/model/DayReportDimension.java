@@ -0,0 +1,7 @@
+package pl.pjatk.RestaurantManager.model;
+
+public enum DayReportDimension {
+    STATUS,
+    WAITER,
+    DISH
+}
@@ -0,0 +1,44 @@
+package pl.pjatk.RestaurantManager.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity(name = "day_report_entries")
+@IdClass(DayReportEntry.Key.class)
+public class DayReportEntry {
+    @Id
+    private LocalDate businessDate;
+
+    @Id
+    @Enumerated(EnumType.STRING)
+    private DayReportDimension dimension;
+
+    @Id
+    private String entryKey;
+
+    private int orderCount;
+
+    private int quantity;
+
+    private BigDecimal amount;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private LocalDate businessDate;
+        private DayReportDimension dimension;
+        private String entryKey;
+    }
+}
@@ -0,0 +1,27 @@
+package pl.pjatk.RestaurantManager.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity(name = "hourly_order_statistics")
+public class HourlyOrderStatistic {
+    @Id
+    private LocalDateTime businessHour;
+
+    private int orderCount;
+
+    private BigDecimal revenue;
+
+    private long totalDurationSeconds;
+}
@@ -0,0 +1,7 @@
+package pl.pjatk.RestaurantManager.model;
+
+public enum LatencyMetric {
+    TIME_TO_PROCESSING,
+    PREPARATION,
+    TIME_TO_READY
+}
@@ -20,6 +20,7 @@ import java.util.List;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity(name = "orders")
+@jakarta.persistence.Table(indexes = @Index(name = "idx_orders_status_start_date_time", columnList = "status, startDateTime"))
 @JsonIdentityInfo(generator = ObjectIdGenerators.PropertyGenerator.class, property = "id")
 public class Order {
     @Id
@@ -43,6 +44,8 @@ public class Order {
 
     private Timestamp orderProcessingStart;
 
+    private Timestamp readyDateTime;
+
     @Enumerated(EnumType.STRING)
     private Status status;
 
@@ -50,5 +53,10 @@ public class Order {
 
     private BigDecimal totalPrice;
 
+    // stored by Hibernate as NUMERIC nanoseconds, which native statistic queries divide by 10^9
     private Duration duration;
+
+    @Version
+    @Column(columnDefinition = "bigint default 0")
+    private Long version;
 }
\ No newline at end of file
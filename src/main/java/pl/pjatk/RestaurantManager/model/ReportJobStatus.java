@@ -0,0 +1,9 @@
+package pl.pjatk.RestaurantManager.model;
+
+public enum ReportJobStatus {
+    PENDING,
+    RUNNING,
+    DONE,
+    FAILED,
+    CANCELLED
+}
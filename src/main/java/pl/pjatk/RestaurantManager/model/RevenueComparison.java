@@ -0,0 +1,6 @@
+package pl.pjatk.RestaurantManager.model;
+
+public enum RevenueComparison {
+    PREVIOUS_PERIOD,
+    PREVIOUS_YEAR
+}
@@ -0,0 +1,10 @@
+package pl.pjatk.RestaurantManager.model;
+
+public enum StatisticMetric {
+    ORDER_COUNT,
+    TOTAL_PRICE,
+    WAITERS,
+    DISHES,
+    INGREDIENTS,
+    TRAFFIC
+}
@@ -0,0 +1,11 @@
+package pl.pjatk.RestaurantManager.projection;
+
+import java.time.LocalDate;
+
+public interface DailyDishAggregate {
+    LocalDate getDay();
+
+    Integer getDishId();
+
+    Long getQuantity();
+}
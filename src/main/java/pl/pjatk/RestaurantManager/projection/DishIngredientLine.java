@@ -0,0 +1,9 @@
+package pl.pjatk.RestaurantManager.projection;
+
+public interface DishIngredientLine {
+    Integer getDishId();
+
+    Integer getIngredientId();
+
+    Double getQuantity();
+}
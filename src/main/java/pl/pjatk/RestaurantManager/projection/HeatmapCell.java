@@ -0,0 +1,15 @@
+package pl.pjatk.RestaurantManager.projection;
+
+import java.math.BigDecimal;
+
+public interface HeatmapCell {
+    Integer getWeekday();
+
+    Integer getHour();
+
+    Long getOrderCount();
+
+    BigDecimal getRevenue();
+
+    Long getTotalDurationSeconds();
+}
@@ -0,0 +1,11 @@
+package pl.pjatk.RestaurantManager.projection;
+
+import java.time.LocalDate;
+
+public interface HourlyAggregate {
+    LocalDate getDay();
+
+    Integer getHour();
+
+    Long getOrderCount();
+}
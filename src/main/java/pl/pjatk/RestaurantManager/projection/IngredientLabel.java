@@ -0,0 +1,9 @@
+package pl.pjatk.RestaurantManager.projection;
+
+public interface IngredientLabel {
+    Integer getId();
+
+    String getName();
+
+    String getUnit();
+}
@@ -0,0 +1,7 @@
+package pl.pjatk.RestaurantManager.projection;
+
+public interface NameLabel {
+    Integer getId();
+
+    String getName();
+}
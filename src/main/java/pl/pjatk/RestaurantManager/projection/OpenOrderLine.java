@@ -0,0 +1,39 @@
+package pl.pjatk.RestaurantManager.projection;
+
+import pl.pjatk.RestaurantManager.model.Status;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Duration;
+
+public interface OpenOrderLine {
+    Integer getOrderId();
+
+    Integer getUserId();
+
+    Integer getTableId();
+
+    Timestamp getStartDateTime();
+
+    Timestamp getOrderProcessingStart();
+
+    Timestamp getReadyDateTime();
+
+    Status getStatus();
+
+    Boolean getIsReadyToServe();
+
+    BigDecimal getTotalPrice();
+
+    Duration getDuration();
+
+    Long getVersion();
+
+    Integer getItemId();
+
+    Integer getDishId();
+
+    Integer getQuantity();
+
+    Boolean getReady();
+}
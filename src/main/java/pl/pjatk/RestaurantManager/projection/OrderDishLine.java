@@ -0,0 +1,9 @@
+package pl.pjatk.RestaurantManager.projection;
+
+public interface OrderDishLine {
+    Integer getOrderId();
+
+    Integer getDishId();
+
+    Long getVersion();
+}
@@ -0,0 +1,41 @@
+package pl.pjatk.RestaurantManager.projection;
+
+import pl.pjatk.RestaurantManager.model.Status;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Duration;
+
+public interface OrderExportLine {
+    Integer getOrderId();
+
+    Timestamp getStartDateTime();
+
+    Timestamp getOrderProcessingStart();
+
+    Status getStatus();
+
+    Boolean getIsReadyToServe();
+
+    BigDecimal getTotalPrice();
+
+    Duration getDuration();
+
+    Integer getUserId();
+
+    String getFirstname();
+
+    String getLastname();
+
+    Integer getTableId();
+
+    String getTableName();
+
+    Integer getDishId();
+
+    String getDishName();
+
+    Integer getQuantity();
+
+    Boolean getReady();
+}
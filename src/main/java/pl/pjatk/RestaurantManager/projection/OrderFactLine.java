@@ -0,0 +1,25 @@
+package pl.pjatk.RestaurantManager.projection;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Duration;
+
+public interface OrderFactLine {
+    Integer getOrderId();
+
+    Timestamp getStartDateTime();
+
+    Integer getTableId();
+
+    Integer getUserId();
+
+    BigDecimal getTotalPrice();
+
+    Duration getDuration();
+
+    Integer getDishId();
+
+    Integer getQuantity();
+
+    Long getVersion();
+}
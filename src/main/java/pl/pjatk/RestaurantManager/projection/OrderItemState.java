@@ -0,0 +1,7 @@
+package pl.pjatk.RestaurantManager.projection;
+
+public interface OrderItemState {
+    Integer getOrderId();
+
+    Integer getItemId();
+}
@@ -0,0 +1,11 @@
+package pl.pjatk.RestaurantManager.projection;
+
+import java.sql.Timestamp;
+
+public interface OrderLatencyLine {
+    Timestamp getStartDateTime();
+
+    Timestamp getOrderProcessingStart();
+
+    Timestamp getReadyDateTime();
+}
@@ -0,0 +1,18 @@
+package pl.pjatk.RestaurantManager.projection;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+
+public interface OrderLine {
+    Integer getOrderId();
+
+    Timestamp getStartDateTime();
+
+    BigDecimal getTotalPrice();
+
+    Integer getUserId();
+
+    Integer getDishId();
+
+    Integer getQuantity();
+}
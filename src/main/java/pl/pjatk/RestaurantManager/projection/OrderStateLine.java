@@ -0,0 +1,20 @@
+package pl.pjatk.RestaurantManager.projection;
+
+import pl.pjatk.RestaurantManager.model.Status;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+
+public interface OrderStateLine {
+    Integer getOrderId();
+
+    Timestamp getStartDateTime();
+
+    Integer getTableId();
+
+    Status getStatus();
+
+    BigDecimal getTotalPrice();
+
+    Long getVersion();
+}
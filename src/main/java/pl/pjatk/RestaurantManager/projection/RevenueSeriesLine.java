@@ -0,0 +1,16 @@
+package pl.pjatk.RestaurantManager.projection;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+public interface RevenueSeriesLine {
+    LocalDate getDay();
+
+    BigDecimal getRevenue();
+
+    BigDecimal getCumulativeRevenue();
+
+    BigDecimal getMovingAverage7();
+
+    BigDecimal getMovingAverage28();
+}
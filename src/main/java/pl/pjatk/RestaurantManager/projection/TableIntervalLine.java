@@ -0,0 +1,12 @@
+package pl.pjatk.RestaurantManager.projection;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+
+public interface TableIntervalLine {
+    Integer getTableId();
+
+    Timestamp getStartDateTime();
+
+    Duration getDuration();
+}
@@ -0,0 +1,19 @@
+package pl.pjatk.RestaurantManager.projection;
+
+import java.math.BigDecimal;
+
+public interface WaiterPerformance {
+    Integer getUserId();
+
+    String getFirstname();
+
+    String getLastname();
+
+    Long getOrderCount();
+
+    BigDecimal getRevenue();
+
+    Double getAverageDurationSeconds();
+
+    Double getAverageProcessingSeconds();
+}
@@ -0,0 +1,68 @@
+package pl.pjatk.RestaurantManager.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import pl.pjatk.RestaurantManager.model.DailyOrderStatistic;
+import pl.pjatk.RestaurantManager.projection.RevenueSeriesLine;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.List;
+
+public interface DailyOrderStatisticRepository extends JpaRepository<DailyOrderStatistic, LocalDate> {
+
+    List<DailyOrderStatistic> findByBusinessDateBetweenOrderByBusinessDate(LocalDate startDate, LocalDate endDate);
+
+    @Modifying
+    @Query(value = """
+      insert into daily_order_statistics (business_date, order_count, revenue, item_count, total_duration_seconds)
+      values (:businessDate, :orderCount, :revenue, :itemCount, :durationSeconds)
+      on duplicate key update
+          order_count = order_count + values(order_count),
+          revenue = revenue + values(revenue),
+          item_count = item_count + values(item_count),
+          total_duration_seconds = total_duration_seconds + values(total_duration_seconds)
+      """, nativeQuery = true)
+    void accumulate(LocalDate businessDate, int orderCount, BigDecimal revenue, int itemCount, long durationSeconds);
+
+    @Modifying
+    @Query("delete from daily_order_statistics d where d.businessDate between :startDate and :endDate")
+    int deleteInRange(LocalDate startDate, LocalDate endDate);
+
+    @Modifying
+    @Query(value = """
+      insert into daily_order_statistics (business_date, order_count, revenue, item_count, total_duration_seconds)
+      select date(o.start_date_time), count(*), coalesce(sum(o.total_price), 0),
+             coalesce(sum(i.item_count), 0), coalesce(sum(o.duration div 1000000000), 0)
+      from orders o
+      left join (select order_id, sum(quantity) item_count from order_item group by order_id) i on i.order_id = o.id
+      where o.status = 'CLOSED' and o.start_date_time between :startDateTime and :endDateTime
+      group by date(o.start_date_time)
+      """, nativeQuery = true)
+    int rebuildFromOrders(Timestamp startDateTime, Timestamp endDateTime);
+
+    // the calendar starts 27 days early so that the moving averages of the first days are full
+    @Query(value = """
+      with recursive calendar (day) as (
+          select cast(:startDate as date) - interval 27 day
+          union all
+          select day + interval 1 day from calendar where day < :endDate
+      )
+      select s.day as day, s.revenue as revenue, s.cumulativeRevenue as cumulativeRevenue,
+             s.movingAverage7 as movingAverage7, s.movingAverage28 as movingAverage28
+      from (
+          select c.day as day, coalesce(d.revenue, 0) as revenue,
+                 sum(case when c.day >= :startDate then coalesce(d.revenue, 0) else 0 end)
+                     over (order by c.day rows unbounded preceding) as cumulativeRevenue,
+                 avg(coalesce(d.revenue, 0)) over (order by c.day rows between 6 preceding and current row) as movingAverage7,
+                 avg(coalesce(d.revenue, 0)) over (order by c.day rows between 27 preceding and current row) as movingAverage28
+          from calendar c
+          left join daily_order_statistics d on d.business_date = c.day
+      ) s
+      where s.day >= :startDate
+      order by s.day
+      """, nativeQuery = true)
+    List<RevenueSeriesLine> findRevenueSeries(LocalDate startDate, LocalDate endDate);
+}
@@ -0,0 +1,33 @@
+package pl.pjatk.RestaurantManager.repository;
+
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import pl.pjatk.RestaurantManager.model.DayClose;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.Optional;
+
+public interface DayCloseRepository extends JpaRepository<DayClose, LocalDate> {
+
+    /**
+     * Reads the close of a day with a share lock, which also covers a close that does not exist
+     * yet: inserting it waits until the reading transaction ends.
+     */
+    @Lock(LockModeType.PESSIMISTIC_READ)
+    Optional<DayClose> findWithShareLockByBusinessDate(LocalDate businessDate);
+
+    /**
+     * Inserts the close of a day and returns 1, or returns 0 when the day is already closed.
+     * Being a write, it does not fix the snapshot of the transaction.
+     */
+    @Modifying
+    @Query(value = """
+      insert ignore into day_closes (business_date, closed_at, closed_stale_orders, freed_tables)
+      values (:businessDate, :closedAt, 0, 0)
+      """, nativeQuery = true)
+    int insertIfAbsent(LocalDate businessDate, Timestamp closedAt);
+}
@@ -0,0 +1,31 @@
+package pl.pjatk.RestaurantManager.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import pl.pjatk.RestaurantManager.model.DayReportEntry;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+public interface DayReportEntryRepository extends JpaRepository<DayReportEntry, DayReportEntry.Key> {
+
+    List<DayReportEntry> findByBusinessDate(LocalDate businessDate);
+
+    @Modifying
+    @Query(value = """
+      insert into day_report_entries (business_date, dimension, entry_key, order_count, quantity, amount)
+      values (:businessDate, :dimension, :entryKey, :orderCount, :quantity, :amount)
+      on duplicate key update
+          order_count = order_count + values(order_count),
+          quantity = quantity + values(quantity),
+          amount = amount + values(amount)
+      """, nativeQuery = true)
+    void accumulate(LocalDate businessDate, String dimension, String entryKey, int orderCount, int quantity,
+                    BigDecimal amount);
+
+    @Modifying
+    @Query("delete from day_report_entries e where e.businessDate = :businessDate")
+    int deleteByDate(LocalDate businessDate);
+}
@@ -1,7 +1,19 @@
 package pl.pjatk.RestaurantManager.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import pl.pjatk.RestaurantManager.model.DishIngredient;
+import pl.pjatk.RestaurantManager.projection.DishIngredientLine;
+
+import java.util.Collection;
+import java.util.List;
 
 public interface DishIngredientRepository extends JpaRepository<DishIngredient, Integer> {
+
+    @Query("""
+      select di.dish.id as dishId, di.ingredient.id as ingredientId, di.quantity as quantity
+      from dish_ingredients di
+      where di.dish.id in :dishIds and di.ingredient is not null
+      """)
+    List<DishIngredientLine> findLinesByDishIds(Collection<Integer> dishIds);
 }
@@ -1,7 +1,15 @@
 package pl.pjatk.RestaurantManager.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import pl.pjatk.RestaurantManager.model.Dish;
+import pl.pjatk.RestaurantManager.projection.NameLabel;
+
+import java.util.Collection;
+import java.util.List;
 
 public interface DishRepository extends JpaRepository<Dish, Integer> {
+
+    @Query("select d.id as id, d.name as name from dishes d where d.id in :ids")
+    List<NameLabel> findNamesByIds(Collection<Integer> ids);
 }
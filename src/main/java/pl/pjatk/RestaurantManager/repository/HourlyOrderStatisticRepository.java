@@ -0,0 +1,51 @@
+package pl.pjatk.RestaurantManager.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import pl.pjatk.RestaurantManager.model.HourlyOrderStatistic;
+import pl.pjatk.RestaurantManager.projection.HeatmapCell;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface HourlyOrderStatisticRepository extends JpaRepository<HourlyOrderStatistic, LocalDateTime> {
+
+    @Modifying
+    @Query(value = """
+      insert into hourly_order_statistics (business_hour, order_count, revenue, total_duration_seconds)
+      values (:businessHour, :orderCount, :revenue, :durationSeconds)
+      on duplicate key update
+          order_count = order_count + values(order_count),
+          revenue = revenue + values(revenue),
+          total_duration_seconds = total_duration_seconds + values(total_duration_seconds)
+      """, nativeQuery = true)
+    void accumulate(LocalDateTime businessHour, int orderCount, BigDecimal revenue, long durationSeconds);
+
+    @Modifying
+    @Query("delete from hourly_order_statistics h where h.businessHour between :startDateTime and :endDateTime")
+    int deleteInRange(LocalDateTime startDateTime, LocalDateTime endDateTime);
+
+    @Modifying
+    @Query(value = """
+      insert into hourly_order_statistics (business_hour, order_count, revenue, total_duration_seconds)
+      select date_format(o.start_date_time, '%Y-%m-%d %H:00:00'), count(*), coalesce(sum(o.total_price), 0),
+             coalesce(sum(o.duration div 1000000000), 0)
+      from orders o
+      where o.status = 'CLOSED' and o.start_date_time between :startDateTime and :endDateTime
+      group by date_format(o.start_date_time, '%Y-%m-%d %H:00:00')
+      """, nativeQuery = true)
+    int rebuildFromOrders(Timestamp startDateTime, Timestamp endDateTime);
+
+    // weekday() is 0 for Monday
+    @Query(value = """
+      select weekday(h.business_hour) as weekday, hour(h.business_hour) as hour, sum(h.order_count) as orderCount,
+             sum(h.revenue) as revenue, sum(h.total_duration_seconds) as totalDurationSeconds
+      from hourly_order_statistics h
+      where h.business_hour between :startDateTime and :endDateTime
+      group by weekday(h.business_hour), hour(h.business_hour)
+      """, nativeQuery = true)
+    List<HeatmapCell> summarizeByWeekdayAndHour(LocalDateTime startDateTime, LocalDateTime endDateTime);
+}
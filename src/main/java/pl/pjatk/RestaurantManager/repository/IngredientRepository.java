@@ -1,8 +1,19 @@
 package pl.pjatk.RestaurantManager.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import pl.pjatk.RestaurantManager.model.Ingredient;
+import pl.pjatk.RestaurantManager.projection.IngredientLabel;
+
+import java.util.Collection;
+import java.util.List;
 
 public interface IngredientRepository extends JpaRepository<Ingredient, Integer> {
 
+    @Query("""
+      select i.id as id, i.name as name, u.name as unit
+      from ingredients i left join i.unit u
+      where i.id in :ids
+      """)
+    List<IngredientLabel> findLabelsByIds(Collection<Integer> ids);
 }
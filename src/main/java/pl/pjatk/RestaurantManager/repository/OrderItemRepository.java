@@ -1,7 +1,49 @@
 package pl.pjatk.RestaurantManager.repository;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import pl.pjatk.RestaurantManager.model.OrderItem;
+import pl.pjatk.RestaurantManager.model.Status;
+import pl.pjatk.RestaurantManager.projection.DailyDishAggregate;
+import pl.pjatk.RestaurantManager.projection.OrderDishLine;
+import pl.pjatk.RestaurantManager.projection.OrderItemState;
+
+import java.sql.Timestamp;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
 
 public interface OrderItemRepository extends JpaRepository<OrderItem, Integer> {
+
+    @Query("""
+      select cast(o.startDateTime as LocalDate) as day, d.id as dishId, sum(i.quantity) as quantity
+      from OrderItem i join i.order o join i.dish d
+      where o.startDateTime between :startDate and :endDate and o.status = :status
+      group by cast(o.startDateTime as LocalDate), d.id
+      order by 1, 2
+      """)
+    List<DailyDishAggregate> sumQuantityByDayAndDish(Timestamp startDate, Timestamp endDate, Status status);
+
+    @Query("""
+      select distinct o.id as orderId, i.dish.id as dishId, o.version as version
+      from OrderItem i join i.order o
+      where o.startDateTime between :startDate and :endDate and o.status = :status and i.dish is not null
+      order by o.id
+      """)
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<OrderDishLine> streamOrderDishes(Timestamp startDate, Timestamp endDate, Status status);
+
+    @Query("select i.order.id as orderId, i.id as itemId from OrderItem i where i.id in :itemIds and i.ready <> :ready")
+    List<OrderItemState> findItemsToMark(Collection<Integer> itemIds, boolean ready);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update OrderItem i set i.ready = :ready where i.id in :itemIds")
+    int updateReady(Collection<Integer> itemIds, boolean ready);
 }
@@ -1,19 +1,142 @@
 package pl.pjatk.RestaurantManager.repository;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import pl.pjatk.RestaurantManager.model.Order;
 import pl.pjatk.RestaurantManager.model.Status;
+import pl.pjatk.RestaurantManager.projection.HourlyAggregate;
+import pl.pjatk.RestaurantManager.projection.OrderExportLine;
+import pl.pjatk.RestaurantManager.projection.OrderFactLine;
+import pl.pjatk.RestaurantManager.projection.OpenOrderLine;
+import pl.pjatk.RestaurantManager.projection.OrderLatencyLine;
+import pl.pjatk.RestaurantManager.projection.TableIntervalLine;
+import pl.pjatk.RestaurantManager.projection.OrderLine;
+import pl.pjatk.RestaurantManager.projection.OrderStateLine;
+import pl.pjatk.RestaurantManager.projection.WaiterPerformance;
 
 import java.sql.Timestamp;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface OrderRepository extends JpaRepository<Order, Integer> {
 
     List<Order> getOrdersByStatusIn(List<Status> statusList);
     List<Order> getOrderByStatusNot(Status status);
+
     List<Order> getOrdersByStatus(Status status);
     List<Order> findByStartDateTimeGreaterThanAndStatus(Timestamp startDate, Status status);
     List<Order> findByStartDateTimeBetweenAndStatus(Timestamp startDate,Timestamp endDate, Status status);
     List<Order> findByStartDateTimeBetween(Timestamp startOfDay, Timestamp endOfDay);
+    List<Order> findByStartDateTimeLessThanEqualAndStatusNotIn(Timestamp endDate, List<Status> statusList);
+
+    @Query("""
+      select o.id as orderId, o.startDateTime as startDateTime, t.id as tableId, o.status as status,
+             o.totalPrice as totalPrice, o.version as version
+      from orders o left join o.table t
+      where o.startDateTime between :startDate and :endDate
+      """)
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<OrderStateLine> streamOrderStates(Timestamp startDate, Timestamp endDate);
+
+    @Query("""
+      select cast(o.startDateTime as LocalDate) as day, extract(hour from o.startDateTime) as hour, count(o) as orderCount
+      from orders o
+      where o.startDateTime between :startDate and :endDate
+      group by cast(o.startDateTime as LocalDate), extract(hour from o.startDateTime)
+      order by 1, 2
+      """)
+    List<HourlyAggregate> countByDayAndHour(Timestamp startDate, Timestamp endDate);
+
+    @Query("""
+      select o.id as orderId, o.startDateTime as startDateTime, o.totalPrice as totalPrice,
+             u.id as userId, i.dish.id as dishId, i.quantity as quantity
+      from orders o left join o.user u left join o.orderItems i
+      where o.startDateTime between :startDate and :endDate and o.status = :status
+      order by o.id
+      """)
+    Stream<OrderLine> streamOrderLines(Timestamp startDate, Timestamp endDate, Status status);
+
+    @Query("""
+      select o.id as orderId, o.startDateTime as startDateTime, t.id as tableId, u.id as userId,
+             o.totalPrice as totalPrice, o.duration as duration, i.dish.id as dishId, i.quantity as quantity,
+             o.version as version
+      from orders o left join o.table t left join o.user u left join o.orderItems i
+      where o.status = :status
+      order by o.id
+      """)
+    Stream<OrderFactLine> streamOrderFacts(Status status);
+
+    @Query("""
+      select o.startDateTime as startDateTime, o.orderProcessingStart as orderProcessingStart,
+             o.readyDateTime as readyDateTime
+      from orders o
+      where o.startDateTime between :startDate and :endDate
+        and (o.orderProcessingStart is not null or o.readyDateTime is not null)
+      """)
+    Stream<OrderLatencyLine> streamLatencies(Timestamp startDate, Timestamp endDate);
+
+    @Query("""
+      select o.table.id as tableId, o.startDateTime as startDateTime, o.duration as duration
+      from orders o
+      where o.status = :status and o.table is not null and o.duration is not null
+        and o.startDateTime between :startDate and :endDate
+      order by o.table.id, o.startDateTime
+      """)
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<TableIntervalLine> streamTableIntervals(Timestamp startDate, Timestamp endDate, Status status);
+
+    @Query("""
+      select o.id as orderId, o.startDateTime as startDateTime, o.orderProcessingStart as orderProcessingStart,
+             o.status as status, o.isReadyToServe as isReadyToServe, o.totalPrice as totalPrice,
+             o.duration as duration, u.id as userId, u.firstname as firstname, u.lastname as lastname,
+             t.id as tableId, t.name as tableName, d.id as dishId, d.name as dishName,
+             i.quantity as quantity, i.ready as ready
+      from orders o left join o.user u left join o.table t left join o.orderItems i left join i.dish d
+      where o.startDateTime between :startDate and :endDate and o.status = :status
+      order by o.id, i.id
+      """)
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<OrderExportLine> streamOrderExport(Timestamp startDate, Timestamp endDate, Status status);
+
+    @Query("""
+      select o.id as orderId, u.id as userId, t.id as tableId, o.startDateTime as startDateTime,
+             o.orderProcessingStart as orderProcessingStart, o.readyDateTime as readyDateTime,
+             o.status as status, o.isReadyToServe as isReadyToServe, o.totalPrice as totalPrice,
+             o.duration as duration, o.version as version, i.id as itemId, d.id as dishId,
+             i.quantity as quantity, i.ready as ready
+      from orders o left join o.user u left join o.table t left join o.orderItems i left join i.dish d
+      where o.status <> :status
+      order by o.id, i.id
+      """)
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<OpenOrderLine> streamOpenOrders(Status status);
+
+    @Query(value = """
+      select u.id as userId, u.firstname as firstname, u.lastname as lastname, count(*) as orderCount,
+             coalesce(sum(o.total_price), 0) as revenue,
+             avg(o.duration) / 1000000000 as averageDurationSeconds,
+             avg(timestampdiff(microsecond, o.start_date_time, o.order_processing_start)) / 1000000 as averageProcessingSeconds
+      from orders o
+      join users u on u.id = o.user_id
+      where o.status = 'CLOSED' and o.start_date_time between :startDateTime and :endDateTime
+      group by u.id, u.firstname, u.lastname
+      order by orderCount desc, u.id
+      """, nativeQuery = true)
+    List<WaiterPerformance> summarizeByWaiter(Timestamp startDateTime, Timestamp endDateTime);
 }
@@ -1,7 +1,32 @@
 package pl.pjatk.RestaurantManager.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import pl.pjatk.RestaurantManager.model.Status;
 import pl.pjatk.RestaurantManager.model.Table;
+import pl.pjatk.RestaurantManager.projection.NameLabel;
+import pl.pjatk.RestaurantManager.projection.TableSeats;
+
+import java.util.Collection;
+import java.util.List;
 
 public interface TableRepository extends JpaRepository<Table, Integer> {
+
+    @Query("select t.id as id, t.name as name from restaurant_tables t where t.id in :ids")
+    List<NameLabel> findNamesByIds(Collection<Integer> ids);
+
+    @Query("select t.id as id, t.seatsNumber as seatsNumber from restaurant_tables t")
+    List<TableSeats> findAllSeats();
+
+    /**
+     * Frees the occupied tables among {@code ids} that have no order outside {@code finishedStatuses}.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("""
+      update restaurant_tables t set t.isOccupied = false
+      where t.id in :ids and t.isOccupied = true
+        and not exists (select o.id from orders o where o.table.id = t.id and o.status not in :finishedStatuses)
+      """)
+    int freeWithoutOrders(Collection<Integer> ids, Collection<Status> finishedStatuses);
 }
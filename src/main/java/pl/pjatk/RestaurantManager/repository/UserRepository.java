@@ -1,11 +1,18 @@
 package pl.pjatk.RestaurantManager.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import pl.pjatk.RestaurantManager.model.User;
+import pl.pjatk.RestaurantManager.projection.NameLabel;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface UserRepository extends JpaRepository<User, Integer> {
 
     Optional<User> findByEmail(String email);
+
+    @Query("select u.id as id, concat(u.firstname, ' ', u.lastname) as name from users u where u.id in :ids")
+    List<NameLabel> findNamesByIds(Collection<Integer> ids);
 }
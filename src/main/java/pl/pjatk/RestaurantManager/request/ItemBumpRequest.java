@@ -0,0 +1,27 @@
+package pl.pjatk.RestaurantManager.request;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ItemBumpRequest {
+    private List<Integer> itemIds;
+    private List<OrderItems> orders;
+    @Builder.Default
+    private Boolean ready = true;
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class OrderItems {
+        private Integer orderId;
+        private List<Integer> itemIds;
+    }
+}
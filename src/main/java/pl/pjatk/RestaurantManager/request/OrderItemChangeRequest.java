@@ -0,0 +1,16 @@
+package pl.pjatk.RestaurantManager.request;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class OrderItemChangeRequest {
+    private Integer id;
+    private Integer quantity;
+    private Boolean ready;
+}
@@ -0,0 +1,20 @@
+package pl.pjatk.RestaurantManager.request;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class OrderItemPatchRequest {
+    private List<OrderItemRequest> add;
+    private List<Integer> remove;
+    private List<OrderItemChangeRequest> change;
+    private BigDecimal totalPrice;
+}
@@ -0,0 +1,23 @@
+package pl.pjatk.RestaurantManager.request;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import pl.pjatk.RestaurantManager.model.StatisticMetric;
+
+import javax.validation.constraints.NotNull;
+import java.time.LocalDate;
+import java.util.Set;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ReportJobRequest {
+    @NotNull(message = "Report must have start date")
+    private LocalDate startDate;
+    @NotNull(message = "Report must have end date")
+    private LocalDate endDate;
+    private Set<StatisticMetric> metrics;
+}
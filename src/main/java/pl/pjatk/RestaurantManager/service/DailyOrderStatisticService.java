@@ -0,0 +1,123 @@
+package pl.pjatk.RestaurantManager.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import pl.pjatk.RestaurantManager.dto.OrderSnapshot;
+import pl.pjatk.RestaurantManager.dto.RevenueSeriesDto;
+import pl.pjatk.RestaurantManager.event.OrderChangedEvent;
+import pl.pjatk.RestaurantManager.model.DailyOrderStatistic;
+import pl.pjatk.RestaurantManager.model.RevenueComparison;
+import pl.pjatk.RestaurantManager.projection.RevenueSeriesLine;
+import pl.pjatk.RestaurantManager.repository.DailyOrderStatisticRepository;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+@Service
+@RequiredArgsConstructor
+public class DailyOrderStatisticService {
+    private final DailyOrderStatisticRepository dailyOrderStatisticRepository;
+
+    public List<DailyOrderStatistic> findInRange(LocalDate startDate, LocalDate endDate) {
+        return dailyOrderStatisticRepository.findByBusinessDateBetweenOrderByBusinessDate(startDate, endDate);
+    }
+
+    /**
+     * Daily revenue of the range with its running total and 7- and 28-day moving averages, all
+     * computed by window functions over the rollup. With {@code comparison} the same series of
+     * the previous period of equal length, or of the same weekdays 52 weeks earlier, is added
+     * together with the change of the total against it.
+     */
+    @Transactional(readOnly = true)
+    public RevenueSeriesDto calculateRevenueSeries(LocalDate startDate, LocalDate endDate,
+                                                   RevenueComparison comparison) {
+        RevenueSeriesDto series = findRevenueSeries(startDate, endDate);
+        if (comparison == null) {
+            return series;
+        }
+
+        long days = comparison == RevenueComparison.PREVIOUS_PERIOD
+                ? ChronoUnit.DAYS.between(startDate, endDate) + 1
+                : 52 * 7;
+        RevenueSeriesDto previous = findRevenueSeries(startDate.minusDays(days), endDate.minusDays(days));
+        series.setComparedWith(comparison);
+        series.setComparison(previous);
+        series.setChange(previous.getTotal().signum() != 0
+                ? series.getTotal().subtract(previous.getTotal())
+                        .divide(previous.getTotal(), 4, RoundingMode.HALF_UP)
+                : null);
+        return series;
+    }
+
+    /**
+     * Keeps the rollup in step with CLOSED orders: the previous state is retracted and the
+     * current one added, so reopening, editing or deleting a closed order is reflected too.
+     */
+    @EventListener
+    @Transactional
+    public void onOrderChanged(OrderChangedEvent event) {
+        OrderSnapshot previous = closedOrNull(event.getPrevious());
+        OrderSnapshot current = closedOrNull(event.getCurrent());
+
+        if (previous != null) {
+            accumulate(previous, -1);
+        }
+        if (current != null) {
+            accumulate(current, 1);
+        }
+    }
+
+    @Transactional
+    public int rebuild(LocalDate startDate, LocalDate endDate) {
+        dailyOrderStatisticRepository.deleteInRange(startDate, endDate);
+        return dailyOrderStatisticRepository.rebuildFromOrders(
+                Timestamp.valueOf(startDate.atStartOfDay()),
+                Timestamp.valueOf(endDate.atTime(LocalTime.MAX)));
+    }
+
+    private RevenueSeriesDto findRevenueSeries(LocalDate startDate, LocalDate endDate) {
+        List<RevenueSeriesDto.Point> points = new ArrayList<>();
+        BigDecimal total = BigDecimal.ZERO;
+        for (RevenueSeriesLine line : dailyOrderStatisticRepository.findRevenueSeries(startDate, endDate)) {
+            points.add(new RevenueSeriesDto.Point(line.getDay(), scaled(line.getRevenue()),
+                    scaled(line.getCumulativeRevenue()), scaled(line.getMovingAverage7()),
+                    scaled(line.getMovingAverage28())));
+            total = scaled(line.getCumulativeRevenue());
+        }
+
+        return RevenueSeriesDto.builder()
+                .startDate(startDate)
+                .endDate(endDate)
+                .total(total)
+                .points(points)
+                .build();
+    }
+
+    private static BigDecimal scaled(BigDecimal value) {
+        return value != null ? value.setScale(2, RoundingMode.HALF_UP) : BigDecimal.ZERO.setScale(2);
+    }
+
+    private void accumulate(OrderSnapshot order, int sign) {
+        BigDecimal revenue = order.getTotalPrice() != null ? order.getTotalPrice() : BigDecimal.ZERO;
+        long durationSeconds = order.getDuration() != null ? order.getDuration().getSeconds() : 0;
+
+        dailyOrderStatisticRepository.accumulate(
+                order.getStartDate(),
+                sign,
+                sign < 0 ? revenue.negate() : revenue,
+                sign * order.getItemCount(),
+                sign * durationSeconds);
+    }
+
+    private OrderSnapshot closedOrNull(OrderSnapshot order) {
+        return order != null && order.isClosed() && order.getStartDateTime() != null ? order : null;
+    }
+}
@@ -0,0 +1,250 @@
+package pl.pjatk.RestaurantManager.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import pl.pjatk.RestaurantManager.dto.DayReportDto;
+import pl.pjatk.RestaurantManager.dto.OrderSnapshot;
+import pl.pjatk.RestaurantManager.event.OrderChangedEvent;
+import pl.pjatk.RestaurantManager.model.*;
+import pl.pjatk.RestaurantManager.repository.*;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * End-of-day report per business date (the start date of the orders): orders and amounts by
+ * status, and revenue per waiter and quantities per dish of CLOSED orders. Entries are kept up
+ * to date from order changes until the day is closed; closing finishes the stale orders, frees
+ * their tables and recounts the day from its orders, after which the report no longer changes and
+ * is served from memory. Order changes read the close of their day with a share lock, so a
+ * change is either counted before the day is recounted or not counted at all.
+ */
+@Service
+@RequiredArgsConstructor
+public class DayReportService {
+    private final DayReportEntryRepository dayReportEntryRepository;
+    private final DayCloseRepository dayCloseRepository;
+    private final OrderRepository orderRepository;
+    private final TableRepository tableRepository;
+    private final UserRepository userRepository;
+    private final DishRepository dishRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final Set<LocalDate> closedDates = ConcurrentHashMap.newKeySet();
+    private final Map<LocalDate, DayReportDto> closedReports = new ConcurrentHashMap<>();
+
+    @EventListener
+    @Transactional
+    public void onOrderChanged(OrderChangedEvent event) {
+        Map<DayReportEntry.Key, Delta> deltas = new HashMap<>();
+        collect(deltas, event.getPrevious(), -1);
+        collect(deltas, event.getCurrent(), 1);
+
+        Map<LocalDate, Boolean> closedByDate = new HashMap<>();
+        deltas.forEach((key, delta) -> {
+            if (!delta.isZero() && !closedByDate.computeIfAbsent(key.getBusinessDate(), this::isClosed)) {
+                dayReportEntryRepository.accumulate(key.getBusinessDate(), key.getDimension().name(),
+                        key.getEntryKey(), delta.orderCount, delta.quantity, delta.amount);
+            }
+        });
+    }
+
+    @Transactional(readOnly = true)
+    public DayReportDto getReport(LocalDate date) {
+        DayReportDto closedReport = closedReports.get(date);
+        if (closedReport != null) {
+            return closedReport;
+        }
+
+        Optional<DayClose> dayClose = dayCloseRepository.findById(date);
+        DayReportDto report = buildReport(date, dayClose.orElse(null));
+        if (dayClose.isPresent()) {
+            closedDates.add(date);
+            closedReports.put(date, report);
+        }
+        return report;
+    }
+
+    /**
+     * Closes every order started until the end of {@code date} that is neither CLOSED nor
+     * CANCELLED, frees their tables unless another order still uses them, recounts the day and
+     * freezes it. Closing a closed day returns its report unchanged.
+     * <p>
+     * The close is inserted first: it waits for transactions that have counted a change of the
+     * day, and later changes wait for it and then see the day closed, so the recount reads every
+     * counted change.
+     */
+    @Transactional
+    public DayReportDto closeDay(LocalDate date) {
+        Timestamp closedAt = new Timestamp(System.currentTimeMillis());
+        if (closedDates.contains(date) || dayCloseRepository.insertIfAbsent(date, closedAt) == 0) {
+            return getReport(date);
+        }
+
+        List<Status> finishedStatuses = List.of(Status.CLOSED, Status.CANCELLED);
+        List<Order> staleOrders = orderRepository.findByStartDateTimeLessThanEqualAndStatusNotIn(
+                Timestamp.valueOf(date.atTime(LocalTime.MAX)), finishedStatuses);
+        Set<Integer> tableIds = new HashSet<>();
+        for (Order order : staleOrders) {
+            OrderSnapshot previous = OrderSnapshot.of(order);
+            order.setStatus(Status.CLOSED);
+            order.setDuration(Duration.between(order.getStartDateTime().toInstant(), closedAt.toInstant()));
+            Order savedOrder = orderRepository.save(order);
+            eventPublisher.publishEvent(new OrderChangedEvent(previous, OrderSnapshot.of(savedOrder)));
+            if (order.getTable() != null) {
+                tableIds.add(order.getTable().getId());
+            }
+        }
+        int freedTables = tableIds.isEmpty() ? 0 : tableRepository.freeWithoutOrders(tableIds, finishedStatuses);
+
+        recount(date);
+        DayClose dayClose = dayCloseRepository.save(DayClose.builder()
+                .businessDate(date)
+                .closedAt(closedAt)
+                .closedStaleOrders(staleOrders.size())
+                .freedTables(freedTables)
+                .build());
+        return buildReport(date, dayClose);
+    }
+
+    private void recount(LocalDate date) {
+        Map<DayReportEntry.Key, Delta> deltas = new HashMap<>();
+        for (Order order : orderRepository.findByStartDateTimeBetween(
+                Timestamp.valueOf(date.atStartOfDay()), Timestamp.valueOf(date.atTime(LocalTime.MAX)))) {
+            collect(deltas, OrderSnapshot.of(order), 1);
+        }
+
+        List<DayReportEntry> entries = new ArrayList<>();
+        deltas.forEach((key, delta) -> {
+            if (!delta.isZero()) {
+                entries.add(DayReportEntry.builder()
+                        .businessDate(key.getBusinessDate())
+                        .dimension(key.getDimension())
+                        .entryKey(key.getEntryKey())
+                        .orderCount(delta.orderCount)
+                        .quantity(delta.quantity)
+                        .amount(delta.amount)
+                        .build());
+            }
+        });
+
+        dayReportEntryRepository.deleteByDate(date);
+        dayReportEntryRepository.saveAll(entries);
+    }
+
+    private DayReportDto buildReport(LocalDate date, DayClose dayClose) {
+        Map<Status, Integer> ordersByStatus = new EnumMap<>(Status.class);
+        for (Status status : Status.values()) {
+            ordersByStatus.put(status, 0);
+        }
+        BigDecimal revenue = BigDecimal.ZERO;
+        BigDecimal cancelledTotal = BigDecimal.ZERO;
+        Map<Integer, DayReportEntry> waiterEntries = new HashMap<>();
+        Map<Integer, DayReportEntry> dishEntries = new HashMap<>();
+
+        for (DayReportEntry entry : dayReportEntryRepository.findByBusinessDate(date)) {
+            switch (entry.getDimension()) {
+                case STATUS -> {
+                    Status status = Status.valueOf(entry.getEntryKey());
+                    ordersByStatus.put(status, entry.getOrderCount());
+                    if (status == Status.CLOSED) {
+                        revenue = entry.getAmount();
+                    } else if (status == Status.CANCELLED) {
+                        cancelledTotal = entry.getAmount();
+                    }
+                }
+                case WAITER -> waiterEntries.put(Integer.valueOf(entry.getEntryKey()), entry);
+                case DISH -> dishEntries.put(Integer.valueOf(entry.getEntryKey()), entry);
+            }
+        }
+
+        List<DayReportDto.Waiter> waiters = new ArrayList<>();
+        for (User user : userRepository.findAllById(waiterEntries.keySet())) {
+            DayReportEntry entry = waiterEntries.get(user.getId());
+            waiters.add(new DayReportDto.Waiter(user.getId(), user.getFirstname() + ' ' + user.getLastname(),
+                    entry.getOrderCount(), entry.getAmount()));
+        }
+        waiters.sort(Comparator.comparing(DayReportDto.Waiter::getRevenue).reversed());
+
+        List<DayReportDto.Dish> dishes = new ArrayList<>();
+        for (Dish dish : dishRepository.findAllById(dishEntries.keySet())) {
+            dishes.add(new DayReportDto.Dish(dish.getId(), dish.getName(), dishEntries.get(dish.getId()).getQuantity()));
+        }
+        dishes.sort(Comparator.comparingInt(DayReportDto.Dish::getQuantity).reversed());
+
+        return DayReportDto.builder()
+                .businessDate(date)
+                .closed(dayClose != null)
+                .closedAt(dayClose != null ? dayClose.getClosedAt() : null)
+                .closedStaleOrders(dayClose != null ? dayClose.getClosedStaleOrders() : 0)
+                .freedTables(dayClose != null ? dayClose.getFreedTables() : 0)
+                .revenue(revenue)
+                .ordersByStatus(ordersByStatus)
+                .cancelledOrders(ordersByStatus.get(Status.CANCELLED))
+                .cancelledTotal(cancelledTotal)
+                .waiters(waiters)
+                .dishes(dishes)
+                .build();
+    }
+
+    /**
+     * Not cached, since the close found may have been inserted by the running transaction, which
+     * can still roll back.
+     */
+    private boolean isClosed(LocalDate date) {
+        return closedDates.contains(date) || dayCloseRepository.findWithShareLockByBusinessDate(date).isPresent();
+    }
+
+    private static void collect(Map<DayReportEntry.Key, Delta> deltas, OrderSnapshot order, int sign) {
+        if (order == null || order.getStartDateTime() == null || order.getStatus() == null) {
+            return;
+        }
+
+        LocalDate date = order.getStartDate();
+        BigDecimal amount = order.getTotalPrice() != null ? order.getTotalPrice() : BigDecimal.ZERO;
+        BigDecimal signedAmount = sign < 0 ? amount.negate() : amount;
+
+        deltaOf(deltas, date, DayReportDimension.STATUS, order.getStatus().name()).add(sign, 0, signedAmount);
+        if (order.isClosed()) {
+            if (order.getUserId() != null) {
+                deltaOf(deltas, date, DayReportDimension.WAITER, order.getUserId().toString())
+                        .add(sign, 0, signedAmount);
+            }
+            for (OrderSnapshot.Item item : order.getItems()) {
+                if (item.getDishId() != null) {
+                    deltaOf(deltas, date, DayReportDimension.DISH, item.getDishId().toString())
+                            .add(0, sign * item.getQuantity(), BigDecimal.ZERO);
+                }
+            }
+        }
+    }
+
+    private static Delta deltaOf(Map<DayReportEntry.Key, Delta> deltas, LocalDate date,
+                                 DayReportDimension dimension, String entryKey) {
+        return deltas.computeIfAbsent(new DayReportEntry.Key(date, dimension, entryKey), key -> new Delta());
+    }
+
+    private static final class Delta {
+        private int orderCount;
+        private int quantity;
+        private BigDecimal amount = BigDecimal.ZERO;
+
+        private void add(int orderCount, int quantity, BigDecimal amount) {
+            this.orderCount += orderCount;
+            this.quantity += quantity;
+            this.amount = this.amount.add(amount);
+        }
+
+        private boolean isZero() {
+            return orderCount == 0 && quantity == 0 && amount.signum() == 0;
+        }
+    }
+}
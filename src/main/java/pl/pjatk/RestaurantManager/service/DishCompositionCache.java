@@ -0,0 +1,71 @@
+package pl.pjatk.RestaurantManager.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import pl.pjatk.RestaurantManager.projection.DishIngredientLine;
+import pl.pjatk.RestaurantManager.repository.DishIngredientRepository;
+import pl.pjatk.RestaurantManager.statistic.DishComposition;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Flattened bill of materials per dish. Entries are loaded on demand with one query for all
+ * missing dishes and dropped by {@link DishService} and {@link IngredientService} on changes.
+ */
+@Service
+@RequiredArgsConstructor
+public class DishCompositionCache {
+    private final DishIngredientRepository dishIngredientRepository;
+
+    private final Map<Integer, DishComposition> compositions = new ConcurrentHashMap<>();
+
+    public Map<Integer, DishComposition> getCompositions(Collection<Integer> dishIds) {
+        Map<Integer, DishComposition> result = new HashMap<>();
+        List<Integer> missing = new ArrayList<>();
+        for (Integer dishId : dishIds) {
+            DishComposition composition = compositions.get(dishId);
+            if (composition != null) {
+                result.put(dishId, composition);
+            } else {
+                missing.add(dishId);
+            }
+        }
+
+        if (!missing.isEmpty()) {
+            Map<Integer, List<DishIngredientLine>> linesByDish = new HashMap<>();
+            for (DishIngredientLine line : dishIngredientRepository.findLinesByDishIds(missing)) {
+                linesByDish.computeIfAbsent(line.getDishId(), id -> new ArrayList<>()).add(line);
+            }
+            for (Integer dishId : missing) {
+                DishComposition composition = toComposition(linesByDish.getOrDefault(dishId, List.of()));
+                compositions.put(dishId, composition);
+                result.put(dishId, composition);
+            }
+        }
+
+        return result;
+    }
+
+    public void invalidate(Integer dishId) {
+        compositions.remove(dishId);
+    }
+
+    public void invalidateAll() {
+        compositions.clear();
+    }
+
+    private static DishComposition toComposition(List<DishIngredientLine> lines) {
+        if (lines.isEmpty()) {
+            return DishComposition.EMPTY;
+        }
+
+        int[] ingredientIds = new int[lines.size()];
+        double[] quantities = new double[lines.size()];
+        for (int i = 0; i < lines.size(); i++) {
+            ingredientIds[i] = lines.get(i).getIngredientId();
+            quantities[i] = lines.get(i).getQuantity() != null ? lines.get(i).getQuantity() : 0;
+        }
+        return new DishComposition(ingredientIds, quantities);
+    }
+}
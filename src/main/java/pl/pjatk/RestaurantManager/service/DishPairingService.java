@@ -0,0 +1,190 @@
+package pl.pjatk.RestaurantManager.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import pl.pjatk.RestaurantManager.dto.OrderSnapshot;
+import pl.pjatk.RestaurantManager.dto.PairedDishesDto;
+import pl.pjatk.RestaurantManager.event.OrderChangedEvent;
+import pl.pjatk.RestaurantManager.model.Dish;
+import pl.pjatk.RestaurantManager.model.Status;
+import pl.pjatk.RestaurantManager.projection.OrderDishLine;
+import pl.pjatk.RestaurantManager.repository.DishRepository;
+import pl.pjatk.RestaurantManager.repository.OrderItemRepository;
+import pl.pjatk.RestaurantManager.statistic.CoOccurrenceMatrix;
+import pl.pjatk.RestaurantManager.statistic.IntLongHashMap;
+import pl.pjatk.RestaurantManager.statistic.OrderChangeBuffer;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.*;
+import java.util.stream.Stream;
+
+/**
+ * "Frequently ordered together" from a co-occurrence matrix of the CLOSED orders of the last
+ * {@code statistic.pairs.days} days. The matrix is built in parallel date chunks at startup and
+ * on {@code statistic.pairs.rebuild-cron}, and in between follows orders started since the first
+ * day of that window as they are closed, reopened or deleted. Changes committed while the matrix
+ * is rebuilt are replayed into the rebuilt one.
+ */
+@Service
+@RequiredArgsConstructor
+public class DishPairingService {
+    private final OrderItemRepository orderItemRepository;
+    private final DishRepository dishRepository;
+    private final StatisticPartitionExecutor partitionExecutor;
+
+    @Value("${statistic.pairs.days:365}")
+    private int days;
+
+    private final Object lock = new Object();
+    private volatile CoOccurrenceMatrix matrix = new CoOccurrenceMatrix();
+    private volatile LocalDate windowStart;
+    private OrderChangeBuffer changesDuringRebuild;
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${statistic.pairs.rebuild-cron:0 30 3 * * *}")
+    public synchronized void rebuild() {
+        LocalDate today = LocalDate.now();
+        LocalDate startDate = today.minusDays(days - 1);
+        OrderChangeBuffer changes = new OrderChangeBuffer();
+        synchronized (lock) {
+            changesDuringRebuild = changes;
+        }
+
+        try {
+            CoOccurrenceMatrix rebuilt = new CoOccurrenceMatrix();
+            partitionExecutor.map(startDate, today, (start, end) -> read(start, end, changes)).forEach(rebuilt::merge);
+            synchronized (lock) {
+                changes.replay(order -> isRead(order, startDate, today), change -> apply(rebuilt, startDate, change));
+                matrix = rebuilt;
+                windowStart = startDate;
+            }
+        } finally {
+            synchronized (lock) {
+                changesDuringRebuild = null;
+            }
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderChanged(OrderChangedEvent event) {
+        synchronized (lock) {
+            if (windowStart != null) {
+                apply(matrix, windowStart, event);
+            }
+            if (changesDuringRebuild != null) {
+                changesDuringRebuild.add(event);
+            }
+        }
+    }
+
+    /**
+     * The {@code limit} dishes most often in the same order as {@code dishId}, with the share of
+     * its orders that contain them.
+     */
+    public PairedDishesDto findPairedDishes(Integer dishId, int limit) {
+        CoOccurrenceMatrix source = matrix;
+        long orderCount = source.getOrderCount(dishId);
+        List<CoOccurrenceMatrix.Partner> top = source.top(dishId, limit);
+
+        Map<Integer, String> names = new HashMap<>();
+        if (!top.isEmpty()) {
+            for (Dish dish : dishRepository.findAllById(top.stream().map(CoOccurrenceMatrix.Partner::dishId).toList())) {
+                names.put(dish.getId(), dish.getName());
+            }
+        }
+
+        List<PairedDishesDto.Partner> partners = new ArrayList<>(top.size());
+        for (CoOccurrenceMatrix.Partner partner : top) {
+            partners.add(new PairedDishesDto.Partner(partner.dishId(), names.get(partner.dishId()), partner.count(),
+                    orderCount > 0 ? partner.count() / (double) orderCount : 0));
+        }
+
+        return PairedDishesDto.builder()
+                .dishId(dishId)
+                .orderCount(orderCount)
+                .partners(partners)
+                .build();
+    }
+
+    public int getDishCount() {
+        return matrix.size();
+    }
+
+    private CoOccurrenceMatrix read(LocalDate startDate, LocalDate endDate, OrderChangeBuffer changes) {
+        CoOccurrenceMatrix result = new CoOccurrenceMatrix();
+        IntLongHashMap versions = new IntLongHashMap();
+        try (Stream<OrderDishLine> lines = orderItemRepository.streamOrderDishes(
+                Timestamp.valueOf(startDate.atStartOfDay()), Timestamp.valueOf(endDate.atTime(LocalTime.MAX)),
+                Status.CLOSED)) {
+            Integer orderId = null;
+            List<Integer> dishIds = new ArrayList<>();
+            for (Iterator<OrderDishLine> iterator = lines.iterator(); iterator.hasNext(); ) {
+                OrderDishLine line = iterator.next();
+                if (!line.getOrderId().equals(orderId)) {
+                    addOrder(result, dishIds);
+                    orderId = line.getOrderId();
+                    versions.add(orderId, OrderChangeBuffer.versionOf(line.getVersion()));
+                }
+                dishIds.add(line.getDishId());
+            }
+            addOrder(result, dishIds);
+        }
+        changes.addRead(versions);
+        return result;
+    }
+
+    private static void addOrder(CoOccurrenceMatrix target, List<Integer> dishIds) {
+        if (!dishIds.isEmpty()) {
+            target.add(dishIds.stream().mapToInt(Integer::intValue).distinct().toArray(), 1);
+            dishIds.clear();
+        }
+    }
+
+    private static void apply(CoOccurrenceMatrix target, LocalDate windowStart, OrderChangedEvent event) {
+        int[] previous = dishesOf(event.getPrevious(), windowStart);
+        int[] current = dishesOf(event.getCurrent(), windowStart);
+        if (Arrays.equals(previous, current)) {
+            return;
+        }
+
+        if (previous != null) {
+            target.add(previous, -1);
+        }
+        if (current != null) {
+            target.add(current, 1);
+        }
+    }
+
+    /**
+     * Whether a rebuild reading CLOSED orders with dishes started between the dates reads the order.
+     */
+    private static boolean isRead(OrderSnapshot order, LocalDate startDate, LocalDate endDate) {
+        int[] dishIds = dishesOf(order, startDate);
+        return dishIds != null && dishIds.length > 0 && !order.getStartDate().isAfter(endDate);
+    }
+
+    /**
+     * Sorted distinct dishes of a CLOSED order started on or after {@code windowStart}, or null
+     * for any other order.
+     */
+    private static int[] dishesOf(OrderSnapshot order, LocalDate windowStart) {
+        if (order == null || !order.isClosed() || order.getStartDate() == null
+                || order.getStartDate().isBefore(windowStart)) {
+            return null;
+        }
+        return order.getItems().stream()
+                .map(OrderSnapshot.Item::getDishId)
+                .filter(Objects::nonNull)
+                .mapToInt(Integer::intValue)
+                .distinct()
+                .sorted()
+                .toArray();
+    }
+}
@@ -0,0 +1,179 @@
+package pl.pjatk.RestaurantManager.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import pl.pjatk.RestaurantManager.dto.OrderSnapshot;
+import pl.pjatk.RestaurantManager.dto.TopDishesDto;
+import pl.pjatk.RestaurantManager.event.OrderChangedEvent;
+import pl.pjatk.RestaurantManager.model.Dish;
+import pl.pjatk.RestaurantManager.model.Status;
+import pl.pjatk.RestaurantManager.projection.DailyDishAggregate;
+import pl.pjatk.RestaurantManager.repository.DishRepository;
+import pl.pjatk.RestaurantManager.repository.OrderItemRepository;
+import pl.pjatk.RestaurantManager.statistic.SpaceSavingSketch;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps one Space-Saving sketch of dish quantities per day for the last
+ * {@code statistic.top-dishes.days} days. Sketches cannot forget, so a day in which a closed
+ * order is reopened or deleted is marked stale and rebuilt from the database on the next read.
+ * Days that fall out of the window are dropped on every change and read.
+ */
+@Service
+@RequiredArgsConstructor
+public class DishPopularityService {
+    private final OrderItemRepository orderItemRepository;
+    private final DishRepository dishRepository;
+
+    @Value("${statistic.top-dishes.days:120}")
+    private int days;
+
+    @Value("${statistic.top-dishes.capacity:64}")
+    private int capacity;
+
+    private final Map<LocalDate, SpaceSavingSketch> dailySketches = new ConcurrentHashMap<>();
+    private final Set<LocalDate> staleDays = ConcurrentHashMap.newKeySet();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        LocalDate today = LocalDate.now();
+        Map<LocalDate, SpaceSavingSketch> rebuilt = buildSketches(today.minusDays(days - 1), today);
+        dailySketches.clear();
+        dailySketches.putAll(rebuilt);
+        staleDays.clear();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderChanged(OrderChangedEvent event) {
+        OrderSnapshot previous = event.getPrevious();
+        OrderSnapshot current = event.getCurrent();
+        boolean wasClosed = previous != null && previous.isClosed();
+        boolean isClosed = current != null && current.isClosed();
+
+        evictDaysBeforeWindow();
+        if (wasClosed) {
+            markStale(previous);
+        }
+        if (isClosed && wasClosed) {
+            markStale(current);
+        } else if (isClosed && current.getStartDate() != null && isInWindow(current.getStartDate())) {
+            SpaceSavingSketch sketch = dailySketches.computeIfAbsent(current.getStartDate(), day -> new SpaceSavingSketch(capacity));
+            for (OrderSnapshot.Item item : current.getItems()) {
+                if (item.getDishId() != null) {
+                    sketch.offer(item.getDishId(), item.getQuantity());
+                }
+            }
+        }
+    }
+
+    public TopDishesDto findTopDishes(LocalDate startDate, LocalDate endDate, int k) {
+        LocalDate windowStart = LocalDate.now().minusDays(days - 1);
+        SpaceSavingSketch merged = new SpaceSavingSketch(capacity);
+
+        if (startDate.isBefore(windowStart)) {
+            LocalDate historyEnd = endDate.isBefore(windowStart) ? endDate : windowStart.minusDays(1);
+            buildSketches(startDate, historyEnd).values().forEach(merged::merge);
+        }
+
+        evictDaysBeforeWindow();
+        refreshStaleDays();
+        for (LocalDate day = startDate.isBefore(windowStart) ? windowStart : startDate; !day.isAfter(endDate); day = day.plusDays(1)) {
+            SpaceSavingSketch sketch = dailySketches.get(day);
+            if (sketch != null) {
+                merged.merge(sketch);
+            }
+        }
+
+        return toDto(merged, k);
+    }
+
+    private void markStale(OrderSnapshot order) {
+        if (order.getStartDate() != null) {
+            staleDays.add(order.getStartDate());
+        }
+    }
+
+    private void evictDaysBeforeWindow() {
+        LocalDate windowStart = LocalDate.now().minusDays(days - 1);
+        dailySketches.keySet().removeIf(day -> day.isBefore(windowStart));
+    }
+
+    private void refreshStaleDays() {
+        for (Iterator<LocalDate> iterator = staleDays.iterator(); iterator.hasNext(); ) {
+            LocalDate day = iterator.next();
+            iterator.remove();
+            if (isInWindow(day)) {
+                SpaceSavingSketch sketch = buildSketches(day, day).get(day);
+                if (sketch != null) {
+                    dailySketches.put(day, sketch);
+                } else {
+                    dailySketches.remove(day);
+                }
+            }
+        }
+    }
+
+    private Map<LocalDate, SpaceSavingSketch> buildSketches(LocalDate startDate, LocalDate endDate) {
+        Map<LocalDate, SpaceSavingSketch> sketches = new HashMap<>();
+        for (DailyDishAggregate aggregate : orderItemRepository.sumQuantityByDayAndDish(
+                Timestamp.valueOf(startDate.atStartOfDay()),
+                Timestamp.valueOf(endDate.atTime(LocalTime.MAX)),
+                Status.CLOSED)) {
+            sketches.computeIfAbsent(aggregate.getDay(), day -> new SpaceSavingSketch(capacity))
+                    .offer(aggregate.getDishId(), aggregate.getQuantity());
+        }
+        return sketches;
+    }
+
+    /**
+     * A sketch monitors at most {@code statistic.top-dishes.capacity} dishes, so no more of them
+     * can be ranked.
+     */
+    public boolean isValidK(int k) {
+        return k > 0 && k <= capacity;
+    }
+
+    /**
+     * A dish is guaranteed to be in the top {@code k} when its lowest possible count is not below
+     * the highest possible count of any dish outside the list: the next monitored one, or one that
+     * is not monitored at all.
+     */
+    private TopDishesDto toDto(SpaceSavingSketch sketch, int k) {
+        k = Math.max(1, Math.min(k, capacity));
+        List<SpaceSavingSketch.Entry> candidates = sketch.top(k + 1);
+        List<SpaceSavingSketch.Entry> top = candidates.subList(0, Math.min(k, candidates.size()));
+        long threshold = Math.max(candidates.size() > k ? candidates.get(k).count() : 0, sketch.getMinCount());
+
+        Map<Integer, String> names = new HashMap<>();
+        for (Dish dish : dishRepository.findAllById(top.stream().map(SpaceSavingSketch.Entry::id).toList())) {
+            names.put(dish.getId(), dish.getName());
+        }
+
+        List<TopDishesDto.DishCount> dishes = new ArrayList<>(top.size());
+        for (SpaceSavingSketch.Entry entry : top) {
+            dishes.add(new TopDishesDto.DishCount(entry.id(), names.get(entry.id()), entry.count(), entry.error(),
+                    entry.count() - entry.error() >= threshold));
+        }
+
+        return TopDishesDto.builder()
+                .dishes(dishes)
+                .totalQuantity(sketch.getTotal())
+                .maxError(sketch.getMaxError())
+                .errorBound(sketch.getTotal() / sketch.getCapacity())
+                .build();
+    }
+
+    private boolean isInWindow(LocalDate day) {
+        LocalDate today = LocalDate.now();
+        return !day.isAfter(today) && day.isAfter(today.minusDays(days));
+    }
+}
@@ -25,6 +25,8 @@ public class DishService {
     private final CategoryService categoryService;
     private final IngredientService ingredientService;
     private final DishIngredientRepository dishIngredientRepository;
+    private final DishCompositionCache dishCompositionCache;
+    private final NameCache nameCache;
 
     public List<Dish> findAll() {
         return dishRepository.findAll();
@@ -132,7 +134,10 @@ public class DishService {
             e.printStackTrace();
         }
 
-        return dishRepository.save(dish);
+        Dish savedDish = dishRepository.save(dish);
+        dishCompositionCache.invalidate(dishId);
+        nameCache.invalidateDish(dishId);
+        return savedDish;
     }
 
     public boolean deleteDish(Integer id) {
@@ -141,6 +146,8 @@ public class DishService {
         }
 
         dishRepository.deleteById(id);
+        dishCompositionCache.invalidate(id);
+        nameCache.invalidateDish(id);
         return true;
     }
 }
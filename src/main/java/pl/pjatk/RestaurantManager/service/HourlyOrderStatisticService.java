@@ -0,0 +1,98 @@
+package pl.pjatk.RestaurantManager.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import pl.pjatk.RestaurantManager.dto.HeatmapCellDto;
+import pl.pjatk.RestaurantManager.dto.OrderSnapshot;
+import pl.pjatk.RestaurantManager.event.OrderChangedEvent;
+import pl.pjatk.RestaurantManager.projection.HeatmapCell;
+import pl.pjatk.RestaurantManager.repository.HourlyOrderStatisticRepository;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Rollup of CLOSED orders per start hour, kept like the daily rollup. A day-of-week by hour
+ * heatmap of any range reads at most 24 rows per day of the range instead of its orders.
+ */
+@Service
+@RequiredArgsConstructor
+public class HourlyOrderStatisticService {
+    private static final int HOURS = 24;
+
+    private final HourlyOrderStatisticRepository hourlyOrderStatisticRepository;
+
+    @EventListener
+    @Transactional
+    public void onOrderChanged(OrderChangedEvent event) {
+        OrderSnapshot previous = closedOrNull(event.getPrevious());
+        OrderSnapshot current = closedOrNull(event.getCurrent());
+
+        if (previous != null) {
+            accumulate(previous, -1);
+        }
+        if (current != null) {
+            accumulate(current, 1);
+        }
+    }
+
+    @Transactional
+    public int rebuild(LocalDate startDate, LocalDate endDate) {
+        hourlyOrderStatisticRepository.deleteInRange(startDate.atStartOfDay(), endDate.atTime(LocalTime.MAX));
+        return hourlyOrderStatisticRepository.rebuildFromOrders(
+                Timestamp.valueOf(startDate.atStartOfDay()),
+                Timestamp.valueOf(endDate.atTime(LocalTime.MAX)));
+    }
+
+    /**
+     * All 7x24 cells from Monday 0:00 to Sunday 23:00, with zeros for hours without orders.
+     */
+    @Transactional(readOnly = true)
+    public List<HeatmapCellDto> calculateHeatmap(LocalDate startDate, LocalDate endDate) {
+        HeatmapCell[] cells = new HeatmapCell[DayOfWeek.values().length * HOURS];
+        for (HeatmapCell cell : hourlyOrderStatisticRepository.summarizeByWeekdayAndHour(
+                startDate.atStartOfDay(), endDate.atTime(LocalTime.MAX))) {
+            cells[cell.getWeekday() * HOURS + cell.getHour()] = cell;
+        }
+
+        List<HeatmapCellDto> result = new ArrayList<>(cells.length);
+        for (int i = 0; i < cells.length; i++) {
+            HeatmapCell cell = cells[i];
+            long orderCount = cell != null && cell.getOrderCount() != null ? cell.getOrderCount() : 0;
+            result.add(HeatmapCellDto.builder()
+                    .dayOfWeek(DayOfWeek.of(i / HOURS + 1))
+                    .hour(i % HOURS)
+                    .orderCount(orderCount)
+                    .revenue(orderCount > 0 ? cell.getRevenue() : BigDecimal.ZERO)
+                    .averageDuration(orderCount > 0
+                            ? Duration.ofSeconds(cell.getTotalDurationSeconds() / orderCount)
+                            : Duration.ZERO)
+                    .build());
+        }
+        return result;
+    }
+
+    private void accumulate(OrderSnapshot order, int sign) {
+        BigDecimal revenue = order.getTotalPrice() != null ? order.getTotalPrice() : BigDecimal.ZERO;
+        long durationSeconds = order.getDuration() != null ? order.getDuration().getSeconds() : 0;
+
+        hourlyOrderStatisticRepository.accumulate(
+                order.getStartDateTime().toLocalDateTime().truncatedTo(ChronoUnit.HOURS),
+                sign,
+                sign < 0 ? revenue.negate() : revenue,
+                sign * durationSeconds);
+    }
+
+    private OrderSnapshot closedOrNull(OrderSnapshot order) {
+        return order != null && order.isClosed() && order.getStartDateTime() != null ? order : null;
+    }
+}
@@ -14,6 +14,7 @@ import java.util.Optional;
 public class IngredientService {
     private final IngredientRepository ingredientRepository;
     private final UnitService unitService;
+    private final DishCompositionCache dishCompositionCache;
 
     public List<Ingredient> findAll() {
         return ingredientRepository.findAll();
@@ -39,7 +40,9 @@ public class IngredientService {
                 .map(ingredient -> {
                     ingredient.setName(request.getName());
                     ingredient.setUnit(unitService.findById(request.getUnitId()).orElse(null));
-                    return ingredientRepository.save(ingredient);
+                    Ingredient savedIngredient = ingredientRepository.save(ingredient);
+                    dishCompositionCache.invalidateAll();
+                    return savedIngredient;
                 });
     }
 
@@ -49,6 +52,7 @@ public class IngredientService {
         }
 
         ingredientRepository.deleteById(id);
+        dishCompositionCache.invalidateAll();
         return true;
     }
 }
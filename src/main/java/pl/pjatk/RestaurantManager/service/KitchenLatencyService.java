@@ -0,0 +1,180 @@
+package pl.pjatk.RestaurantManager.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import pl.pjatk.RestaurantManager.dto.LatencyStatisticDto;
+import pl.pjatk.RestaurantManager.dto.OrderSnapshot;
+import pl.pjatk.RestaurantManager.event.OrderChangedEvent;
+import pl.pjatk.RestaurantManager.model.LatencyMetric;
+import pl.pjatk.RestaurantManager.projection.OrderLatencyLine;
+import pl.pjatk.RestaurantManager.repository.OrderRepository;
+import pl.pjatk.RestaurantManager.statistic.LatencyHistogram;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Kitchen latency percentiles from histograms of seconds kept per start hour of the orders for
+ * the last {@code statistic.latency.days} days. Intervals are recorded when an order gets its
+ * processing start or ready time; ranges reaching past the window are read from the database.
+ */
+@Service
+@RequiredArgsConstructor
+public class KitchenLatencyService {
+    private static final LatencyMetric[] METRICS = LatencyMetric.values();
+    private static final long NONE = -1;
+
+    private final OrderRepository orderRepository;
+
+    @Value("${statistic.latency.days:31}")
+    private int days;
+
+    private volatile Map<Long, LatencyHistogram[]> histograms;
+    private volatile long windowFirstHour;
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        LocalDate today = LocalDate.now();
+        histograms = read(today.minusDays(days - 1), today);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderChanged(OrderChangedEvent event) {
+        Map<Long, LatencyHistogram[]> target = histograms;
+        if (target == null) {
+            return;
+        }
+
+        long firstHour = hourOf(LocalDate.now().minusDays(days - 1).atStartOfDay());
+        if (firstHour != windowFirstHour) {
+            windowFirstHour = firstHour;
+            target.keySet().removeIf(hour -> hour < firstHour);
+        }
+
+        long[] previous = intervalsOf(event.getPrevious());
+        long[] current = intervalsOf(event.getCurrent());
+        for (int metric = 0; metric < METRICS.length; metric++) {
+            if (previous[metric] != current[metric]) {
+                if (previous[metric] != NONE && isInWindow(event.getPrevious(), firstHour)) {
+                    histogramOf(target, event.getPrevious().getStartDateTime(), metric).remove(previous[metric]);
+                }
+                if (current[metric] != NONE && isInWindow(event.getCurrent(), firstHour)) {
+                    histogramOf(target, event.getCurrent().getStartDateTime(), metric).record(current[metric]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Percentiles of every latency metric for orders started in the range.
+     */
+    @Transactional(readOnly = true)
+    public Map<LatencyMetric, LatencyStatisticDto> calculateLatency(LocalDate startDate, LocalDate endDate) {
+        Map<Long, LatencyHistogram[]> source = histograms;
+        if (source == null || startDate.isBefore(LocalDate.now().minusDays(days - 1))) {
+            source = read(startDate, endDate);
+        }
+
+        LatencyHistogram[] merged = newHistograms();
+        long fromHour = hourOf(startDate.atStartOfDay());
+        long toHour = hourOf(endDate.atTime(LocalTime.MAX));
+        source.forEach((hour, hourHistograms) -> {
+            if (hour >= fromHour && hour <= toHour) {
+                for (int metric = 0; metric < METRICS.length; metric++) {
+                    merged[metric].merge(hourHistograms[metric]);
+                }
+            }
+        });
+
+        Map<LatencyMetric, LatencyStatisticDto> result = new EnumMap<>(LatencyMetric.class);
+        for (int metric = 0; metric < METRICS.length; metric++) {
+            result.put(METRICS[metric], toDto(merged[metric]));
+        }
+        return result;
+    }
+
+    private Map<Long, LatencyHistogram[]> read(LocalDate startDate, LocalDate endDate) {
+        Map<Long, LatencyHistogram[]> result = new ConcurrentHashMap<>();
+        try (Stream<OrderLatencyLine> lines = orderRepository.streamLatencies(
+                Timestamp.valueOf(startDate.atStartOfDay()), Timestamp.valueOf(endDate.atTime(LocalTime.MAX)))) {
+            lines.forEach(line -> {
+                long[] intervals = intervalsOf(line.getStartDateTime(), line.getOrderProcessingStart(), line.getReadyDateTime());
+                for (int metric = 0; metric < METRICS.length; metric++) {
+                    if (intervals[metric] != NONE) {
+                        histogramOf(result, line.getStartDateTime(), metric).record(intervals[metric]);
+                    }
+                }
+            });
+        }
+        return result;
+    }
+
+    private static LatencyStatisticDto toDto(LatencyHistogram histogram) {
+        return LatencyStatisticDto.builder()
+                .count(histogram.getTotalCount())
+                .p50(Duration.ofSeconds(histogram.getValueAtPercentile(50)))
+                .p90(Duration.ofSeconds(histogram.getValueAtPercentile(90)))
+                .p95(Duration.ofSeconds(histogram.getValueAtPercentile(95)))
+                .p99(Duration.ofSeconds(histogram.getValueAtPercentile(99)))
+                .max(Duration.ofSeconds(histogram.getMaxValue()))
+                .build();
+    }
+
+    private static long[] intervalsOf(OrderSnapshot order) {
+        return order == null
+                ? new long[]{NONE, NONE, NONE}
+                : intervalsOf(order.getStartDateTime(), order.getOrderProcessingStart(), order.getReadyDateTime());
+    }
+
+    /**
+     * Seconds from start to processing start, from processing start to ready and from start to
+     * ready, in {@link LatencyMetric} order, with {@link #NONE} for intervals not reached yet.
+     */
+    private static long[] intervalsOf(Timestamp start, Timestamp processing, Timestamp ready) {
+        return new long[]{
+                secondsBetween(start, processing),
+                secondsBetween(processing, ready),
+                secondsBetween(start, ready)
+        };
+    }
+
+    private static long secondsBetween(Timestamp from, Timestamp to) {
+        if (from == null || to == null) {
+            return NONE;
+        }
+        return Math.max(0, Duration.between(from.toInstant(), to.toInstant()).getSeconds());
+    }
+
+    private static boolean isInWindow(OrderSnapshot order, long firstHour) {
+        return hourOf(order.getStartDateTime().toLocalDateTime()) >= firstHour;
+    }
+
+    private static LatencyHistogram histogramOf(Map<Long, LatencyHistogram[]> target, Timestamp start, int metric) {
+        return target.computeIfAbsent(hourOf(start.toLocalDateTime()), hour -> newHistograms())[metric];
+    }
+
+    private static LatencyHistogram[] newHistograms() {
+        LatencyHistogram[] result = new LatencyHistogram[METRICS.length];
+        for (int metric = 0; metric < METRICS.length; metric++) {
+            result[metric] = new LatencyHistogram();
+        }
+        return result;
+    }
+
+    private static long hourOf(LocalDateTime dateTime) {
+        return dateTime.toLocalDate().toEpochDay() * 24 + dateTime.getHour();
+    }
+}
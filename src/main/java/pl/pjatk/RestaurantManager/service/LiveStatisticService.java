@@ -0,0 +1,183 @@
+package pl.pjatk.RestaurantManager.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import pl.pjatk.RestaurantManager.dto.LiveStatisticDto;
+import pl.pjatk.RestaurantManager.dto.OrderSnapshot;
+import pl.pjatk.RestaurantManager.event.OrderChangedEvent;
+import pl.pjatk.RestaurantManager.model.Status;
+import pl.pjatk.RestaurantManager.model.Table;
+import pl.pjatk.RestaurantManager.projection.OrderStateLine;
+import pl.pjatk.RestaurantManager.projection.TableSeats;
+import pl.pjatk.RestaurantManager.repository.OrderRepository;
+import pl.pjatk.RestaurantManager.repository.TableRepository;
+import pl.pjatk.RestaurantManager.statistic.DailySeries;
+import pl.pjatk.RestaurantManager.statistic.OrderChangeBuffer;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+/**
+ * Counters of the current day kept up to date from order changes: orders started today, closed
+ * orders and revenue among them (by start date, like the daily statistics), covers as the seats
+ * of their tables, and orders open right now as held by {@link OpenOrderRegistry}. Counters are
+ * reconciled with the database at startup and at midnight, keeping changes that arrive while the
+ * database is read; an order change on a new day before that starts the day from zero. Changes
+ * update the counters without locking; only while a reconcile runs are they also buffered, under
+ * a lock shared with the hand-over of the reconciled counters. Seats of all tables are loaded at
+ * reconcile and those of a new table before the lock is taken.
+ */
+@Service
+@RequiredArgsConstructor
+public class LiveStatisticService {
+    private final OrderRepository orderRepository;
+    private final TableRepository tableRepository;
+    private final OpenOrderRegistry openOrderRegistry;
+
+    private final Object lock = new Object();
+    private final Map<Integer, Integer> seatsByTable = new ConcurrentHashMap<>();
+    private volatile DayCounters today = new DayCounters(LocalDate.now());
+    private volatile OrderChangeBuffer changesDuringReconcile;
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${statistic.live.reconcile-cron:0 0 0 * * *}")
+    @Transactional(readOnly = true)
+    public synchronized void reconcile() {
+        LocalDate date = LocalDate.now();
+        OrderChangeBuffer changes = new OrderChangeBuffer();
+        synchronized (lock) {
+            changesDuringReconcile = changes;
+        }
+
+        try {
+            for (TableSeats table : tableRepository.findAllSeats()) {
+                seatsByTable.put(table.getId(), table.getSeatsNumber() != null ? table.getSeatsNumber() : 0);
+            }
+            DayCounters counters = new DayCounters(date);
+            try (Stream<OrderStateLine> lines = orderRepository.streamOrderStates(
+                    Timestamp.valueOf(date.atStartOfDay()), Timestamp.valueOf(date.atTime(LocalTime.MAX)))) {
+                if (lines != null) {
+                    for (Iterator<OrderStateLine> iterator = lines.iterator(); iterator.hasNext(); ) {
+                        OrderStateLine line = iterator.next();
+                        changes.addRead(line.getOrderId(), line.getVersion());
+                        add(counters, line.getTableId(), line.getStatus() == Status.CLOSED, line.getTotalPrice(), 1);
+                    }
+                }
+            }
+            synchronized (lock) {
+                changes.replay(order -> date.equals(order.getStartDate()), change -> apply(counters, change));
+                today = counters;
+            }
+        } finally {
+            synchronized (lock) {
+                changesDuringReconcile = null;
+            }
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderChanged(OrderChangedEvent event) {
+        loadSeats(event.getPrevious());
+        loadSeats(event.getCurrent());
+        DayCounters counters = currentCounters();
+        if (changesDuringReconcile == null) {
+            // A reconcile starting after this check reads the change from the database and
+            // replaces the counters read above.
+            apply(counters, event);
+            return;
+        }
+
+        synchronized (lock) {
+            apply(currentCounters(), event);
+            if (changesDuringReconcile != null) {
+                changesDuringReconcile.add(event);
+            }
+        }
+    }
+
+    public LiveStatisticDto getLiveStatistics() {
+        DayCounters counters = currentCounters();
+        return LiveStatisticDto.builder()
+                .date(counters.date)
+                .orderCount(counters.orders.sum())
+                .openOrders((long) openOrderRegistry.size())
+                .closedOrders(counters.closedOrders.sum())
+                .revenue(DailySeries.fromMinorUnits(counters.revenueMinor.sum()))
+                .covers(counters.covers.sum())
+                .build();
+    }
+
+    private void apply(DayCounters counters, OrderChangedEvent event) {
+        apply(counters, event.getPrevious(), -1);
+        apply(counters, event.getCurrent(), 1);
+    }
+
+    private void apply(DayCounters counters, OrderSnapshot order, int sign) {
+        if (order != null && counters.date.equals(order.getStartDate())) {
+            add(counters, order.getTableId(), order.isClosed(), order.getTotalPrice(), sign);
+        }
+    }
+
+    private void add(DayCounters counters, Integer tableId, boolean closed, BigDecimal totalPrice, int sign) {
+        counters.orders.add(sign);
+        counters.covers.add((long) sign * seatsOf(tableId));
+        if (closed) {
+            counters.closedOrders.add(sign);
+            counters.revenueMinor.add(sign * DailySeries.toMinorUnits(totalPrice));
+        }
+    }
+
+    private DayCounters currentCounters() {
+        DayCounters counters = today;
+        LocalDate date = LocalDate.now();
+        if (!counters.date.equals(date)) {
+            synchronized (lock) {
+                counters = today;
+                if (!counters.date.equals(date)) {
+                    counters = new DayCounters(date);
+                    today = counters;
+                }
+            }
+        }
+        return counters;
+    }
+
+    private void loadSeats(OrderSnapshot order) {
+        if (order != null) {
+            seatsOf(order.getTableId());
+        }
+    }
+
+    private int seatsOf(Integer tableId) {
+        if (tableId == null) {
+            return 0;
+        }
+        return seatsByTable.computeIfAbsent(tableId, id -> tableRepository.findById(id)
+                .map(Table::getSeatsNumber)
+                .orElse(0));
+    }
+
+    private static final class DayCounters {
+        private final LocalDate date;
+        private final LongAdder orders = new LongAdder();
+        private final LongAdder closedOrders = new LongAdder();
+        private final LongAdder revenueMinor = new LongAdder();
+        private final LongAdder covers = new LongAdder();
+
+        private DayCounters(LocalDate date) {
+            this.date = date;
+        }
+    }
+}
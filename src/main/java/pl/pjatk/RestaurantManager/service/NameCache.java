@@ -0,0 +1,81 @@
+package pl.pjatk.RestaurantManager.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import pl.pjatk.RestaurantManager.projection.NameLabel;
+import pl.pjatk.RestaurantManager.repository.DishRepository;
+import pl.pjatk.RestaurantManager.repository.TableRepository;
+import pl.pjatk.RestaurantManager.repository.UserRepository;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Display names of users, tables and dishes by id. Entries are loaded on demand with one query
+ * per kind for all missing ids and dropped by {@link UserService}, {@link TableService} and
+ * {@link DishService} on changes.
+ */
+@Service
+@RequiredArgsConstructor
+public class NameCache {
+    private final UserRepository userRepository;
+    private final TableRepository tableRepository;
+    private final DishRepository dishRepository;
+
+    private final Map<Integer, String> userNames = new ConcurrentHashMap<>();
+    private final Map<Integer, String> tableNames = new ConcurrentHashMap<>();
+    private final Map<Integer, String> dishNames = new ConcurrentHashMap<>();
+
+    public Map<Integer, String> getUserNames(Collection<Integer> ids) {
+        return getNames(userNames, ids, userRepository::findNamesByIds);
+    }
+
+    public Map<Integer, String> getTableNames(Collection<Integer> ids) {
+        return getNames(tableNames, ids, tableRepository::findNamesByIds);
+    }
+
+    public Map<Integer, String> getDishNames(Collection<Integer> ids) {
+        return getNames(dishNames, ids, dishRepository::findNamesByIds);
+    }
+
+    public void invalidateUser(Integer id) {
+        userNames.remove(id);
+    }
+
+    public void invalidateTable(Integer id) {
+        tableNames.remove(id);
+    }
+
+    public void invalidateDish(Integer id) {
+        dishNames.remove(id);
+    }
+
+    private static Map<Integer, String> getNames(Map<Integer, String> names, Collection<Integer> ids,
+                                                 Function<Collection<Integer>, List<NameLabel>> finder) {
+        Map<Integer, String> result = new HashMap<>();
+        List<Integer> missing = new ArrayList<>();
+        for (Integer id : ids) {
+            if (id == null) {
+                continue;
+            }
+            String name = names.get(id);
+            if (name != null) {
+                result.put(id, name);
+            } else {
+                missing.add(id);
+            }
+        }
+
+        if (!missing.isEmpty()) {
+            for (NameLabel label : finder.apply(missing)) {
+                if (label.getName() != null) {
+                    names.put(label.getId(), label.getName());
+                    result.put(label.getId(), label.getName());
+                }
+            }
+        }
+
+        return result;
+    }
+}
@@ -0,0 +1,129 @@
+package pl.pjatk.RestaurantManager.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import pl.pjatk.RestaurantManager.dto.OrderSnapshot;
+import pl.pjatk.RestaurantManager.event.OrderChangedEvent;
+import pl.pjatk.RestaurantManager.model.Status;
+import pl.pjatk.RestaurantManager.projection.OpenOrderLine;
+import pl.pjatk.RestaurantManager.repository.OrderRepository;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.stream.Stream;
+
+/**
+ * Snapshots of the orders that are not closed, ordered by id and read without touching the
+ * database. Every order change is written through once its transaction commits, before other
+ * listeners see it; a snapshot older than the cached one (by version) is ignored. The registry
+ * is loaded at startup and reconciled every {@code order.registry.reconcile-ms} milliseconds,
+ * keeping changes that arrive while the database is read.
+ */
+@Service
+@RequiredArgsConstructor
+public class OpenOrderRegistry {
+    private final OrderRepository orderRepository;
+
+    private final Object lock = new Object();
+    private volatile ConcurrentNavigableMap<Integer, OrderSnapshot> orders = new ConcurrentSkipListMap<>();
+    private Map<Integer, OrderSnapshot> changesDuringReconcile;
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${order.registry.reconcile-ms:300000}",
+            initialDelayString = "${order.registry.reconcile-ms:300000}")
+    @Transactional(readOnly = true)
+    public void reconcile() {
+        synchronized (lock) {
+            changesDuringReconcile = new HashMap<>();
+        }
+
+        ConcurrentNavigableMap<Integer, OrderSnapshot> loaded = new ConcurrentSkipListMap<>();
+        try (Stream<OpenOrderLine> lines = orderRepository.streamOpenOrders(Status.CLOSED)) {
+            if (lines != null) {
+                read(lines.iterator(), loaded);
+            }
+        } finally {
+            synchronized (lock) {
+                changesDuringReconcile.forEach((id, order) -> apply(loaded, id, order));
+                changesDuringReconcile = null;
+                orders = loaded;
+            }
+        }
+    }
+
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderChanged(OrderChangedEvent event) {
+        OrderSnapshot current = event.getCurrent();
+        Integer id = current != null ? current.getId() : event.getPrevious().getId();
+        synchronized (lock) {
+            apply(orders, id, current);
+            if (changesDuringReconcile != null) {
+                changesDuringReconcile.put(id, current);
+            }
+        }
+    }
+
+    public List<OrderSnapshot> findAll() {
+        return List.copyOf(orders.values());
+    }
+
+    public int size() {
+        return orders.size();
+    }
+
+    private static void apply(Map<Integer, OrderSnapshot> target, Integer id, OrderSnapshot order) {
+        if (order == null || order.isClosed()) {
+            target.remove(id);
+            return;
+        }
+        target.merge(id, order, (cached, changed) -> isOlder(changed, cached) ? cached : changed);
+    }
+
+    private static boolean isOlder(OrderSnapshot order, OrderSnapshot other) {
+        return order.getVersion() != null && other.getVersion() != null && order.getVersion() < other.getVersion();
+    }
+
+    private static void read(Iterator<OpenOrderLine> lines, Map<Integer, OrderSnapshot> target) {
+        OrderSnapshot.OrderSnapshotBuilder order = null;
+        Integer orderId = null;
+        List<OrderSnapshot.Item> items = null;
+        while (lines.hasNext()) {
+            OpenOrderLine line = lines.next();
+            if (!line.getOrderId().equals(orderId)) {
+                if (order != null) {
+                    target.put(orderId, order.items(List.copyOf(items)).build());
+                }
+                orderId = line.getOrderId();
+                items = new ArrayList<>();
+                order = OrderSnapshot.builder()
+                        .id(line.getOrderId())
+                        .userId(line.getUserId())
+                        .tableId(line.getTableId())
+                        .startDateTime(line.getStartDateTime())
+                        .orderProcessingStart(line.getOrderProcessingStart())
+                        .readyDateTime(line.getReadyDateTime())
+                        .status(line.getStatus())
+                        .isReadyToServe(line.getIsReadyToServe())
+                        .totalPrice(line.getTotalPrice())
+                        .duration(line.getDuration())
+                        .version(line.getVersion());
+            }
+            if (line.getItemId() != null) {
+                items.add(new OrderSnapshot.Item(line.getItemId(), line.getDishId(),
+                        line.getQuantity() != null ? line.getQuantity() : 0, Boolean.TRUE.equals(line.getReady())));
+            }
+        }
+        if (order != null) {
+            target.put(orderId, order.items(List.copyOf(items)).build());
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package pl.pjatk.RestaurantManager.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import pl.pjatk.RestaurantManager.dto.OrderExportDto;
+import pl.pjatk.RestaurantManager.model.ExportFormat;
+import pl.pjatk.RestaurantManager.model.Status;
+import pl.pjatk.RestaurantManager.projection.OrderExportLine;
+import pl.pjatk.RestaurantManager.repository.OrderRepository;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Writes orders of a date range as they are read from the database. Rows come from a
+ * forward-only projection query, so nothing is kept in the persistence context and only the
+ * order being written is held in memory, whatever the size of the range.
+ */
+@Service
+@RequiredArgsConstructor
+public class OrderExportService {
+    private static final String CSV_HEADER = "order_id,start_date_time,order_processing_start,status,is_ready_to_serve,"
+            + "total_price,duration_seconds,user_id,user_name,table_id,table_name,dish_id,dish_name,quantity,ready";
+
+    private final OrderRepository orderRepository;
+    private final PlatformTransactionManager transactionManager;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Writes the orders to {@code output}: one JSON object per order and line for NDJSON, one
+     * row per order item (or a row with empty item columns for orders without items) for CSV.
+     * Returns the number of written orders.
+     */
+    public int export(LocalDate startDate, LocalDate endDate, Status status, ExportFormat format, OutputStream output) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(true);
+
+        Integer orders = transactionTemplate.execute(transactionStatus -> {
+            try (Stream<OrderExportLine> lines = orderRepository.streamOrderExport(
+                    Timestamp.valueOf(LocalDateTime.of(startDate, LocalTime.MIDNIGHT)),
+                    Timestamp.valueOf(LocalDateTime.of(endDate, LocalTime.MAX)), status)) {
+                return format == ExportFormat.CSV
+                        ? writeCsv(lines.iterator(), output)
+                        : writeNdjson(lines.iterator(), output);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return orders != null ? orders : 0;
+    }
+
+    /**
+     * Orders go through the generator buffer and reach {@code output} in buffer-sized writes; the
+     * stream is flushed once, when the generator is closed.
+     */
+    private int writeNdjson(Iterator<OrderExportLine> lines, OutputStream output) throws IOException {
+        ObjectWriter writer = objectMapper.writerFor(OrderExportDto.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        int orders = 0;
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(output)
+                .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .setRootValueSeparator(null)) {
+            OrderExportDto order = null;
+            while (lines.hasNext()) {
+                OrderExportLine line = lines.next();
+                if (order == null || !order.getId().equals(line.getOrderId())) {
+                    if (order != null) {
+                        writeJsonLine(writer, generator, order);
+                        orders++;
+                    }
+                    order = toDto(line);
+                }
+                if (line.getDishId() != null) {
+                    order.getOrderItems().add(new OrderExportDto.Item(line.getDishId(), line.getDishName(),
+                            line.getQuantity(), line.getReady()));
+                }
+            }
+            if (order != null) {
+                writeJsonLine(writer, generator, order);
+                orders++;
+            }
+        }
+        return orders;
+    }
+
+    private static void writeJsonLine(ObjectWriter writer, JsonGenerator generator, OrderExportDto order)
+            throws IOException {
+        writer.writeValue(generator, order);
+        generator.writeRaw('\n');
+    }
+
+    private static int writeCsv(Iterator<OrderExportLine> lines, OutputStream output) throws IOException {
+        int orders = 0;
+        Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+        writer.write(CSV_HEADER);
+        writer.write('\n');
+
+        Integer currentOrderId = null;
+        while (lines.hasNext()) {
+            OrderExportLine line = lines.next();
+            if (!line.getOrderId().equals(currentOrderId)) {
+                currentOrderId = line.getOrderId();
+                orders++;
+            }
+            writer.write(toCsvRow(line));
+            writer.write('\n');
+        }
+        writer.flush();
+        return orders;
+    }
+
+    private static OrderExportDto toDto(OrderExportLine line) {
+        return OrderExportDto.builder()
+                .id(line.getOrderId())
+                .userId(line.getUserId())
+                .userName(line.getUserId() != null ? line.getFirstname() + ' ' + line.getLastname() : null)
+                .tableId(line.getTableId())
+                .tableName(line.getTableName())
+                .startDateTime(line.getStartDateTime())
+                .orderProcessingStart(line.getOrderProcessingStart())
+                .status(line.getStatus())
+                .isReadyToServe(line.getIsReadyToServe())
+                .totalPrice(line.getTotalPrice())
+                .duration(line.getDuration())
+                .orderItems(new ArrayList<>())
+                .build();
+    }
+
+    private static String toCsvRow(OrderExportLine line) {
+        return String.join(",",
+                csv(line.getOrderId()),
+                csv(line.getStartDateTime() != null ? line.getStartDateTime().toLocalDateTime() : null),
+                csv(line.getOrderProcessingStart() != null ? line.getOrderProcessingStart().toLocalDateTime() : null),
+                csv(line.getStatus()),
+                csv(line.getIsReadyToServe()),
+                csv(line.getTotalPrice() != null ? line.getTotalPrice().toPlainString() : null),
+                csv(line.getDuration() != null ? line.getDuration().getSeconds() : null),
+                csv(line.getUserId()),
+                csv(line.getUserId() != null ? line.getFirstname() + ' ' + line.getLastname() : null),
+                csv(line.getTableId()),
+                csv(line.getTableName()),
+                csv(line.getDishId()),
+                csv(line.getDishName()),
+                csv(line.getDishId() != null ? line.getQuantity() : null),
+                csv(line.getDishId() != null ? line.getReady() : null));
+    }
+
+    private static String csv(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = value.toString();
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+            return text;
+        }
+        return '"' + text.replace("\"", "\"\"") + '"';
+    }
+}
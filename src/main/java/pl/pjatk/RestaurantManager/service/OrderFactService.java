@@ -0,0 +1,309 @@
+package pl.pjatk.RestaurantManager.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import pl.pjatk.RestaurantManager.dto.OrderSnapshot;
+import pl.pjatk.RestaurantManager.event.OrderChangedEvent;
+import pl.pjatk.RestaurantManager.model.Status;
+import pl.pjatk.RestaurantManager.projection.OrderFactLine;
+import pl.pjatk.RestaurantManager.repository.OrderRepository;
+import pl.pjatk.RestaurantManager.statistic.DailySeries;
+import pl.pjatk.RestaurantManager.statistic.OrderChangeBuffer;
+import pl.pjatk.RestaurantManager.statistic.OrderFactStore;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.stream.Stream;
+
+/**
+ * Keeps the columnar fact store in step with CLOSED orders. The store is skipped (and
+ * {@link #getStore()} returns null) when it is disabled, its directory is used by another
+ * instance, or while it is being rebuilt, so callers fall back to the database.
+ * <p>
+ * Every rebuild fills a new generation of the store in its own subdirectory and swaps it in once
+ * it is complete; the {@code current} file names the live generation. The store is rebuilt at
+ * startup when it is empty and reconciled with the database every
+ * {@code statistic.facts.reconcile-ms} milliseconds.
+ */
+@Service
+@RequiredArgsConstructor
+public class OrderFactService {
+    private static final String CURRENT_FILE = "current";
+
+    private final OrderRepository orderRepository;
+    private final PlatformTransactionManager transactionManager;
+    private final StatisticDayCache statisticDayCache;
+
+    @Value("${statistic.facts.enabled:true}")
+    private boolean enabled;
+
+    @Value("${statistic.facts.directory:${java.io.tmpdir}/restaurant-manager/facts}")
+    private String directory;
+
+    private final Object lock = new Object();
+    private final Object rebuildLock = new Object();
+    private volatile OrderFactStore store;
+    private volatile boolean rebuilding;
+    private long generation;
+    private OrderChangeBuffer changesDuringRebuild;
+
+    @PostConstruct
+    public void open() {
+        if (enabled) {
+            try {
+                generation = readGeneration();
+                store = OrderFactStore.open(generationDirectory(generation));
+            } catch (IOException e) {
+                store = null;
+            }
+        }
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        synchronized (lock) {
+            if (store != null) {
+                store.force();
+                store.close();
+                store = null;
+            }
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildIfEmpty() {
+        OrderFactStore current = store;
+        if (current != null && current.getOrderRows() == 0) {
+            rebuild();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${statistic.facts.reconcile-ms:86400000}",
+            initialDelayString = "${statistic.facts.reconcile-ms:86400000}")
+    public void reconcile() {
+        rebuild();
+    }
+
+    public OrderFactStore getStore() {
+        return rebuilding ? null : store;
+    }
+
+    /**
+     * Replaces the stored facts with the CLOSED orders currently in the database. The orders are
+     * written to a new generation while the live one keeps receiving changes; changes committed
+     * meanwhile are buffered and replayed on the new generation before it is swapped in.
+     */
+    public int rebuild() {
+        synchronized (rebuildLock) {
+            OrderFactStore previousStore = store;
+            if (previousStore == null) {
+                return 0;
+            }
+
+            Path targetDirectory = generationDirectory(generation + 1);
+            OrderFactStore target;
+            try {
+                deleteDirectory(targetDirectory);
+                target = OrderFactStore.open(targetDirectory);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+
+            TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+            transactionTemplate.setReadOnly(true);
+
+            OrderChangeBuffer changes = new OrderChangeBuffer();
+            rebuilding = true;
+            synchronized (lock) {
+                changesDuringRebuild = changes;
+            }
+            boolean swapped = false;
+            try {
+                Integer orders = transactionTemplate.execute(status -> {
+                    try (Stream<OrderFactLine> lines = orderRepository.streamOrderFacts(Status.CLOSED)) {
+                        return appendAll(target, lines.iterator(), changes);
+                    }
+                });
+                target.force();
+
+                synchronized (lock) {
+                    changes.replay(order -> closedOrNull(order) != null, change -> apply(target, change));
+                    writeGeneration(generation + 1);
+                    generation++;
+                    store = target;
+                    swapped = true;
+                }
+                statisticDayCache.invalidateAll();
+                return orders != null ? orders : 0;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            } finally {
+                synchronized (lock) {
+                    changesDuringRebuild = null;
+                }
+                rebuilding = false;
+                if (swapped) {
+                    discard(previousStore, generationDirectory(generation - 1));
+                } else {
+                    discard(target, targetDirectory);
+                }
+            }
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderChanged(OrderChangedEvent event) {
+        synchronized (lock) {
+            OrderFactStore target = store;
+            if (target != null) {
+                apply(target, event);
+            }
+            if (changesDuringRebuild != null) {
+                changesDuringRebuild.add(event);
+            }
+        }
+    }
+
+    private void apply(OrderFactStore target, OrderChangedEvent event) {
+        OrderSnapshot previous = closedOrNull(event.getPrevious());
+        OrderSnapshot current = closedOrNull(event.getCurrent());
+
+        if (previous != null) {
+            append(target, previous, -1);
+        }
+        if (current != null) {
+            append(target, current, 1);
+        }
+    }
+
+    private int appendAll(OrderFactStore target, Iterator<OrderFactLine> lines, OrderChangeBuffer changes) {
+        int orders = 0;
+        int[] dishIds = new int[8];
+        int[] quantities = new int[8];
+        int items = 0;
+        OrderFactLine order = null;
+
+        while (lines.hasNext()) {
+            OrderFactLine line = lines.next();
+            if (order != null && !order.getOrderId().equals(line.getOrderId())) {
+                appendLine(target, order, Arrays.copyOf(dishIds, items), Arrays.copyOf(quantities, items));
+                orders++;
+                items = 0;
+            }
+            if (order == null || !order.getOrderId().equals(line.getOrderId())) {
+                changes.addRead(line.getOrderId(), line.getVersion());
+            }
+            order = line;
+
+            if (line.getDishId() != null || line.getQuantity() != null) {
+                if (items == dishIds.length) {
+                    dishIds = Arrays.copyOf(dishIds, items * 2);
+                    quantities = Arrays.copyOf(quantities, items * 2);
+                }
+                dishIds[items] = line.getDishId() != null ? line.getDishId() : 0;
+                quantities[items] = line.getQuantity() != null ? line.getQuantity() : 0;
+                items++;
+            }
+        }
+        if (order != null) {
+            appendLine(target, order, Arrays.copyOf(dishIds, items), Arrays.copyOf(quantities, items));
+            orders++;
+        }
+
+        return orders;
+    }
+
+    private void appendLine(OrderFactStore target, OrderFactLine order, int[] dishIds, int[] quantities) {
+        if (order.getStartDateTime() != null) {
+            write(target, 1, order.getStartDateTime().toLocalDateTime(), order.getTableId(), order.getUserId(),
+                    order.getTotalPrice(), order.getDuration(), dishIds, quantities);
+        }
+    }
+
+    private void append(OrderFactStore target, OrderSnapshot order, int sign) {
+        int[] dishIds = new int[order.getItems().size()];
+        int[] quantities = new int[dishIds.length];
+        for (int i = 0; i < dishIds.length; i++) {
+            OrderSnapshot.Item item = order.getItems().get(i);
+            dishIds[i] = item.getDishId() != null ? item.getDishId() : 0;
+            quantities[i] = item.getQuantity();
+        }
+
+        write(target, sign, order.getStartDateTime().toLocalDateTime(), order.getTableId(), order.getUserId(),
+                order.getTotalPrice(), order.getDuration(), dishIds, quantities);
+    }
+
+    private static void write(OrderFactStore target, int sign, LocalDateTime startDateTime, Integer tableId,
+                              Integer userId, BigDecimal totalPrice, Duration duration, int[] dishIds, int[] quantities) {
+        try {
+            target.append(sign, OrderFactStore.toEpochSecond(startDateTime),
+                    tableId != null ? tableId : 0,
+                    userId != null ? userId : 0,
+                    DailySeries.toMinorUnits(totalPrice),
+                    duration != null ? duration.getSeconds() : 0,
+                    dishIds, quantities);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private Path generationDirectory(long generation) {
+        return Path.of(directory, Long.toString(generation));
+    }
+
+    private long readGeneration() throws IOException {
+        Path pointer = Path.of(directory, CURRENT_FILE);
+        return Files.exists(pointer) ? Long.parseLong(Files.readString(pointer).trim()) : 0;
+    }
+
+    private void writeGeneration(long generation) throws IOException {
+        Path pointer = Path.of(directory, CURRENT_FILE);
+        Path temporary = Path.of(directory, CURRENT_FILE + ".tmp");
+        Files.writeString(temporary, Long.toString(generation));
+        Files.move(temporary, pointer, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Closes a generation that is no longer live and deletes its files. Summaries still scanning
+     * it keep their mappings; a directory that cannot be deleted is only left behind.
+     */
+    private static void discard(OrderFactStore generationStore, Path generationDirectory) {
+        try {
+            generationStore.close();
+            deleteDirectory(generationDirectory);
+        } catch (IOException e) {
+            // not the current generation, so it is never opened again
+        }
+    }
+
+    private static void deleteDirectory(Path path) throws IOException {
+        if (!Files.exists(path)) {
+            return;
+        }
+        try (Stream<Path> files = Files.walk(path)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    private static OrderSnapshot closedOrNull(OrderSnapshot order) {
+        return order != null && order.isClosed() && order.getStartDateTime() != null ? order : null;
+    }
+}
@@ -1,16 +1,30 @@
 package pl.pjatk.RestaurantManager.service;
 
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import pl.pjatk.RestaurantManager.dto.ItemBumpDto;
+import pl.pjatk.RestaurantManager.dto.OpenOrderDto;
+import pl.pjatk.RestaurantManager.dto.OrderSnapshot;
+import pl.pjatk.RestaurantManager.dto.ServeStatusDto;
+import pl.pjatk.RestaurantManager.event.OrderChangedEvent;
+import pl.pjatk.RestaurantManager.exceptions.PreconditionFailedException;
 import pl.pjatk.RestaurantManager.exceptions.ResourceNotFoundException;
 import pl.pjatk.RestaurantManager.model.Dish;
 import pl.pjatk.RestaurantManager.model.Order;
 import pl.pjatk.RestaurantManager.model.OrderItem;
 import pl.pjatk.RestaurantManager.model.Status;
+import pl.pjatk.RestaurantManager.projection.OrderItemState;
 import pl.pjatk.RestaurantManager.repository.OrderItemRepository;
 import pl.pjatk.RestaurantManager.repository.OrderRepository;
 import pl.pjatk.RestaurantManager.repository.UserRepository;
+import pl.pjatk.RestaurantManager.request.ItemBumpRequest;
 import pl.pjatk.RestaurantManager.request.OrderCreateRequest;
+import pl.pjatk.RestaurantManager.request.OrderItemChangeRequest;
+import pl.pjatk.RestaurantManager.request.OrderItemPatchRequest;
 import pl.pjatk.RestaurantManager.request.OrderItemRequest;
 import pl.pjatk.RestaurantManager.request.OrderUpdateRequest;
 
@@ -26,6 +40,10 @@ public class OrderService {
     private final TableService tableService;
     private final DishService dishService;
     private final OrderItemRepository orderItemRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final OpenOrderRegistry openOrderRegistry;
+    private final NameCache nameCache;
+    private final EntityManager entityManager;
 
 
     public List<Order> findAll() {
@@ -36,6 +54,47 @@ public class OrderService {
         return orderRepository.getOrderByStatusNot(Status.CLOSED);
     }
 
+    /**
+     * Orders that are not closed, read from {@link OpenOrderRegistry} with the names of their
+     * users, tables and dishes from {@link NameCache}.
+     */
+    public List<OpenOrderDto> findOpenOrders() {
+        List<OrderSnapshot> orders = openOrderRegistry.findAll();
+        Set<Integer> userIds = new HashSet<>();
+        Set<Integer> tableIds = new HashSet<>();
+        Set<Integer> dishIds = new HashSet<>();
+        for (OrderSnapshot order : orders) {
+            userIds.add(order.getUserId());
+            tableIds.add(order.getTableId());
+            for (OrderSnapshot.Item item : order.getItems()) {
+                dishIds.add(item.getDishId());
+            }
+        }
+        Map<Integer, String> userNames = nameCache.getUserNames(userIds);
+        Map<Integer, String> tableNames = nameCache.getTableNames(tableIds);
+        Map<Integer, String> dishNames = nameCache.getDishNames(dishIds);
+
+        return orders.stream()
+                .map(order -> OpenOrderDto.builder()
+                        .id(order.getId())
+                        .user(toLabel(order.getUserId(), userNames))
+                        .table(toLabel(order.getTableId(), tableNames))
+                        .orderItems(order.getItems().stream()
+                                .map(item -> new OpenOrderDto.Item(item.getId(), toLabel(item.getDishId(), dishNames),
+                                        item.getQuantity(), item.isReady()))
+                                .toList())
+                        .startDateTime(order.getStartDateTime())
+                        .orderProcessingStart(order.getOrderProcessingStart())
+                        .readyDateTime(order.getReadyDateTime())
+                        .status(order.getStatus())
+                        .isReadyToServe(order.getIsReadyToServe())
+                        .totalPrice(order.getTotalPrice())
+                        .duration(order.getDuration())
+                        .version(order.getVersion())
+                        .build())
+                .toList();
+    }
+
     public List<Order> findOrdersByStatus(Status status) {
         return orderRepository.getOrdersByStatus(status);
     }
@@ -51,17 +110,33 @@ public class OrderService {
         return orderRepository.findById(id);
     }
 
+    @Transactional
     public Order addOrder(OrderCreateRequest request) {
         var order = Order.builder()
                 .user(userRepository.findById(request.getUserId()).get())
                 .table(tableService.findById(request.getTableId()).get())
                 .status(Status.OPEN)
                 .build();
-        return orderRepository.save(order);
+        Order savedOrder = orderRepository.save(order);
+        publishChange(null, savedOrder);
+        return savedOrder;
     }
 
+    @Transactional
     public Optional<Order> updateOrder(Integer id, OrderUpdateRequest request) {
+        return updateOrder(id, request, null);
+    }
+
+    /**
+     * Updates the order if its version is {@code expectedVersion}, or whatever its version when
+     * {@code expectedVersion} is null, writing nothing otherwise. A write racing with another one
+     * fails on commit.
+     */
+    @Transactional
+    public Optional<Order> updateOrder(Integer id, OrderUpdateRequest request, Long expectedVersion) {
         return orderRepository.findById(id).map(order -> {
+            checkVersion(order, expectedVersion);
+            OrderSnapshot previous = OrderSnapshot.of(order);
             order.setUser(userRepository.findById(request.getUserId())
                     .orElseThrow(() -> new ResourceNotFoundException("User not found")));
             order.setTable(tableService.findById(request.getTableId())
@@ -70,7 +145,7 @@ public class OrderService {
                 order.setOrderProcessingStart(new Timestamp(System.currentTimeMillis()));
             }
             order.setStatus(request.getStatus());
-            order.setIsReadyToServe(request.getIsReadyToServe());
+            markReady(order, request.getIsReadyToServe());
             order.setTotalPrice(request.getTotalPrice());
             if (request.getStatus() == Status.CLOSED) {
                 Duration duration = Duration.between(order.getStartDateTime().toInstant(), Instant.now());
@@ -109,39 +184,228 @@ public class OrderService {
 
             order.setOrderItems(updatedOrderItems);
 
-            return orderRepository.save(order);
+            Order savedOrder = orderRepository.saveAndFlush(order);
+            publishChange(previous, savedOrder);
+            return savedOrder;
         });
     }
 
-    public Optional<Order> setReadyToServe(Integer id, Boolean isReady) {
+    @Transactional
+    public Optional<Order> patchOrderItems(Integer id, OrderItemPatchRequest request) {
+        return patchOrderItems(id, request, null);
+    }
+
+    /**
+     * Applies item operations to an order without touching its other items: items listed in
+     * {@code remove} are deleted in one statement, {@code change} updates quantity or readiness of
+     * items by id, and {@code add} inserts new items whose dishes are read in one query.
+     * The version of the order is raised even if only its items change.
+     */
+    @Transactional
+    public Optional<Order> patchOrderItems(Integer id, OrderItemPatchRequest request, Long expectedVersion) {
         return orderRepository.findById(id).map(order -> {
-            order.setIsReadyToServe(isReady);
-            return orderRepository.save(order);
+            checkVersion(order, expectedVersion);
+            OrderSnapshot previous = OrderSnapshot.of(order);
+            if (order.getOrderItems() == null) {
+                order.setOrderItems(new ArrayList<>());
+            }
+
+            Map<Integer, OrderItem> itemsById = new HashMap<>();
+            for (OrderItem orderItem : order.getOrderItems()) {
+                itemsById.put(orderItem.getId(), orderItem);
+            }
+
+            if (request.getRemove() != null && !request.getRemove().isEmpty()) {
+                Set<Integer> removedIds = new HashSet<>(request.getRemove());
+                for (Integer itemId : removedIds) {
+                    if (itemsById.remove(itemId) == null) {
+                        throw new ResourceNotFoundException("Order item not found");
+                    }
+                }
+                order.getOrderItems().removeIf(orderItem -> removedIds.contains(orderItem.getId()));
+                orderItemRepository.deleteAllByIdInBatch(removedIds);
+            }
+
+            if (request.getChange() != null) {
+                for (OrderItemChangeRequest change : request.getChange()) {
+                    OrderItem orderItem = itemsById.get(change.getId());
+                    if (orderItem == null) {
+                        throw new ResourceNotFoundException("Order item not found");
+                    }
+                    if (change.getQuantity() != null) {
+                        orderItem.setQuantity(change.getQuantity());
+                    }
+                    if (change.getReady() != null) {
+                        orderItem.setReady(change.getReady());
+                    }
+                }
+            }
+
+            if (request.getAdd() != null && !request.getAdd().isEmpty()) {
+                Map<Integer, Dish> dishesById = new HashMap<>();
+                for (Dish dish : dishService.findAllById(request.getAdd().stream()
+                        .map(OrderItemRequest::getDishId)
+                        .distinct()
+                        .toList())) {
+                    dishesById.put(dish.getId(), dish);
+                }
+
+                List<OrderItem> addedItems = new ArrayList<>(request.getAdd().size());
+                for (OrderItemRequest itemRequest : request.getAdd()) {
+                    Dish dish = dishesById.get(itemRequest.getDishId());
+                    if (dish == null) {
+                        throw new ResourceNotFoundException("Dish not found");
+                    }
+                    addedItems.add(OrderItem.builder()
+                            .order(order)
+                            .dish(dish)
+                            .quantity(itemRequest.getQuantity())
+                            .ready(Boolean.TRUE.equals(itemRequest.getReady()))
+                            .build());
+                }
+                order.getOrderItems().addAll(orderItemRepository.saveAll(addedItems));
+            }
+
+            if (request.getTotalPrice() != null) {
+                order.setTotalPrice(request.getTotalPrice());
+            }
+
+            flushWithVersionIncrement(order, previous.getVersion());
+            publishChange(previous, order);
+            return order;
         });
     }
 
-    public Optional<List<Map<String, Object>>> getOpenOrderServeStatus() {
-        List<Order> orderList = orderRepository.getOrderByStatusNot(Status.CLOSED);
+    /**
+     * Sets the ready flag of many items with one bulk update and recomputes isReadyToServe of
+     * their orders. Items listed under an order are changed only if they belong to it. Returns
+     * the items whose flag changed and the resulting state of their orders.
+     */
+    @Transactional
+    public ItemBumpDto bumpItems(ItemBumpRequest request) {
+        boolean ready = !Boolean.FALSE.equals(request.getReady());
+        Set<Integer> itemIds = new HashSet<>();
+        Map<Integer, Set<Integer>> orderIdsByItem = new HashMap<>();
+        if (request.getOrders() != null) {
+            for (ItemBumpRequest.OrderItems orderItems : request.getOrders()) {
+                if (orderItems == null || orderItems.getItemIds() == null) {
+                    continue;
+                }
+                for (Integer itemId : orderItems.getItemIds()) {
+                    itemIds.add(itemId);
+                    orderIdsByItem.computeIfAbsent(itemId, id -> new HashSet<>()).add(orderItems.getOrderId());
+                }
+            }
+        }
+        if (request.getItemIds() != null) {
+            itemIds.addAll(request.getItemIds());
+            request.getItemIds().forEach(orderIdsByItem::remove);
+        }
+
+        List<OrderItemState> changedItems = itemIds.isEmpty() ? List.of() : orderItemRepository
+                .findItemsToMark(itemIds, ready).stream()
+                .filter(item -> !orderIdsByItem.containsKey(item.getItemId())
+                        || orderIdsByItem.get(item.getItemId()).contains(item.getOrderId()))
+                .toList();
+        if (changedItems.isEmpty()) {
+            return new ItemBumpDto(List.of(), List.of());
+        }
+
+        Set<Integer> orderIds = new LinkedHashSet<>();
+        changedItems.forEach(item -> orderIds.add(item.getOrderId()));
+        Map<Integer, OrderSnapshot> previous = new HashMap<>();
+        for (Order order : orderRepository.findAllById(orderIds)) {
+            previous.put(order.getId(), OrderSnapshot.of(order));
+        }
+
+        orderItemRepository.updateReady(changedItems.stream().map(OrderItemState::getItemId).toList(), ready);
 
-        List<Map<String, Object>> result = new ArrayList<>();
-        for (Order order : orderList) {
-            Map<String, Object> orderMap = new HashMap<>();
-            orderMap.put("id", order.getId());
-            orderMap.put("status", order.getStatus());
-            orderMap.put("isReadyToServe", order.getIsReadyToServe());
-            orderMap.put("tableId", order.getTable().getId());
-            result.add(orderMap);
+        List<ItemBumpDto.OrderState> orders = new ArrayList<>(orderIds.size());
+        for (Order order : orderRepository.findAllById(orderIds)) {
+            boolean allReady = !order.getOrderItems().isEmpty()
+                    && order.getOrderItems().stream().allMatch(OrderItem::isReady);
+            if (!Boolean.valueOf(allReady).equals(order.getIsReadyToServe())) {
+                markReady(order, allReady);
+            }
+            flushWithVersionIncrement(order, previous.get(order.getId()).getVersion());
+            orders.add(new ItemBumpDto.OrderState(order.getId(), order.getIsReadyToServe(), order.getReadyDateTime()));
+            publishChange(previous.get(order.getId()), order);
         }
 
-        return Optional.of(result);
+        List<ItemBumpDto.Item> items = changedItems.stream()
+                .map(item -> new ItemBumpDto.Item(item.getOrderId(), item.getItemId(), ready))
+                .toList();
+        return new ItemBumpDto(items, orders);
     }
 
+    @Transactional
+    public Optional<Order> setReadyToServe(Integer id, Boolean isReady) {
+        return setReadyToServe(id, isReady, null);
+    }
+
+    @Transactional
+    public Optional<Order> setReadyToServe(Integer id, Boolean isReady, Long expectedVersion) {
+        return orderRepository.findById(id).map(order -> {
+            checkVersion(order, expectedVersion);
+            OrderSnapshot previous = OrderSnapshot.of(order);
+            markReady(order, isReady);
+            Order savedOrder = orderRepository.saveAndFlush(order);
+            publishChange(previous, savedOrder);
+            return savedOrder;
+        });
+    }
+
+    public List<ServeStatusDto> getOpenOrderServeStatus() {
+        return openOrderRegistry.findAll().stream()
+                .map(order -> new ServeStatusDto(order.getId(), order.getStatus(), order.getIsReadyToServe(),
+                        order.getTableId()))
+                .toList();
+    }
+
+    @Transactional
     public boolean deleteOrder(Integer id) {
-        if (orderRepository.findById(id).isEmpty()) {
+        Optional<Order> order = orderRepository.findById(id);
+        if (order.isEmpty()) {
             return false;
         }
 
+        OrderSnapshot previous = OrderSnapshot.of(order.get());
         orderRepository.deleteById(id);
+        eventPublisher.publishEvent(new OrderChangedEvent(previous, null));
         return true;
     }
+
+    private static void checkVersion(Order order, Long expectedVersion) {
+        if (expectedVersion != null && !expectedVersion.equals(order.getVersion())) {
+            throw new PreconditionFailedException("Order has been modified");
+        }
+    }
+
+    private static void markReady(Order order, Boolean isReady) {
+        order.setIsReadyToServe(isReady);
+        if (Boolean.TRUE.equals(isReady) && order.getReadyDateTime() == null) {
+            order.setReadyDateTime(new Timestamp(System.currentTimeMillis()));
+        }
+    }
+
+    /**
+     * Writes the pending changes of the order and raises its version once, also when only its
+     * items changed, so that the snapshot published for it carries the version being committed.
+     */
+    private void flushWithVersionIncrement(Order order, Long loadedVersion) {
+        orderRepository.flush();
+        if (Objects.equals(order.getVersion(), loadedVersion)) {
+            entityManager.lock(order, LockModeType.PESSIMISTIC_FORCE_INCREMENT);
+        }
+    }
+
+    private static OpenOrderDto.Label toLabel(Integer id, Map<Integer, String> names) {
+        return id != null ? new OpenOrderDto.Label(id, names.get(id)) : null;
+    }
+
+    private void publishChange(OrderSnapshot previous, Order order) {
+        if (order != null) {
+            eventPublisher.publishEvent(new OrderChangedEvent(previous, OrderSnapshot.of(order)));
+        }
+    }
 }
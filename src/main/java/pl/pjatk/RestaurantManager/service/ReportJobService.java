@@ -0,0 +1,215 @@
+package pl.pjatk.RestaurantManager.service;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import pl.pjatk.RestaurantManager.dto.ReportJobDto;
+import pl.pjatk.RestaurantManager.dto.StatisticSummaryDto;
+import pl.pjatk.RestaurantManager.model.ReportJobStatus;
+import pl.pjatk.RestaurantManager.model.StatisticMetric;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BinaryOperator;
+
+/**
+ * Runs statistic summaries in the background on {@code report.jobs.threads} threads with at most
+ * {@code report.jobs.queue-capacity} jobs waiting; further submissions are rejected. The range is
+ * computed in chunks of {@code report.jobs.chunk-days} days, which gives the progress and the
+ * points where a cancelled job stops. A job submitted while an identical one is pending or
+ * running gets that job back. Finished jobs are dropped {@code report.jobs.ttl-minutes} after
+ * they finish.
+ */
+@Service
+public class ReportJobService {
+    private final StatisticService statisticService;
+    private final int chunkDays;
+    private final Duration ttl;
+    private final ThreadPoolExecutor executor;
+
+    private final Map<String, ReportJob> jobs = new ConcurrentHashMap<>();
+    private final Map<ReportSpec, ReportJob> activeJobs = new HashMap<>();
+
+    public ReportJobService(StatisticService statisticService,
+                            @Value("${report.jobs.threads:2}") int threads,
+                            @Value("${report.jobs.queue-capacity:16}") int queueCapacity,
+                            @Value("${report.jobs.chunk-days:31}") int chunkDays,
+                            @Value("${report.jobs.ttl-minutes:30}") long ttlMinutes) {
+        this.statisticService = statisticService;
+        this.chunkDays = Math.max(chunkDays, 1);
+        this.ttl = Duration.ofMinutes(ttlMinutes);
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(queueCapacity, 1)), threadFactory());
+    }
+
+    /**
+     * Submits a summary job, or returns the pending or running job with the same range and
+     * metrics. Throws {@link RejectedExecutionException} when the queue is full.
+     */
+    public synchronized ReportJobDto submit(LocalDate startDate, LocalDate endDate, Set<StatisticMetric> metrics) {
+        ReportSpec spec = new ReportSpec(startDate, endDate, metrics == null || metrics.isEmpty()
+                ? EnumSet.allOf(StatisticMetric.class)
+                : EnumSet.copyOf(metrics));
+
+        ReportJob activeJob = activeJobs.get(spec);
+        if (activeJob != null) {
+            return activeJob.toDto();
+        }
+
+        ReportJob job = new ReportJob(UUID.randomUUID().toString(), spec);
+        job.future = executor.submit(() -> run(job));
+        jobs.put(job.id, job);
+        activeJobs.put(spec, job);
+        return job.toDto();
+    }
+
+    public Optional<ReportJobDto> findJob(String id) {
+        return Optional.ofNullable(jobs.get(id)).map(ReportJob::toDto);
+    }
+
+    /**
+     * The summary of a job, empty while the job is unknown, unfinished, failed or cancelled.
+     */
+    public Optional<StatisticSummaryDto> findResult(String id) {
+        ReportJob job = jobs.get(id);
+        return job != null && job.status.get() == ReportJobStatus.DONE
+                ? Optional.of(job.result)
+                : Optional.empty();
+    }
+
+    public Optional<ReportJobDto> cancel(String id) {
+        ReportJob job = jobs.get(id);
+        if (job == null) {
+            return Optional.empty();
+        }
+
+        if (job.status.compareAndSet(ReportJobStatus.PENDING, ReportJobStatus.CANCELLED)
+                || job.status.compareAndSet(ReportJobStatus.RUNNING, ReportJobStatus.CANCELLED)) {
+            job.future.cancel(true);
+            executor.purge();
+            finish(job);
+        }
+        return Optional.of(job.toDto());
+    }
+
+    @Scheduled(fixedDelayString = "${report.jobs.cleanup-ms:60000}")
+    public void evictExpired() {
+        Instant expiredBefore = Instant.now().minus(ttl);
+        jobs.values().removeIf(job -> job.finishedAt != null && job.finishedAt.isBefore(expiredBefore));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void run(ReportJob job) {
+        if (!job.status.compareAndSet(ReportJobStatus.PENDING, ReportJobStatus.RUNNING)) {
+            return;
+        }
+
+        try {
+            StatisticSummaryDto result = new StatisticSummaryDto();
+            LocalDate chunkStart = job.spec.startDate();
+            while (!chunkStart.isAfter(job.spec.endDate())) {
+                if (job.status.get() != ReportJobStatus.RUNNING) {
+                    return;
+                }
+                LocalDate chunkEnd = chunkStart.plusDays(chunkDays - 1);
+                if (chunkEnd.isAfter(job.spec.endDate())) {
+                    chunkEnd = job.spec.endDate();
+                }
+
+                merge(result, statisticService.calculateSummary(chunkStart, chunkEnd, job.spec.metrics()));
+                job.completedDays.addAndGet((int) ChronoUnit.DAYS.between(chunkStart, chunkEnd) + 1);
+                chunkStart = chunkEnd.plusDays(1);
+            }
+
+            job.result = result;
+            if (job.status.compareAndSet(ReportJobStatus.RUNNING, ReportJobStatus.DONE)) {
+                finish(job);
+            }
+        } catch (RuntimeException e) {
+            job.error = e.getMessage();
+            if (job.status.compareAndSet(ReportJobStatus.RUNNING, ReportJobStatus.FAILED)) {
+                finish(job);
+            }
+        }
+    }
+
+    private synchronized void finish(ReportJob job) {
+        job.finishedAt = Instant.now();
+        activeJobs.remove(job.spec, job);
+    }
+
+    private static void merge(StatisticSummaryDto target, StatisticSummaryDto chunk) {
+        target.setOrderCount(mergeMaps(target.getOrderCount(), chunk.getOrderCount(), Integer::sum));
+        target.setTotalPrice(mergeMaps(target.getTotalPrice(), chunk.getTotalPrice(), BigDecimal::add));
+        target.setWaiters(mergeMaps(target.getWaiters(), chunk.getWaiters(), Integer::sum));
+        target.setDishes(mergeMaps(target.getDishes(), chunk.getDishes(), Integer::sum));
+        target.setIngredients(mergeMaps(target.getIngredients(), chunk.getIngredients(), Double::sum));
+        target.setTraffic(mergeMaps(target.getTraffic(), chunk.getTraffic(), Integer::sum));
+    }
+
+    private static <K, V> Map<K, V> mergeMaps(Map<K, V> target, Map<K, V> chunk,
+                                              BinaryOperator<V> combine) {
+        if (chunk == null) {
+            return target;
+        }
+        Map<K, V> result = target != null ? target : new LinkedHashMap<>();
+        chunk.forEach((key, value) -> result.merge(key, value, combine));
+        return result;
+    }
+
+    private static ThreadFactory threadFactory() {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "report-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private record ReportSpec(LocalDate startDate, LocalDate endDate, Set<StatisticMetric> metrics) {
+    }
+
+    private static final class ReportJob {
+        private final String id;
+        private final ReportSpec spec;
+        private final Instant submittedAt = Instant.now();
+        private final AtomicReference<ReportJobStatus> status = new AtomicReference<>(ReportJobStatus.PENDING);
+        private final AtomicInteger completedDays = new AtomicInteger();
+        private volatile Future<?> future;
+        private volatile StatisticSummaryDto result;
+        private volatile String error;
+        private volatile Instant finishedAt;
+
+        private ReportJob(String id, ReportSpec spec) {
+            this.id = id;
+            this.spec = spec;
+        }
+
+        private ReportJobDto toDto() {
+            long days = ChronoUnit.DAYS.between(spec.startDate(), spec.endDate()) + 1;
+            return ReportJobDto.builder()
+                    .id(id)
+                    .startDate(spec.startDate())
+                    .endDate(spec.endDate())
+                    .metrics(spec.metrics())
+                    .status(status.get())
+                    .progress(days > 0 ? Math.min(1.0, completedDays.get() / (double) days) : 1.0)
+                    .submittedAt(submittedAt)
+                    .finishedAt(finishedAt)
+                    .error(error)
+                    .build();
+        }
+    }
+}
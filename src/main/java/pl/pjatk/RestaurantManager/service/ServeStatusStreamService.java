@@ -0,0 +1,204 @@
+package pl.pjatk.RestaurantManager.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import pl.pjatk.RestaurantManager.dto.OrderSnapshot;
+import pl.pjatk.RestaurantManager.dto.ServeStatusDto;
+import pl.pjatk.RestaurantManager.event.OrderChangedEvent;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Pushes the serve status of open orders to Server-Sent Events subscribers: a {@code snapshot}
+ * event on subscription, then {@code change} events when an order opens or its status,
+ * readiness or table changes and {@code remove} events when it closes or is deleted, each
+ * limited to the tables a subscriber asked for. Changes are sent after their transaction
+ * commits and serialized once. Every subscriber has its own queue of at most
+ * {@code order.stream.buffer-size} events, written by one of {@code order.stream.sender-threads}
+ * threads, so a slow subscriber delays only itself; a subscriber whose queue is full is dropped
+ * and its stream completed. Heartbeats are queued every {@code order.stream.heartbeat-ms}
+ * milliseconds by a thread of this service, so they are not delayed by other scheduled tasks.
+ * Idle subscribers hold no thread.
+ */
+@Service
+@RequiredArgsConstructor
+public class ServeStatusStreamService {
+    private final OrderService orderService;
+    private final ObjectMapper objectMapper;
+
+    @Value("${order.stream.buffer-size:64}")
+    private int bufferSize;
+
+    @Value("${order.stream.sender-threads:2}")
+    private int senderThreads;
+
+    @Value("${order.stream.heartbeat-ms:15000}")
+    private long heartbeatMs;
+
+    private ExecutorService sender;
+    private ScheduledExecutorService heartbeat;
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final AtomicLong eventId = new AtomicLong();
+
+    @PostConstruct
+    public void start() {
+        sender = Executors.newFixedThreadPool(senderThreads, runnable -> {
+            Thread thread = new Thread(runnable, "serve-status-stream");
+            thread.setDaemon(true);
+            return thread;
+        });
+        heartbeat = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "serve-status-heartbeat");
+            thread.setDaemon(true);
+            return thread;
+        });
+        heartbeat.scheduleWithFixedDelay(this::sendHeartbeat, heartbeatMs, heartbeatMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Registers {@code emitter} for the orders of {@code tableIds}, or of every table when empty,
+     * and queues its snapshot. Changes published after this call reach the emitter after the
+     * snapshot or are already part of it.
+     */
+    public SseEmitter subscribe(SseEmitter emitter, Set<Integer> tableIds) {
+        Subscriber subscriber = new Subscriber(emitter, tableIds == null ? Set.of() : Set.copyOf(tableIds),
+                new ArrayBlockingQueue<>(bufferSize));
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(e -> subscribers.remove(subscriber));
+
+        String id = String.valueOf(eventId.incrementAndGet());
+        subscriber.queue().add(() -> {
+            List<ServeStatusDto> snapshot = orderService.getOpenOrderServeStatus().stream()
+                    .filter(order -> subscriber.isWatching(order.getTableId()))
+                    .toList();
+            return SseEmitter.event().id(id).name("snapshot").data(toJson(snapshot));
+        });
+        subscribers.add(subscriber);
+        schedule(subscriber);
+        return emitter;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderChanged(OrderChangedEvent event) {
+        ServeStatusDto previous = isOpen(event.getPrevious()) ? toDto(event.getPrevious()) : null;
+        ServeStatusDto current = isOpen(event.getCurrent()) ? toDto(event.getCurrent()) : null;
+        if (Objects.equals(previous, current) || subscribers.isEmpty()) {
+            return;
+        }
+
+        String id = String.valueOf(eventId.incrementAndGet());
+        String currentJson = current != null ? toJson(current) : null;
+        String previousJson = previous != null ? toJson(previous) : null;
+        for (Subscriber subscriber : subscribers) {
+            if (current != null && subscriber.isWatching(current.getTableId())) {
+                enqueue(subscriber, () -> SseEmitter.event().id(id).name("change").data(currentJson));
+            } else if (previous != null && subscriber.isWatching(previous.getTableId())) {
+                enqueue(subscriber, () -> SseEmitter.event().id(id).name("remove").data(previousJson));
+            }
+        }
+    }
+
+    public void sendHeartbeat() {
+        for (Subscriber subscriber : subscribers) {
+            enqueue(subscriber, () -> SseEmitter.event().comment("heartbeat"));
+        }
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        heartbeat.shutdownNow();
+        sender.shutdownNow();
+        subscribers.forEach(subscriber -> subscriber.emitter().complete());
+        subscribers.clear();
+    }
+
+    /**
+     * Queues an event for the subscriber, or drops the subscriber when its queue is full; its
+     * stream is completed by the thread writing to it.
+     */
+    private void enqueue(Subscriber subscriber, Supplier<SseEmitter.SseEventBuilder> event) {
+        if (!subscriber.queue().offer(event)) {
+            subscribers.remove(subscriber);
+        }
+        schedule(subscriber);
+    }
+
+    private void schedule(Subscriber subscriber) {
+        if (subscriber.sending().compareAndSet(false, true)) {
+            try {
+                sender.execute(() -> drain(subscriber));
+            } catch (RejectedExecutionException e) {
+                subscriber.sending().set(false);
+            }
+        }
+    }
+
+    private void drain(Subscriber subscriber) {
+        Supplier<SseEmitter.SseEventBuilder> event;
+        while ((event = subscriber.queue().poll()) != null) {
+            if (!subscribers.contains(subscriber)) {
+                subscriber.queue().clear();
+                subscriber.emitter().complete();
+                break;
+            }
+            try {
+                subscriber.emitter().send(event.get());
+            } catch (IOException | IllegalStateException e) {
+                subscribers.remove(subscriber);
+                subscriber.queue().clear();
+            }
+        }
+        subscriber.sending().set(false);
+        if (!subscriber.queue().isEmpty()) {
+            schedule(subscriber);
+        }
+    }
+
+    private String toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static boolean isOpen(OrderSnapshot order) {
+        return order != null && !order.isClosed();
+    }
+
+    private static ServeStatusDto toDto(OrderSnapshot order) {
+        return new ServeStatusDto(order.getId(), order.getStatus(), order.getIsReadyToServe(), order.getTableId());
+    }
+
+    private record Subscriber(SseEmitter emitter, Set<Integer> tableIds,
+                              BlockingQueue<Supplier<SseEmitter.SseEventBuilder>> queue, AtomicBoolean sending) {
+        private Subscriber(SseEmitter emitter, Set<Integer> tableIds,
+                           BlockingQueue<Supplier<SseEmitter.SseEventBuilder>> queue) {
+            this(emitter, tableIds, queue, new AtomicBoolean());
+        }
+
+        private boolean isWatching(Integer tableId) {
+            return tableIds.isEmpty() || tableIds.contains(tableId);
+        }
+    }
+}
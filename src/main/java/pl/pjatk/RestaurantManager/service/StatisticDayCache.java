@@ -0,0 +1,94 @@
+package pl.pjatk.RestaurantManager.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import pl.pjatk.RestaurantManager.dto.OrderSnapshot;
+import pl.pjatk.RestaurantManager.event.OrderChangedEvent;
+import pl.pjatk.RestaurantManager.model.StatisticMetric;
+import pl.pjatk.RestaurantManager.statistic.SummaryAccumulator;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Least recently used cache of one-day summary segments keyed by (part metric, day), bounded by
+ * {@code statistic.cache.max-entries}. Any committed change of an order drops the segments of
+ * its day, so today's segment is refreshed as orders come in while finished days stay cached. A
+ * segment is not stored when its own day was invalidated while it was computed, since it may
+ * already be stale; invalidations of other days do not matter.
+ */
+@Service
+public class StatisticDayCache {
+    private final int maxEntries;
+    private final LinkedHashMap<Key, SummaryAccumulator> segments;
+    private final Map<Long, Long> dayGenerations = new HashMap<>();
+    private long generation;
+    private long allGeneration;
+
+    public StatisticDayCache(@Value("${statistic.cache.max-entries:16384}") int maxEntries) {
+        this.maxEntries = maxEntries;
+        this.segments = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, SummaryAccumulator> eldest) {
+                return size() > StatisticDayCache.this.maxEntries;
+            }
+        };
+    }
+
+    public synchronized SummaryAccumulator get(StatisticMetric part, LocalDate day) {
+        return segments.get(new Key(part, day.toEpochDay()));
+    }
+
+    /**
+     * Current invalidation generation, to be passed to {@link #put} for segments computed after
+     * this call.
+     */
+    public synchronized long getGeneration() {
+        return generation;
+    }
+
+    /**
+     * Stores {@code segment} unless its day has been invalidated since {@code expectedGeneration}.
+     */
+    public synchronized void put(long expectedGeneration, StatisticMetric part, LocalDate day, SummaryAccumulator segment) {
+        long dayGeneration = Math.max(allGeneration, dayGenerations.getOrDefault(day.toEpochDay(), 0L));
+        if (dayGeneration <= expectedGeneration && maxEntries > 0) {
+            segments.put(new Key(part, day.toEpochDay()), segment);
+        }
+    }
+
+    public synchronized void invalidate(LocalDate day) {
+        dayGenerations.put(day.toEpochDay(), ++generation);
+        for (StatisticMetric metric : StatisticMetric.values()) {
+            segments.remove(new Key(metric, day.toEpochDay()));
+        }
+    }
+
+    public synchronized void invalidateAll() {
+        allGeneration = ++generation;
+        dayGenerations.clear();
+        segments.clear();
+    }
+
+    public synchronized int size() {
+        return segments.size();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderChanged(OrderChangedEvent event) {
+        invalidate(event.getPrevious());
+        invalidate(event.getCurrent());
+    }
+
+    private void invalidate(OrderSnapshot order) {
+        if (order != null && order.getStartDate() != null) {
+            invalidate(order.getStartDate());
+        }
+    }
+
+    private record Key(StatisticMetric part, long epochDay) {
+    }
+}
@@ -0,0 +1,120 @@
+package pl.pjatk.RestaurantManager.service;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+
+/**
+ * Splits a date range into chunks of {@code statistic.parallel.chunk-days} days and runs a
+ * statistic query for every chunk, each in its own read-only transaction, on a pool of
+ * {@code statistic.parallel.threads} threads (0 means one per core, at most four). Results are
+ * returned in chunk order regardless of completion order. Without a pool (one thread) the whole
+ * range is queried at once on the calling thread.
+ * <p>
+ * Every chunk takes a database connection while the caller waits, and callers may hold one of
+ * their own, so at most {@code statistic.parallel.callers} callers fan out at once; others query
+ * their range on their own thread. Pool threads plus fanning callers should stay well below the
+ * connection pool size, and callers must not wrap {@link #map} in a transaction.
+ */
+@Service
+public class StatisticPartitionExecutor {
+    private static final int MAX_DEFAULT_THREADS = 4;
+
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkDays;
+    private final ExecutorService executor;
+    private final Semaphore callers;
+
+    public StatisticPartitionExecutor(PlatformTransactionManager transactionManager,
+                                      @Value("${statistic.parallel.threads:0}") int threads,
+                                      @Value("${statistic.parallel.callers:2}") int callers,
+                                      @Value("${statistic.parallel.chunk-days:7}") int chunkDays) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.chunkDays = Math.max(chunkDays, 1);
+        this.callers = new Semaphore(Math.max(callers, 1));
+
+        int poolSize = threads > 0 ? threads : Math.min(Runtime.getRuntime().availableProcessors(), MAX_DEFAULT_THREADS);
+        this.executor = poolSize > 1 ? Executors.newFixedThreadPool(poolSize, threadFactory()) : null;
+    }
+
+    public <T> List<T> map(LocalDate startDate, LocalDate endDate, BiFunction<LocalDate, LocalDate, T> query) {
+        List<LocalDate[]> chunks = split(startDate, endDate);
+        if (executor == null || chunks.size() == 1 || !callers.tryAcquire()) {
+            T result = transactionTemplate.execute(status -> query.apply(startDate, endDate));
+            return Collections.singletonList(result);
+        }
+        try {
+            return mapChunks(chunks, query);
+        } finally {
+            callers.release();
+        }
+    }
+
+    private <T> List<T> mapChunks(List<LocalDate[]> chunks, BiFunction<LocalDate, LocalDate, T> query) {
+        List<T> results = new ArrayList<>(chunks.size());
+
+        List<Future<T>> futures = new ArrayList<>(chunks.size());
+        for (LocalDate[] chunk : chunks) {
+            futures.add(executor.submit(() -> transactionTemplate.execute(status -> query.apply(chunk[0], chunk[1]))));
+        }
+        try {
+            for (Future<T> future : futures) {
+                results.add(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Statistic query was interrupted", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            for (Future<T> future : futures) {
+                future.cancel(true);
+            }
+        }
+        return results;
+    }
+
+    private List<LocalDate[]> split(LocalDate startDate, LocalDate endDate) {
+        List<LocalDate[]> chunks = new ArrayList<>();
+        LocalDate chunkStart = startDate;
+        while (!chunkStart.isAfter(endDate)) {
+            LocalDate chunkEnd = chunkStart.plusDays(chunkDays - 1);
+            if (chunkEnd.isAfter(endDate)) {
+                chunkEnd = endDate;
+            }
+            chunks.add(new LocalDate[]{chunkStart, chunkEnd});
+            chunkStart = chunkEnd.plusDays(1);
+        }
+        return chunks;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    private static ThreadFactory threadFactory() {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "statistic-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -2,142 +2,358 @@ package pl.pjatk.RestaurantManager.service;
 
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
-import pl.pjatk.RestaurantManager.model.Order;
-import pl.pjatk.RestaurantManager.model.OrderItem;
+import pl.pjatk.RestaurantManager.dto.StatisticSummaryDto;
+import pl.pjatk.RestaurantManager.dto.WaiterStatisticDto;
+import pl.pjatk.RestaurantManager.model.DailyOrderStatistic;
+import pl.pjatk.RestaurantManager.model.StatisticMetric;
 import pl.pjatk.RestaurantManager.model.Status;
+import pl.pjatk.RestaurantManager.projection.HourlyAggregate;
+import pl.pjatk.RestaurantManager.projection.IngredientLabel;
+import pl.pjatk.RestaurantManager.projection.OrderLine;
+import pl.pjatk.RestaurantManager.projection.WaiterPerformance;
+import pl.pjatk.RestaurantManager.repository.IngredientRepository;
 import pl.pjatk.RestaurantManager.repository.OrderRepository;
+import pl.pjatk.RestaurantManager.statistic.DishComposition;
+import pl.pjatk.RestaurantManager.statistic.IntLongHashMap;
+import pl.pjatk.RestaurantManager.statistic.OrderFactStore;
+import pl.pjatk.RestaurantManager.statistic.SummaryAccumulator;
 
 import java.math.BigDecimal;
 import java.sql.Timestamp;
+import java.time.Duration;
 import java.time.LocalDate;
-import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 public class StatisticService {
 
     private final OrderRepository orderRepository;
+    private final IngredientRepository ingredientRepository;
+    private final DishCompositionCache dishCompositionCache;
+    private final DailyOrderStatisticService dailyOrderStatisticService;
+    private final TrafficStatisticService trafficStatisticService;
+    private final OrderFactService orderFactService;
+    private final NameCache nameCache;
+    private final StatisticPartitionExecutor statisticPartitionExecutor;
+    private final StatisticDayCache statisticDayCache;
 
     public Map<String, Integer> calculateOrderCountStatistics(LocalDate startDate, LocalDate endDate) {
-        LocalDateTime startDateTime = startDate.atStartOfDay();
-        LocalDateTime endDateTime = endDate.atTime(LocalTime.MAX);
-
-        List<Order> orders = orderRepository.findByStartDateTimeBetweenAndStatus(Timestamp.valueOf(startDateTime), Timestamp.valueOf(endDateTime), Status.CLOSED);
-
         Map<String, Integer> orderCountStatistics = new LinkedHashMap<>();
 
-        for (Order order : orders) {
-            LocalDateTime orderDateTime = order.getStartDateTime().toLocalDateTime();
-            LocalDate orderDate = orderDateTime.toLocalDate();
-
-            String formattedDate = orderDate.toString();
-            int orderCount = orderCountStatistics.getOrDefault(formattedDate, 0);
-            orderCountStatistics.put(formattedDate, orderCount + 1);
+        for (DailyOrderStatistic day : dailyOrderStatisticService.findInRange(startDate, endDate)) {
+            if (day.getOrderCount() > 0) {
+                orderCountStatistics.put(day.getBusinessDate().toString(), day.getOrderCount());
+            }
         }
 
         return orderCountStatistics;
     }
 
     public Map<String, BigDecimal> calculateTotalPriceStatistics(LocalDate startDate, LocalDate endDate) {
-        LocalDateTime startDateTime = startDate.atStartOfDay();
-        LocalDateTime endDateTime = endDate.atTime(LocalTime.MAX);
-
-        List<Order> orders = orderRepository.findByStartDateTimeBetweenAndStatus(Timestamp.valueOf(startDateTime), Timestamp.valueOf(endDateTime), Status.CLOSED);
-
         Map<String, BigDecimal> totalPriceStatistics = new LinkedHashMap<>();
 
-        for (Order order : orders) {
-            LocalDateTime orderDateTime = order.getStartDateTime().toLocalDateTime();
-            LocalDate orderDate = orderDateTime.toLocalDate();
-
-            String formattedDate = orderDate.toString();
-            BigDecimal totalPrice = totalPriceStatistics.getOrDefault(formattedDate, BigDecimal.ZERO);
-            totalPrice = totalPrice.add(order.getTotalPrice());
-            totalPriceStatistics.put(formattedDate, totalPrice);
+        for (DailyOrderStatistic day : dailyOrderStatisticService.findInRange(startDate, endDate)) {
+            if (day.getOrderCount() > 0) {
+                totalPriceStatistics.put(day.getBusinessDate().toString(), day.getRevenue());
+            }
         }
 
         return totalPriceStatistics;
     }
 
     public LinkedHashMap<String, Integer> calculateWaiterStatistics(LocalDate startDate, LocalDate endDate) {
-        LinkedHashMap<String, Integer> statistics = new LinkedHashMap<>();
-
-        LocalDateTime startDateTime = LocalDateTime.of(startDate, LocalTime.MIDNIGHT);
-        LocalDateTime endDateTime = LocalDateTime.of(endDate, LocalTime.MAX);
+        return toWaiterMap(collectSummary(startDate, endDate, EnumSet.of(StatisticMetric.WAITERS)));
+    }
 
-        List<Order> orders = orderRepository.findByStartDateTimeBetweenAndStatus(Timestamp.valueOf(startDateTime), Timestamp.valueOf(endDateTime), Status.CLOSED);
-        for (Order order : orders) {
-            String waiterName = order.getUser().getFirstname() + " " + order.getUser().getLastname();
-            int orderCount = statistics.getOrDefault(waiterName, 0);
-            statistics.put(waiterName, orderCount + 1);
+    /**
+     * Closed orders of every waiter in the range, keyed by user id so waiters sharing a name stay
+     * apart, from one grouped query. Waiters with most orders come first.
+     */
+    public List<WaiterStatisticDto> calculateWaiterPerformance(LocalDate startDate, LocalDate endDate) {
+        List<WaiterStatisticDto> statistics = new ArrayList<>();
+
+        for (WaiterPerformance waiter : orderRepository.summarizeByWaiter(startOf(startDate), endOf(endDate))) {
+            statistics.add(WaiterStatisticDto.builder()
+                    .userId(waiter.getUserId())
+                    .userName(waiter.getFirstname() + ' ' + waiter.getLastname())
+                    .orderCount(waiter.getOrderCount())
+                    .revenue(waiter.getRevenue())
+                    .averageDuration(toDuration(waiter.getAverageDurationSeconds()))
+                    .averageTimeToProcessing(toDuration(waiter.getAverageProcessingSeconds()))
+                    .build());
         }
 
         return statistics;
     }
 
     public LinkedHashMap<String, Integer> calculateDishStatistics(LocalDate startDate, LocalDate endDate) {
-        LocalDateTime startDateTime = LocalDateTime.of(startDate, LocalTime.MIDNIGHT);
-        LocalDateTime endDateTime = LocalDateTime.of(endDate, LocalTime.MAX);
+        return toDishMap(collectSummary(startDate, endDate, EnumSet.of(StatisticMetric.DISHES)));
+    }
+
+    public LinkedHashMap<String, Double> calculateIngredientStatistics(LocalDate startDate, LocalDate endDate) {
+        SummaryAccumulator summary = collectSummary(startDate, endDate, EnumSet.of(StatisticMetric.INGREDIENTS));
+        return calculateIngredientUsage(summary.getDishQuantities());
+    }
 
-        List<Order> orders = orderRepository.findByStartDateTimeBetweenAndStatus(Timestamp.valueOf(startDateTime), Timestamp.valueOf(endDateTime), Status.CLOSED);
+    /**
+     * Orders started in every hour of {@code date}, whatever their status. The traffic of the
+     * summary counts orders the same way.
+     */
+    public Map<Integer, Integer> calculateOrderCountByHour(LocalDate date) {
+        int[] countByHour = trafficStatisticService.countByHour(date);
 
-        LinkedHashMap<String, Integer> dishStatistics = orders.stream()
-                .flatMap(order -> order.getOrderItems().stream())
-                .collect(Collectors.groupingBy(orderItem -> orderItem.getDish().getName(),
-                        LinkedHashMap::new,
-                        Collectors.summingInt(OrderItem::getQuantity)));
+        if (countByHour == null) {
+            countByHour = new int[24];
+            for (HourlyAggregate hour : orderRepository.countByDayAndHour(startOf(date), endOf(date))) {
+                countByHour[hour.getHour()] = hour.getOrderCount().intValue();
+            }
+        }
 
-        return dishStatistics;
+        return toHourMap(countByHour);
     }
 
-    public LinkedHashMap<String, Double> calculateIngredientStatistics(LocalDate startDate, LocalDate endDate) {
-        LocalDateTime startDateTime = LocalDateTime.of(startDate, LocalTime.MIDNIGHT);
-        LocalDateTime endDateTime = LocalDateTime.of(endDate, LocalTime.MAX);
-
-        List<Order> orders = orderRepository.findByStartDateTimeBetweenAndStatus(Timestamp.valueOf(startDateTime), Timestamp.valueOf(endDateTime), Status.CLOSED);
-
-        LinkedHashMap<String, Double> ingredientQuantities = orders.stream()
-                .flatMap(order -> order.getOrderItems().stream())
-                .flatMap(orderItem -> orderItem.getDish().getDishIngredients().stream()
-                        .filter(dishIngredient -> dishIngredient.getIngredient() != null)
-                        .map(dishIngredient -> {
-                            String ingredientName = dishIngredient.getIngredient().getName();
-                            String ingredientUnit = dishIngredient.getIngredient().getUnit().getName();
-                            String key = ingredientName + " [" + ingredientUnit + "]";
-                            double quantity = dishIngredient.getQuantity() * orderItem.getQuantity();
-                            return new AbstractMap.SimpleEntry<>(key, quantity);
-                        }))
-                .collect(Collectors.groupingBy(AbstractMap.SimpleEntry::getKey,
-                        LinkedHashMap::new,
-                        Collectors.summingDouble(AbstractMap.SimpleEntry::getValue)));
+    /**
+     * Assembles the requested metrics from one-day segments. Cached segments are reused and only
+     * the missing days are computed, in runs of consecutive days: from the mapped fact columns
+     * when the fact store is available, otherwise from closed order lines scanned in parallel
+     * date chunks. Traffic counts orders of every status by start hour, like the traffic
+     * statistics, and is read from hourly counts. Segments hold ids only; names are taken from
+     * {@link NameCache} and date strings produced once, when the result is assembled.
+     */
+    public StatisticSummaryDto calculateSummary(LocalDate startDate, LocalDate endDate, Set<StatisticMetric> metrics) {
+        SummaryAccumulator summary = collectSummary(startDate, endDate, metrics);
+
+        return StatisticSummaryDto.builder()
+                .orderCount(metrics.contains(StatisticMetric.ORDER_COUNT) ? summary.getDays().toCountMap() : null)
+                .totalPrice(metrics.contains(StatisticMetric.TOTAL_PRICE) ? summary.getDays().toAmountMap() : null)
+                .waiters(metrics.contains(StatisticMetric.WAITERS) ? toWaiterMap(summary) : null)
+                .dishes(metrics.contains(StatisticMetric.DISHES) ? toDishMap(summary) : null)
+                .ingredients(metrics.contains(StatisticMetric.INGREDIENTS)
+                        ? calculateIngredientUsage(summary.getDishQuantities())
+                        : null)
+                .traffic(metrics.contains(StatisticMetric.TRAFFIC) ? toHourMap(summary.getTrafficByHour()) : null)
+                .build();
+    }
 
-        return ingredientQuantities;
+    private SummaryAccumulator collectSummary(LocalDate startDate, LocalDate endDate, Set<StatisticMetric> metrics) {
+        Set<StatisticMetric> parts = EnumSet.noneOf(StatisticMetric.class);
+        for (StatisticMetric metric : metrics) {
+            parts.add(SummaryAccumulator.partOf(metric));
+        }
+
+        long generation = statisticDayCache.getGeneration();
+        SummaryAccumulator summary = new SummaryAccumulator(startDate, endDate, parts);
+        LocalDate missingFrom = null;
+
+        for (LocalDate day = startDate; !day.isAfter(endDate); day = day.plusDays(1)) {
+            Map<StatisticMetric, SummaryAccumulator> cached = new EnumMap<>(StatisticMetric.class);
+            for (StatisticMetric part : parts) {
+                SummaryAccumulator segment = statisticDayCache.get(part, day);
+                if (segment != null) {
+                    cached.put(part, segment);
+                }
+            }
+
+            if (cached.size() < parts.size()) {
+                if (missingFrom == null) {
+                    missingFrom = day;
+                }
+                continue;
+            }
+            if (missingFrom != null) {
+                computeSegments(missingFrom, day.minusDays(1), parts, generation, summary);
+                missingFrom = null;
+            }
+            cached.forEach((part, segment) -> summary.merge(segment, part));
+        }
+        if (missingFrom != null) {
+            computeSegments(missingFrom, endDate, parts, generation, summary);
+        }
+
+        return summary;
     }
 
-    public Map<Integer, Integer> calculateOrderCountByHour(LocalDate date) {
-        LocalDateTime startOfDay = date.atStartOfDay();
-        LocalDateTime endOfDay = date.atTime(LocalTime.MAX);
+    private void computeSegments(LocalDate startDate, LocalDate endDate, Set<StatisticMetric> parts,
+                                 long generation, SummaryAccumulator summary) {
+        List<SummaryAccumulator> segments;
+        OrderFactStore facts = orderFactService.getStore();
+        if (parts.equals(EnumSet.of(StatisticMetric.TRAFFIC))) {
+            segments = createSegments(startDate, endDate, parts);
+        } else if (facts != null) {
+            segments = scanFacts(facts, startDate, endDate, parts);
+        } else {
+            segments = new ArrayList<>();
+            for (List<SummaryAccumulator> chunk : statisticPartitionExecutor.map(startDate, endDate,
+                    (chunkStart, chunkEnd) -> scanOrderLines(chunkStart, chunkEnd, parts))) {
+                segments.addAll(chunk);
+            }
+        }
+        if (parts.contains(StatisticMetric.TRAFFIC)) {
+            long firstDay = startDate.toEpochDay();
+            for (HourlyAggregate hour : orderRepository.countByDayAndHour(startOf(startDate), endOf(endDate))) {
+                segments.get((int) (hour.getDay().toEpochDay() - firstDay)).addTraffic(hour.getHour(), hour.getOrderCount());
+            }
+        }
+
+        for (int i = 0; i < segments.size(); i++) {
+            LocalDate day = startDate.plusDays(i);
+            for (StatisticMetric part : parts) {
+                statisticDayCache.put(generation, part, day, segments.get(i));
+                summary.merge(segments.get(i), part);
+            }
+        }
+    }
+
+    private List<SummaryAccumulator> scanOrderLines(LocalDate startDate, LocalDate endDate, Set<StatisticMetric> parts) {
+        List<SummaryAccumulator> segments = createSegments(startDate, endDate, parts);
+        long firstDay = startDate.toEpochDay();
+
+        try (Stream<OrderLine> lines = orderRepository.streamOrderLines(startOf(startDate), endOf(endDate), Status.CLOSED)) {
+            int currentOrderId = -1;
+            SummaryAccumulator segment = null;
+            for (Iterator<OrderLine> iterator = lines.iterator(); iterator.hasNext(); ) {
+                OrderLine line = iterator.next();
+                if (line.getOrderId() != currentOrderId) {
+                    currentOrderId = line.getOrderId();
+                    long epochDay = line.getStartDateTime().toLocalDateTime().toLocalDate().toEpochDay();
+                    segment = segments.get((int) (epochDay - firstDay));
+                }
+                segment.accept(line);
+            }
+        }
+
+        return segments;
+    }
+
+    private List<SummaryAccumulator> scanFacts(OrderFactStore facts, LocalDate startDate, LocalDate endDate,
+                                               Set<StatisticMetric> parts) {
+        List<SummaryAccumulator> segments = createSegments(startDate, endDate, parts);
+        long firstDay = startDate.toEpochDay();
+        long fromSecond = OrderFactStore.toEpochSecond(startDate.atStartOfDay());
+        long toSecond = OrderFactStore.toEpochSecond(endDate.plusDays(1).atStartOfDay());
+
+        if (parts.contains(StatisticMetric.ORDER_COUNT) || parts.contains(StatisticMetric.WAITERS)) {
+            facts.scanOrders(fromSecond, toSecond, (second, waiterId, totalMinor, sign) -> {
+                long epochDay = OrderFactStore.toEpochDay(second);
+                segments.get((int) (epochDay - firstDay))
+                        .addOrder(epochDay, OrderFactStore.toHour(second), waiterId, totalMinor, sign);
+            });
+        }
+        if (parts.contains(StatisticMetric.DISHES)) {
+            facts.scanItems(fromSecond, toSecond, (second, dishId, quantity) ->
+                    segments.get((int) (OrderFactStore.toEpochDay(second) - firstDay)).addDish(dishId, quantity));
+        }
 
-        Timestamp startOfDayTimestamp = Timestamp.valueOf(startOfDay);
-        Timestamp endOfDayTimestamp = Timestamp.valueOf(endOfDay);
+        return segments;
+    }
+
+    private static List<SummaryAccumulator> createSegments(LocalDate startDate, LocalDate endDate, Set<StatisticMetric> parts) {
+        List<SummaryAccumulator> segments = new ArrayList<>();
+        for (LocalDate day = startDate; !day.isAfter(endDate); day = day.plusDays(1)) {
+            segments.add(new SummaryAccumulator(day, day, parts));
+        }
+        return segments;
+    }
 
-        List<Order> orders = orderRepository.findByStartDateTimeBetween(startOfDayTimestamp, endOfDayTimestamp);
+    /**
+     * Multiplies dish quantities by the cached dish compositions and resolves ingredient
+     * names once, for the ingredients that were actually used. Ingredients deleted since are left
+     * out, like dishes and waiters without a name.
+     */
+    private LinkedHashMap<String, Double> calculateIngredientUsage(IntLongHashMap dishQuantities) {
+        LinkedHashMap<String, Double> ingredientQuantities = new LinkedHashMap<>();
+        if (dishQuantities.size() == 0) {
+            return ingredientQuantities;
+        }
 
-        Map<Integer, Integer> orderCountByHour = new HashMap<>();
+        List<Integer> dishIds = new ArrayList<>(dishQuantities.size());
+        for (int i = 0; i < dishQuantities.size(); i++) {
+            dishIds.add(dishQuantities.keyAt(i));
+        }
+        Map<Integer, DishComposition> compositions = dishCompositionCache.getCompositions(dishIds);
+
+        TreeMap<Integer, Double> usage = new TreeMap<>();
+        for (int i = 0; i < dishQuantities.size(); i++) {
+            DishComposition composition = compositions.get(dishQuantities.keyAt(i));
+            long dishQuantity = dishQuantities.valueAt(i);
+            if (dishQuantity == 0) {
+                continue;
+            }
+            for (int j = 0; j < composition.size(); j++) {
+                usage.merge(composition.ingredientIdAt(j), composition.quantityAt(j) * dishQuantity, Double::sum);
+            }
+        }
+        if (usage.isEmpty()) {
+            return ingredientQuantities;
+        }
 
-        for (Order order : orders) {
-            LocalDateTime orderDateTime = order.getStartDateTime().toLocalDateTime();
-            int hour = orderDateTime.getHour();
-            orderCountByHour.put(hour, orderCountByHour.getOrDefault(hour, 0) + 1);
+        Map<Integer, String> labels = new HashMap<>();
+        for (IngredientLabel label : ingredientRepository.findLabelsByIds(usage.keySet())) {
+            labels.put(label.getId(), label.getUnit() != null
+                    ? label.getName() + " [" + label.getUnit() + "]"
+                    : label.getName());
         }
+        for (Map.Entry<Integer, Double> ingredient : usage.entrySet()) {
+            String label = labels.get(ingredient.getKey());
+            if (label != null) {
+                ingredientQuantities.merge(label, ingredient.getValue(), Double::sum);
+            }
+        }
+
+        return ingredientQuantities;
+    }
 
-        for (int hour = 1; hour <= 24; hour++) {
-            orderCountByHour.putIfAbsent(hour, 0);
+    private static LinkedHashMap<String, Integer> toNamedMap(IntLongHashMap counts, Map<Integer, String> names) {
+        LinkedHashMap<String, Integer> result = new LinkedHashMap<>();
+        for (int i = 0; i < counts.size(); i++) {
+            String name = names.get(counts.keyAt(i));
+            if (name != null && counts.valueAt(i) != 0) {
+                result.merge(name, (int) counts.valueAt(i), Integer::sum);
+            }
         }
+        return result;
+    }
+
+    private LinkedHashMap<String, Integer> toWaiterMap(SummaryAccumulator summary) {
+        IntLongHashMap counts = summary.getWaiterCounts();
+        return toNamedMap(counts, nameCache.getUserNames(countedIds(counts)));
+    }
+
+    private LinkedHashMap<String, Integer> toDishMap(SummaryAccumulator summary) {
+        IntLongHashMap quantities = summary.getDishQuantities();
+        return toNamedMap(quantities, nameCache.getDishNames(countedIds(quantities)));
+    }
+
+    private static List<Integer> countedIds(IntLongHashMap counts) {
+        List<Integer> ids = new ArrayList<>();
+        for (int i = 0; i < counts.size(); i++) {
+            if (counts.valueAt(i) != 0) {
+                ids.add(counts.keyAt(i));
+            }
+        }
+        return ids;
+    }
+
+    private static Map<Integer, Integer> toHourMap(int[] countByHour) {
+        Map<Integer, Integer> result = new TreeMap<>();
+        for (int hour = 0; hour < countByHour.length; hour++) {
+            result.put(hour, countByHour[hour]);
+        }
+        return result;
+    }
+
+    private static Timestamp startOf(LocalDate date) {
+        return Timestamp.valueOf(date.atStartOfDay());
+    }
+
+    private static Timestamp endOf(LocalDate date) {
+        return Timestamp.valueOf(date.atTime(LocalTime.MAX));
+    }
 
-        return orderCountByHour;
+    private static Duration toDuration(Double seconds) {
+        return seconds != null ? Duration.ofMillis(Math.round(seconds * 1000)) : null;
     }
 }
@@ -13,6 +13,7 @@ import java.util.Optional;
 @RequiredArgsConstructor
 public class TableService {
     private final TableRepository tableRepository;
+    private final NameCache nameCache;
 
     public List<Table> findAll() {
         return tableRepository.findAll();
@@ -43,7 +44,9 @@ public class TableService {
                     table.setSeatsNumber(request.getSeatsNumber());
                     table.setIsActive(request.getIsActive());
                     table.setIsOccupied(request.getIsOccupied());
-                    return tableRepository.save(table);
+                    Table savedTable = tableRepository.save(table);
+                    nameCache.invalidateTable(id);
+                    return savedTable;
                 });
     }
 
@@ -64,6 +67,7 @@ public class TableService {
         }
 
         tableRepository.deleteById(id);
+        nameCache.invalidateTable(id);
         return true;
     }
 }
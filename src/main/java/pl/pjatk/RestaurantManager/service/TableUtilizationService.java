@@ -0,0 +1,158 @@
+package pl.pjatk.RestaurantManager.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import pl.pjatk.RestaurantManager.dto.TableUtilizationDto;
+import pl.pjatk.RestaurantManager.model.Status;
+import pl.pjatk.RestaurantManager.model.Table;
+import pl.pjatk.RestaurantManager.projection.TableIntervalLine;
+import pl.pjatk.RestaurantManager.repository.OrderRepository;
+import pl.pjatk.RestaurantManager.repository.TableRepository;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Occupancy of tables from the intervals of CLOSED orders, read sorted by table and start time.
+ * Overlapping orders of one table are merged into a single seating in one pass, so
+ * the sort done by the database keeps the whole report at O(n log n). A seating counts once
+ * towards the turnover and occupies all seats of its table.
+ */
+@Service
+@RequiredArgsConstructor
+public class TableUtilizationService {
+    private static final long SECONDS_PER_DAY = 24 * 60 * 60;
+
+    private final OrderRepository orderRepository;
+    private final TableRepository tableRepository;
+
+    /**
+     * Table usage of the range and seat-hour utilization per time of day slot of
+     * {@code slotMinutes}, which must divide a day.
+     */
+    @Transactional(readOnly = true)
+    public TableUtilizationDto calculateUtilization(LocalDate startDate, LocalDate endDate, int slotMinutes) {
+        long rangeStart = toSeconds(startDate.atStartOfDay());
+        long rangeEnd = toSeconds(endDate.plusDays(1).atStartOfDay());
+        long slotSeconds = slotMinutes * 60L;
+        long days = ChronoUnit.DAYS.between(startDate, endDate) + 1;
+
+        Map<Integer, Table> tables = new LinkedHashMap<>();
+        long totalSeats = 0;
+        for (Table table : tableRepository.findAll()) {
+            tables.put(table.getId(), table);
+            totalSeats += seatsOf(table);
+        }
+
+        Sweep sweep = new Sweep(rangeStart, rangeEnd, slotSeconds);
+        try (Stream<TableIntervalLine> lines = orderRepository.streamTableIntervals(
+                Timestamp.valueOf(startDate.atStartOfDay()), Timestamp.valueOf(endDate.atTime(LocalTime.MAX)),
+                Status.CLOSED)) {
+            lines.forEach(line -> {
+                long start = toSeconds(line.getStartDateTime().toLocalDateTime());
+                sweep.accept(line.getTableId(), seatsOf(tables.get(line.getTableId())),
+                        start, start + line.getDuration().getSeconds());
+            });
+        }
+        sweep.flush();
+
+        List<TableUtilizationDto.TableUsage> tableUsages = new ArrayList<>(tables.size());
+        tables.values().forEach(table -> {
+            long occupiedSeconds = sweep.occupiedSeconds.getOrDefault(table.getId(), 0L);
+            tableUsages.add(new TableUtilizationDto.TableUsage(table.getId(), table.getName(), table.getSeatsNumber(),
+                    occupiedSeconds / 60, sweep.turnover.getOrDefault(table.getId(), 0),
+                    occupiedSeconds / (double) (rangeEnd - rangeStart)));
+        });
+
+        List<TableUtilizationDto.SlotUsage> slotUsages = new ArrayList<>(sweep.slotSeatSeconds.length);
+        double slotCapacity = (double) totalSeats * slotSeconds * days;
+        for (int slot = 0; slot < sweep.slotSeatSeconds.length; slot++) {
+            long seatSeconds = sweep.slotSeatSeconds[slot];
+            slotUsages.add(new TableUtilizationDto.SlotUsage(LocalTime.ofSecondOfDay(slot * slotSeconds),
+                    seatSeconds / 3600.0, slotCapacity > 0 ? seatSeconds / slotCapacity : 0));
+        }
+
+        return TableUtilizationDto.builder()
+                .startDate(startDate)
+                .endDate(endDate)
+                .slotMinutes(slotMinutes)
+                .tables(tableUsages)
+                .slots(slotUsages)
+                .build();
+    }
+
+    public static boolean isValidSlot(int slotMinutes) {
+        return slotMinutes > 0 && SECONDS_PER_DAY % (slotMinutes * 60L) == 0;
+    }
+
+    private static int seatsOf(Table table) {
+        return table != null && table.getSeatsNumber() != null ? table.getSeatsNumber() : 0;
+    }
+
+    // wall-clock seconds, so that a day is always SECONDS_PER_DAY long
+    private static long toSeconds(LocalDateTime dateTime) {
+        return dateTime.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    private static final class Sweep {
+        private final long rangeStart;
+        private final long rangeEnd;
+        private final long slotSeconds;
+        private final long[] slotSeatSeconds;
+        private final Map<Integer, Long> occupiedSeconds = new LinkedHashMap<>();
+        private final Map<Integer, Integer> turnover = new LinkedHashMap<>();
+
+        private Integer tableId;
+        private int seats;
+        private long seatingStart;
+        private long seatingEnd;
+
+        private Sweep(long rangeStart, long rangeEnd, long slotSeconds) {
+            this.rangeStart = rangeStart;
+            this.rangeEnd = rangeEnd;
+            this.slotSeconds = slotSeconds;
+            this.slotSeatSeconds = new long[(int) (SECONDS_PER_DAY / slotSeconds)];
+        }
+
+        private void accept(Integer lineTableId, int lineSeats, long start, long end) {
+            if (lineTableId.equals(tableId) && start < seatingEnd) {
+                seatingEnd = Math.max(seatingEnd, end);
+                return;
+            }
+            flush();
+            tableId = lineTableId;
+            seats = lineSeats;
+            seatingStart = start;
+            seatingEnd = end;
+        }
+
+        private void flush() {
+            if (tableId == null) {
+                return;
+            }
+            long start = Math.max(seatingStart, rangeStart);
+            long end = Math.min(seatingEnd, rangeEnd);
+            turnover.merge(tableId, 1, Integer::sum);
+            if (end > start) {
+                occupiedSeconds.merge(tableId, end - start, Long::sum);
+                for (long time = start; time < end; ) {
+                    long secondOfDay = Math.floorMod(time, SECONDS_PER_DAY);
+                    long slotEnd = Math.min(end, time - secondOfDay % slotSeconds + slotSeconds);
+                    slotSeatSeconds[(int) (secondOfDay / slotSeconds)] += (slotEnd - time) * seats;
+                    time = slotEnd;
+                }
+            }
+            tableId = null;
+        }
+    }
+}
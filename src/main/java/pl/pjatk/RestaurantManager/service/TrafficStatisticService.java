@@ -0,0 +1,111 @@
+package pl.pjatk.RestaurantManager.service;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import pl.pjatk.RestaurantManager.event.OrderChangedEvent;
+import pl.pjatk.RestaurantManager.projection.OrderStateLine;
+import pl.pjatk.RestaurantManager.repository.OrderRepository;
+import pl.pjatk.RestaurantManager.statistic.OrderChangeBuffer;
+import pl.pjatk.RestaurantManager.statistic.RollingHourlyHistogram;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Orders started in every hour of the last {@code statistic.traffic.days} days, whatever their
+ * status; the traffic of the statistic summary is counted the same way. Orders created or deleted
+ * while the histogram is rebuilt are replayed into the rebuilt one.
+ */
+@Service
+@RequiredArgsConstructor
+public class TrafficStatisticService {
+    private final OrderRepository orderRepository;
+
+    @Value("${statistic.traffic.days:14}")
+    private int days;
+
+    private final Object lock = new Object();
+    private volatile RollingHourlyHistogram histogram;
+    private OrderChangeBuffer changesDuringRebuild;
+
+    @PostConstruct
+    public void init() {
+        histogram = new RollingHourlyHistogram(days);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public synchronized void rebuild() {
+        LocalDate today = LocalDate.now();
+        LocalDate startDate = today.minusDays(days - 1);
+        OrderChangeBuffer changes = new OrderChangeBuffer();
+        synchronized (lock) {
+            changesDuringRebuild = changes;
+        }
+
+        try {
+            RollingHourlyHistogram rebuilt = new RollingHourlyHistogram(days);
+            try (Stream<OrderStateLine> lines = orderRepository.streamOrderStates(
+                    Timestamp.valueOf(startDate.atStartOfDay()), Timestamp.valueOf(today.atTime(LocalTime.MAX)))) {
+                if (lines != null) {
+                    for (Iterator<OrderStateLine> iterator = lines.iterator(); iterator.hasNext(); ) {
+                        OrderStateLine line = iterator.next();
+                        changes.addRead(line.getOrderId(), line.getVersion());
+                        add(rebuilt, line.getStartDateTime(), 1);
+                    }
+                }
+            }
+            synchronized (lock) {
+                changes.replay(order -> order.getStartDate() != null && !order.getStartDate().isBefore(startDate)
+                        && !order.getStartDate().isAfter(today), change -> apply(rebuilt, change));
+                histogram = rebuilt;
+            }
+        } finally {
+            synchronized (lock) {
+                changesDuringRebuild = null;
+            }
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderChanged(OrderChangedEvent event) {
+        synchronized (lock) {
+            apply(histogram, event);
+            if (changesDuringRebuild != null) {
+                changesDuringRebuild.add(event);
+            }
+        }
+    }
+
+    /**
+     * Hourly order counts of {@code date}, or null when the date is outside the in-memory window.
+     */
+    public int[] countByHour(LocalDate date) {
+        return histogram.get(date, LocalDate.now());
+    }
+
+    private static void apply(RollingHourlyHistogram target, OrderChangedEvent event) {
+        if (event.getPrevious() == null && event.getCurrent() != null) {
+            add(target, event.getCurrent().getStartDateTime(), 1);
+        } else if (event.getPrevious() != null && event.getCurrent() == null) {
+            add(target, event.getPrevious().getStartDateTime(), -1);
+        }
+    }
+
+    private static void add(RollingHourlyHistogram target, Timestamp startDateTime, int delta) {
+        if (startDateTime != null) {
+            LocalDateTime start = startDateTime.toLocalDateTime();
+            target.add(start.toLocalDate(), start.getHour(), delta);
+        }
+    }
+}
@@ -17,6 +17,7 @@ public class UserService {
     private final UserRepository userRepository;
     private final TableService tableService;
     private final PasswordEncoder passwordEncoder;
+    private final NameCache nameCache;
 
     public List<User> findAll() {
         return userRepository.findAll();
@@ -52,7 +53,9 @@ public class UserService {
                             user.getPassword() :
                             passwordEncoder.encode(request.getPassword()));
             user.setTables(tableService.findAllById(request.getTableIds()));
-            return userRepository.save(user);
+            User savedUser = userRepository.save(user);
+            nameCache.invalidateUser(id);
+            return savedUser;
         });
     }
 
@@ -70,6 +73,7 @@ public class UserService {
         }
 
         userRepository.deleteById(id);
+        nameCache.invalidateUser(id);
         return true;
     }
 }
@@ -0,0 +1,101 @@
+package pl.pjatk.RestaurantManager.statistic;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Sparse symmetric matrix of how many orders contain both of two dishes, with one row of
+ * partner counts per dish that appeared in any order. Every row keeps its partners sorted by
+ * count once read, and a change to the row drops that list until the next read, so repeated
+ * top-N reads of a dish do not sort again.
+ */
+public final class CoOccurrenceMatrix {
+    private static final Partner[] NO_PARTNERS = new Partner[0];
+
+    private final Map<Integer, Row> rows = new ConcurrentHashMap<>();
+
+    public record Partner(int dishId, long count) {
+    }
+
+    /**
+     * Adds (or with a negative {@code sign} retracts) one order containing the distinct
+     * {@code dishIds}.
+     */
+    public void add(int[] dishIds, int sign) {
+        for (int dishId : dishIds) {
+            Row row = rows.computeIfAbsent(dishId, id -> new Row());
+            synchronized (row) {
+                row.orderCount += sign;
+                for (int partnerId : dishIds) {
+                    if (partnerId != dishId) {
+                        row.partners.add(partnerId, sign);
+                    }
+                }
+                row.sorted = null;
+            }
+        }
+    }
+
+    public void merge(CoOccurrenceMatrix other) {
+        other.rows.forEach((dishId, otherRow) -> {
+            Row row = rows.computeIfAbsent(dishId, id -> new Row());
+            synchronized (otherRow) {
+                synchronized (row) {
+                    row.orderCount += otherRow.orderCount;
+                    row.partners.putAll(otherRow.partners);
+                    row.sorted = null;
+                }
+            }
+        });
+    }
+
+    /**
+     * Number of orders containing {@code dishId}.
+     */
+    public long getOrderCount(int dishId) {
+        Row row = rows.get(dishId);
+        if (row == null) {
+            return 0;
+        }
+        synchronized (row) {
+            return row.orderCount;
+        }
+    }
+
+    /**
+     * At most {@code n} dishes ordered together with {@code dishId}, most frequent first.
+     */
+    public List<Partner> top(int dishId, int n) {
+        Row row = rows.get(dishId);
+        Partner[] sorted = row != null ? row.sorted() : NO_PARTNERS;
+        return Arrays.asList(sorted).subList(0, Math.min(Math.max(n, 0), sorted.length));
+    }
+
+    public int size() {
+        return rows.size();
+    }
+
+    private static final class Row {
+        private final IntLongHashMap partners = new IntLongHashMap();
+        private long orderCount;
+        private Partner[] sorted;
+
+        private synchronized Partner[] sorted() {
+            if (sorted == null) {
+                List<Partner> result = new ArrayList<>(partners.size());
+                for (int i = 0; i < partners.size(); i++) {
+                    if (partners.valueAt(i) > 0) {
+                        result.add(new Partner(partners.keyAt(i), partners.valueAt(i)));
+                    }
+                }
+                result.sort(Comparator.comparingLong(Partner::count).reversed().thenComparingInt(Partner::dishId));
+                sorted = result.toArray(NO_PARTNERS);
+            }
+            return sorted;
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package pl.pjatk.RestaurantManager.statistic;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+
+/**
+ * Order count and revenue per day of a fixed range, indexed by epoch day. Revenue is held in
+ * minor units (cents); day strings and BigDecimals are only created when the series is exported.
+ */
+public final class DailySeries {
+    private final long firstEpochDay;
+    private final int[] counts;
+    private final long[] amounts;
+
+    public DailySeries(LocalDate startDate, LocalDate endDate) {
+        this.firstEpochDay = startDate.toEpochDay();
+        int days = (int) (endDate.toEpochDay() - firstEpochDay + 1);
+        this.counts = new int[Math.max(days, 0)];
+        this.amounts = new long[Math.max(days, 0)];
+    }
+
+    public void add(long epochDay, int count, long amountMinor) {
+        int index = (int) (epochDay - firstEpochDay);
+        if (index >= 0 && index < counts.length) {
+            counts[index] += count;
+            amounts[index] += amountMinor;
+        }
+    }
+
+    public void addAll(DailySeries other) {
+        for (int i = 0; i < other.counts.length; i++) {
+            add(other.firstEpochDay + i, other.counts[i], other.amounts[i]);
+        }
+    }
+
+    public int getCount(LocalDate date) {
+        int index = (int) (date.toEpochDay() - firstEpochDay);
+        return index >= 0 && index < counts.length ? counts[index] : 0;
+    }
+
+    public long getAmount(LocalDate date) {
+        int index = (int) (date.toEpochDay() - firstEpochDay);
+        return index >= 0 && index < amounts.length ? amounts[index] : 0;
+    }
+
+    public LinkedHashMap<String, Integer> toCountMap() {
+        LinkedHashMap<String, Integer> result = new LinkedHashMap<>();
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] != 0) {
+                result.put(LocalDate.ofEpochDay(firstEpochDay + i).toString(), counts[i]);
+            }
+        }
+        return result;
+    }
+
+    public LinkedHashMap<String, BigDecimal> toAmountMap() {
+        LinkedHashMap<String, BigDecimal> result = new LinkedHashMap<>();
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] != 0) {
+                result.put(LocalDate.ofEpochDay(firstEpochDay + i).toString(), fromMinorUnits(amounts[i]));
+            }
+        }
+        return result;
+    }
+
+    public static long toMinorUnits(BigDecimal amount) {
+        if (amount == null) {
+            return 0;
+        }
+        return amount.scale() == 2
+                ? amount.unscaledValue().longValue()
+                : amount.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValue();
+    }
+
+    public static BigDecimal fromMinorUnits(long amountMinor) {
+        return BigDecimal.valueOf(amountMinor, 2);
+    }
+}
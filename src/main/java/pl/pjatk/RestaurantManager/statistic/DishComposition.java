@@ -0,0 +1,28 @@
+package pl.pjatk.RestaurantManager.statistic;
+
+/**
+ * Immutable ingredient vector of one dish: ingredient ids with the quantity used per portion.
+ */
+public final class DishComposition {
+    public static final DishComposition EMPTY = new DishComposition(new int[0], new double[0]);
+
+    private final int[] ingredientIds;
+    private final double[] quantities;
+
+    public DishComposition(int[] ingredientIds, double[] quantities) {
+        this.ingredientIds = ingredientIds.clone();
+        this.quantities = quantities.clone();
+    }
+
+    public int size() {
+        return ingredientIds.length;
+    }
+
+    public int ingredientIdAt(int index) {
+        return ingredientIds[index];
+    }
+
+    public double quantityAt(int index) {
+        return quantities[index];
+    }
+}
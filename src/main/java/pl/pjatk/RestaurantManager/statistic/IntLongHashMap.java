@@ -0,0 +1,107 @@
+package pl.pjatk.RestaurantManager.statistic;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing int to long map used as an id-keyed counter. Entries are iterated in
+ * insertion order through {@link #keyAt(int)} and {@link #valueAt(int)}.
+ */
+public final class IntLongHashMap {
+    private static final int FREE = -1;
+
+    private int[] keys;
+    private long[] values;
+    private int[] slots;
+    private int[] insertionOrder;
+    private int size;
+
+    public IntLongHashMap() {
+        this(16);
+    }
+
+    public IntLongHashMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(4, expectedSize) * 2 - 1) << 1;
+        keys = new int[capacity];
+        values = new long[capacity];
+        slots = new int[capacity];
+        insertionOrder = new int[capacity / 2];
+        Arrays.fill(slots, FREE);
+    }
+
+    /**
+     * Adds {@code delta} to the value of {@code key} and returns the new value.
+     */
+    public long add(int key, long delta) {
+        int slot = find(key);
+        if (slots[slot] == FREE) {
+            if (size == insertionOrder.length) {
+                grow();
+                slot = find(key);
+            }
+            slots[slot] = size;
+            keys[slot] = key;
+            insertionOrder[size++] = slot;
+        }
+        return values[slot] += delta;
+    }
+
+    public long get(int key) {
+        int slot = find(key);
+        return slots[slot] == FREE ? 0 : values[slot];
+    }
+
+    public boolean containsKey(int key) {
+        return slots[find(key)] != FREE;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int keyAt(int index) {
+        return keys[insertionOrder[index]];
+    }
+
+    public long valueAt(int index) {
+        return values[insertionOrder[index]];
+    }
+
+    public void putAll(IntLongHashMap other) {
+        for (int i = 0; i < other.size; i++) {
+            add(other.keyAt(i), other.valueAt(i));
+        }
+    }
+
+    private int find(int key) {
+        int mask = slots.length - 1;
+        int hash = key * 0x9E3779B9;
+        int slot = (hash ^ hash >>> 16) & mask;
+        while (slots[slot] != FREE && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void grow() {
+        int[] oldKeys = keys;
+        long[] oldValues = values;
+        int[] oldOrder = insertionOrder;
+        int oldSize = size;
+
+        keys = new int[oldKeys.length * 2];
+        values = new long[oldKeys.length * 2];
+        slots = new int[oldKeys.length * 2];
+        insertionOrder = new int[oldKeys.length];
+        Arrays.fill(slots, FREE);
+        size = 0;
+
+        for (int i = 0; i < oldSize; i++) {
+            int oldSlot = oldOrder[i];
+            int slot = find(oldKeys[oldSlot]);
+            slots[slot] = size;
+            keys[slot] = oldKeys[oldSlot];
+            values[slot] = oldValues[oldSlot];
+            insertionOrder[size++] = slot;
+        }
+    }
+}
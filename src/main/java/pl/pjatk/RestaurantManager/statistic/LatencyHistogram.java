@@ -0,0 +1,107 @@
+package pl.pjatk.RestaurantManager.statistic;
+
+import java.util.Arrays;
+
+/**
+ * Log-linear histogram of non-negative values in the spirit of HdrHistogram: values below 128
+ * are counted exactly, larger ones in buckets of 64 per power of two, which keeps every
+ * reported value within 1/64 (about 1.6%) of the recorded one. Histograms with the same
+ * layout merge by adding counts, and the bucket array grows only as far as the largest value
+ * needs.
+ */
+public final class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 6;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final long MAX_VALUE = (1L << 40) - 1;
+
+    private long[] counts = new long[2 * SUB_BUCKETS];
+    private long totalCount;
+    private long maxValue;
+
+    public synchronized void record(long value) {
+        add(value, 1);
+    }
+
+    /**
+     * Removes one earlier recording of {@code value}.
+     */
+    public synchronized void remove(long value) {
+        add(value, -1);
+    }
+
+    public synchronized void merge(LatencyHistogram other) {
+        long[] otherCounts;
+        long otherMax;
+        synchronized (other) {
+            otherCounts = other.counts.clone();
+            otherMax = other.maxValue;
+        }
+        ensureLength(otherCounts.length);
+        for (int i = 0; i < otherCounts.length; i++) {
+            counts[i] += otherCounts[i];
+            totalCount += otherCounts[i];
+        }
+        maxValue = Math.max(maxValue, otherMax);
+    }
+
+    public synchronized long getTotalCount() {
+        return totalCount;
+    }
+
+    /**
+     * Largest recorded value; it is not lowered by {@link #remove}.
+     */
+    public synchronized long getMaxValue() {
+        return maxValue;
+    }
+
+    /**
+     * The value below or at which {@code percentile} percent of the recorded values fall,
+     * reported as the highest value of its bucket, or 0 when nothing was recorded.
+     */
+    public synchronized long getValueAtPercentile(double percentile) {
+        if (totalCount <= 0) {
+            return 0;
+        }
+        long target = Math.max(1, (long) Math.ceil(Math.min(percentile, 100.0) / 100.0 * totalCount));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= target) {
+                return Math.min(highestValueOf(i), maxValue);
+            }
+        }
+        return maxValue;
+    }
+
+    static int indexOf(long value) {
+        int shift = Math.max(0, 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS);
+        return (shift << SUB_BUCKET_BITS) + (int) (value >>> shift);
+    }
+
+    static long highestValueOf(int index) {
+        if (index < 2 * SUB_BUCKETS) {
+            return index;
+        }
+        int shift = (index >> SUB_BUCKET_BITS) - 1;
+        long lowest = (long) ((index & (SUB_BUCKETS - 1)) + SUB_BUCKETS) << shift;
+        return lowest + (1L << shift) - 1;
+    }
+
+    private void add(long value, int count) {
+        long clamped = Math.min(Math.max(value, 0), MAX_VALUE);
+        int index = indexOf(clamped);
+        ensureLength(index + 1);
+        counts[index] += count;
+        totalCount += count;
+        if (count > 0) {
+            maxValue = Math.max(maxValue, clamped);
+        }
+    }
+
+    private void ensureLength(int length) {
+        if (length > counts.length) {
+            counts = Arrays.copyOf(counts, Math.max(length, counts.length + SUB_BUCKETS));
+        }
+    }
+}
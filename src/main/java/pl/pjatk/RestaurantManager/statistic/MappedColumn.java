@@ -0,0 +1,74 @@
+package pl.pjatk.RestaurantManager.statistic;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Fixed-width column backed by a memory-mapped file. The mapping grows by doubling and is
+ * replaced as a whole, so readers that took the buffer after reading the row count of the
+ * owning store always see every published row.
+ */
+final class MappedColumn implements Closeable {
+    private static final int INITIAL_ROWS = 4096;
+
+    private final FileChannel channel;
+    private final int width;
+    private volatile MappedByteBuffer buffer;
+
+    MappedColumn(Path file, int width) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.width = width;
+        long rows = Math.max(channel.size() / width, INITIAL_ROWS);
+        this.buffer = map(rows);
+    }
+
+    void ensureCapacity(long rows) throws IOException {
+        long capacity = buffer.capacity() / width;
+        if (rows > capacity) {
+            while (capacity < rows) {
+                capacity *= 2;
+            }
+            buffer = map(capacity);
+        }
+    }
+
+    MappedByteBuffer buffer() {
+        return buffer;
+    }
+
+    void putLong(int row, long value) {
+        buffer.putLong(row * width, value);
+    }
+
+    void putInt(int row, int value) {
+        buffer.putInt(row * width, value);
+    }
+
+    void putByte(int row, byte value) {
+        buffer.put(row * width, value);
+    }
+
+    void force() {
+        buffer.force();
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private MappedByteBuffer map(long rows) throws IOException {
+        long size = rows * width;
+        if (size > Integer.MAX_VALUE) {
+            throw new IllegalStateException("Column file exceeds the maximum mappable size");
+        }
+        MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        mapped.order(ByteOrder.LITTLE_ENDIAN);
+        return mapped;
+    }
+}
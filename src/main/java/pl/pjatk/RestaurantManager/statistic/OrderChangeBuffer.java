@@ -0,0 +1,66 @@
+package pl.pjatk.RestaurantManager.statistic;
+
+import pl.pjatk.RestaurantManager.dto.OrderSnapshot;
+import pl.pjatk.RestaurantManager.event.OrderChangedEvent;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Order changes committed while a statistic is rebuilt from the database, together with the
+ * version of every order the rebuild read. Replaying applies to the rebuilt statistic only the
+ * changes that were not read already: the first such change of an order starts from the state
+ * that was read, that is from a read state in the version that was read, or from a state the
+ * rebuild does not read when the order was not read at all. Every later change of that order is
+ * replayed after it.
+ */
+public final class OrderChangeBuffer {
+    private final List<OrderChangedEvent> changes = new ArrayList<>();
+    private final IntLongHashMap readVersions = new IntLongHashMap();
+
+    public synchronized void add(OrderChangedEvent change) {
+        changes.add(change);
+    }
+
+    /**
+     * Records the version of an order the rebuild read; called once per order.
+     */
+    public synchronized void addRead(int orderId, Long version) {
+        readVersions.add(orderId, versionOf(version));
+    }
+
+    public synchronized void addRead(IntLongHashMap versions) {
+        readVersions.putAll(versions);
+    }
+
+    /**
+     * Passes to {@code apply} the changes missing from the rebuilt statistic, in commit order.
+     * {@code isRead} tells whether the rebuild reads an order in the given state.
+     */
+    public synchronized void replay(Predicate<OrderSnapshot> isRead, Consumer<OrderChangedEvent> apply) {
+        Set<Integer> replayedIds = new HashSet<>();
+        for (OrderChangedEvent change : changes) {
+            OrderSnapshot previous = change.getPrevious();
+            Integer id = change.getCurrent() != null ? change.getCurrent().getId() : previous.getId();
+            if (!replayedIds.contains(id)) {
+                boolean read = readVersions.containsKey(id);
+                boolean missing = previous != null && isRead.test(previous)
+                        ? read && readVersions.get(id) == versionOf(previous.getVersion())
+                        : !read;
+                if (!missing) {
+                    continue;
+                }
+                replayedIds.add(id);
+            }
+            apply.accept(change);
+        }
+    }
+
+    public static long versionOf(Long version) {
+        return version != null ? version : 0;
+    }
+}
@@ -0,0 +1,229 @@
+package pl.pjatk.RestaurantManager.statistic;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Append-only columnar store of closed orders and their items, one memory-mapped file per
+ * column. Changes to an already stored order are appended as a retraction row (sign -1 for
+ * orders, negated quantity for items) followed by the new state, so every aggregate is a plain
+ * signed sum. Times are wall-clock epoch seconds, which keeps day and hour a matter of division.
+ * <p>
+ * Rows are published by bumping the row counts after the column values are written; readers
+ * take the counts first and never see a partially written row. Missing table, waiter and dish
+ * ids are stored as 0.
+ */
+public final class OrderFactStore implements Closeable {
+    private static final int SECONDS_PER_DAY = 86_400;
+
+    private final FileChannel metaChannel;
+    private final FileLock lock;
+    private final MappedByteBuffer meta;
+
+    private final MappedColumn orderSeconds;
+    private final MappedColumn orderTables;
+    private final MappedColumn orderWaiters;
+    private final MappedColumn orderTotals;
+    private final MappedColumn orderDurations;
+    private final MappedColumn orderSigns;
+
+    private final MappedColumn itemSeconds;
+    private final MappedColumn itemDishes;
+    private final MappedColumn itemQuantities;
+
+    private volatile int orderRows;
+    private volatile int itemRows;
+
+    private OrderFactStore(Path directory, FileChannel metaChannel, FileLock lock) throws IOException {
+        this.metaChannel = metaChannel;
+        this.lock = lock;
+        this.meta = metaChannel.map(FileChannel.MapMode.READ_WRITE, 0, 2 * Long.BYTES);
+        this.meta.order(ByteOrder.LITTLE_ENDIAN);
+
+        this.orderSeconds = new MappedColumn(directory.resolve("order_second.col"), Long.BYTES);
+        this.orderTables = new MappedColumn(directory.resolve("order_table.col"), Integer.BYTES);
+        this.orderWaiters = new MappedColumn(directory.resolve("order_waiter.col"), Integer.BYTES);
+        this.orderTotals = new MappedColumn(directory.resolve("order_total.col"), Long.BYTES);
+        this.orderDurations = new MappedColumn(directory.resolve("order_duration.col"), Long.BYTES);
+        this.orderSigns = new MappedColumn(directory.resolve("order_sign.col"), Byte.BYTES);
+
+        this.itemSeconds = new MappedColumn(directory.resolve("item_second.col"), Long.BYTES);
+        this.itemDishes = new MappedColumn(directory.resolve("item_dish.col"), Integer.BYTES);
+        this.itemQuantities = new MappedColumn(directory.resolve("item_quantity.col"), Integer.BYTES);
+
+        this.orderRows = (int) meta.getLong(0);
+        this.itemRows = (int) meta.getLong(Long.BYTES);
+    }
+
+    /**
+     * Opens or creates the store in {@code directory}. Only one store may use a directory at a
+     * time; a second attempt fails with an IOException.
+     */
+    public static OrderFactStore open(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        FileChannel metaChannel = FileChannel.open(directory.resolve("facts.meta"),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        FileLock lock;
+        try {
+            lock = metaChannel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            lock = null;
+        }
+        if (lock == null) {
+            metaChannel.close();
+            throw new IOException("Fact store " + directory + " is already in use");
+        }
+        return new OrderFactStore(directory, metaChannel, lock);
+    }
+
+    public static long toEpochSecond(LocalDateTime dateTime) {
+        return dateTime.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    public static long toEpochDay(long epochSecond) {
+        return Math.floorDiv(epochSecond, SECONDS_PER_DAY);
+    }
+
+    public static int toHour(long epochSecond) {
+        return (int) (Math.floorMod(epochSecond, SECONDS_PER_DAY) / 3600);
+    }
+
+    public synchronized void append(int sign, long epochSecond, int tableId, int waiterId, long totalMinor,
+                                    long durationSeconds, int[] dishIds, int[] quantities) throws IOException {
+        int orderRow = orderRows;
+        ensureOrderCapacity(orderRow + 1);
+        orderSeconds.putLong(orderRow, epochSecond);
+        orderTables.putInt(orderRow, tableId);
+        orderWaiters.putInt(orderRow, waiterId);
+        orderTotals.putLong(orderRow, totalMinor);
+        orderDurations.putLong(orderRow, durationSeconds);
+        orderSigns.putByte(orderRow, (byte) sign);
+
+        int itemRow = itemRows;
+        ensureItemCapacity(itemRow + dishIds.length);
+        for (int i = 0; i < dishIds.length; i++, itemRow++) {
+            itemSeconds.putLong(itemRow, epochSecond);
+            itemDishes.putInt(itemRow, dishIds[i]);
+            itemQuantities.putInt(itemRow, sign * quantities[i]);
+        }
+
+        publish(orderRow + 1, itemRow);
+    }
+
+    public synchronized void clear() {
+        publish(0, 0);
+    }
+
+    public synchronized void force() {
+        orderSeconds.force();
+        orderTables.force();
+        orderWaiters.force();
+        orderTotals.force();
+        orderDurations.force();
+        orderSigns.force();
+        itemSeconds.force();
+        itemDishes.force();
+        itemQuantities.force();
+        meta.force();
+    }
+
+    public int getOrderRows() {
+        return orderRows;
+    }
+
+    public int getItemRows() {
+        return itemRows;
+    }
+
+    /**
+     * Passes every order row started in [fromSecond, toSecond) to {@code visitor}.
+     */
+    public void scanOrders(long fromSecond, long toSecond, OrderVisitor visitor) {
+        int rows = orderRows;
+        MappedByteBuffer seconds = orderSeconds.buffer();
+        MappedByteBuffer waiters = orderWaiters.buffer();
+        MappedByteBuffer totals = orderTotals.buffer();
+        MappedByteBuffer signs = orderSigns.buffer();
+
+        for (int row = 0; row < rows; row++) {
+            long second = seconds.getLong(row << 3);
+            if (second >= fromSecond && second < toSecond) {
+                visitor.visit(second, waiters.getInt(row << 2), totals.getLong(row << 3), signs.get(row));
+            }
+        }
+    }
+
+    /**
+     * Passes every item row of orders started in [fromSecond, toSecond) to {@code visitor}.
+     */
+    public void scanItems(long fromSecond, long toSecond, ItemVisitor visitor) {
+        int rows = itemRows;
+        MappedByteBuffer seconds = itemSeconds.buffer();
+        MappedByteBuffer dishes = itemDishes.buffer();
+        MappedByteBuffer quantities = itemQuantities.buffer();
+
+        for (int row = 0; row < rows; row++) {
+            long second = seconds.getLong(row << 3);
+            if (second >= fromSecond && second < toSecond) {
+                visitor.visit(second, dishes.getInt(row << 2), quantities.getInt(row << 2));
+            }
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        orderSeconds.close();
+        orderTables.close();
+        orderWaiters.close();
+        orderTotals.close();
+        orderDurations.close();
+        orderSigns.close();
+        itemSeconds.close();
+        itemDishes.close();
+        itemQuantities.close();
+        lock.release();
+        metaChannel.close();
+    }
+
+    @FunctionalInterface
+    public interface OrderVisitor {
+        void visit(long epochSecond, int waiterId, long totalMinor, int sign);
+    }
+
+    @FunctionalInterface
+    public interface ItemVisitor {
+        void visit(long epochSecond, int dishId, int quantity);
+    }
+
+    private void ensureOrderCapacity(int rows) throws IOException {
+        orderSeconds.ensureCapacity(rows);
+        orderTables.ensureCapacity(rows);
+        orderWaiters.ensureCapacity(rows);
+        orderTotals.ensureCapacity(rows);
+        orderDurations.ensureCapacity(rows);
+        orderSigns.ensureCapacity(rows);
+    }
+
+    private void ensureItemCapacity(int rows) throws IOException {
+        itemSeconds.ensureCapacity(rows);
+        itemDishes.ensureCapacity(rows);
+        itemQuantities.ensureCapacity(rows);
+    }
+
+    private void publish(int orders, int items) {
+        meta.putLong(Long.BYTES, items);
+        meta.putLong(0, orders);
+        itemRows = items;
+        orderRows = orders;
+    }
+}
@@ -0,0 +1,82 @@
+package pl.pjatk.RestaurantManager.statistic;
+
+import java.time.LocalDate;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Order counts per hour for the last {@code days} days. Every day owns one slot of 24
+ * counters in a ring indexed by epoch day; a slot is recycled when a newer day claims it.
+ */
+public final class RollingHourlyHistogram {
+    private static final long NO_DAY = Long.MIN_VALUE;
+
+    private final int days;
+    private final AtomicLongArray slotDays;
+    private final AtomicIntegerArray counts;
+
+    public RollingHourlyHistogram(int days) {
+        this.days = days;
+        this.slotDays = new AtomicLongArray(days);
+        this.counts = new AtomicIntegerArray(days * 24);
+        for (int slot = 0; slot < days; slot++) {
+            slotDays.set(slot, NO_DAY);
+        }
+    }
+
+    public void add(LocalDate date, int hour, int delta) {
+        int slot = claim(date.toEpochDay());
+        if (slot >= 0) {
+            counts.addAndGet(slot * 24 + hour, delta);
+        }
+    }
+
+    /**
+     * Returns the 24 hourly counts of {@code date}, or null when the day is older than the
+     * window and the histogram cannot answer for it.
+     */
+    public int[] get(LocalDate date, LocalDate today) {
+        long epochDay = date.toEpochDay();
+        if (epochDay > today.toEpochDay() || epochDay <= today.toEpochDay() - days) {
+            return null;
+        }
+
+        int slot = slotOf(epochDay);
+        int[] result = new int[24];
+        if (slotDays.get(slot) == epochDay) {
+            for (int hour = 0; hour < 24; hour++) {
+                result[hour] = counts.get(slot * 24 + hour);
+            }
+        }
+        return result;
+    }
+
+    private int claim(long epochDay) {
+        int slot = slotOf(epochDay);
+        long slotDay = slotDays.get(slot);
+        if (slotDay == epochDay) {
+            return slot;
+        }
+        if (slotDay != NO_DAY && slotDay > epochDay) {
+            return -1;
+        }
+
+        synchronized (this) {
+            slotDay = slotDays.get(slot);
+            if (slotDay != epochDay) {
+                if (slotDay != NO_DAY && slotDay > epochDay) {
+                    return -1;
+                }
+                for (int hour = 0; hour < 24; hour++) {
+                    counts.set(slot * 24 + hour, 0);
+                }
+                slotDays.set(slot, epochDay);
+            }
+        }
+        return slot;
+    }
+
+    private int slotOf(long epochDay) {
+        return (int) Math.floorMod(epochDay, (long) days);
+    }
+}
@@ -0,0 +1,162 @@
+package pl.pjatk.RestaurantManager.statistic;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Space-Saving heavy-hitters summary (Metwally et al.) with at most {@code capacity} counters.
+ * Every reported count overestimates the true count by at most its {@code error}, and every
+ * error is bounded by {@code total / capacity}. Summaries are mergeable (Agarwal et al.), so
+ * per-day sketches can be combined over any range.
+ */
+public final class SpaceSavingSketch {
+    private final int capacity;
+    private final int[] ids;
+    private final long[] counts;
+    private final long[] errors;
+    private int size;
+    private long total;
+
+    public SpaceSavingSketch(int capacity) {
+        this.capacity = capacity;
+        this.ids = new int[capacity];
+        this.counts = new long[capacity];
+        this.errors = new long[capacity];
+    }
+
+    public record Entry(int id, long count, long error) {
+    }
+
+    public synchronized void offer(int id, long count) {
+        total += count;
+        int index = indexOf(id);
+        if (index >= 0) {
+            counts[index] += count;
+        } else if (size < capacity) {
+            ids[size] = id;
+            counts[size] = count;
+            errors[size] = 0;
+            size++;
+        } else {
+            int min = indexOfMin();
+            ids[min] = id;
+            errors[min] = counts[min];
+            counts[min] += count;
+        }
+    }
+
+    /**
+     * Merges {@code other} into this sketch. An id missing from a full sketch may still have
+     * been seen there up to that sketch's minimum count, which is added to its count and error.
+     */
+    public synchronized void merge(SpaceSavingSketch other) {
+        List<Entry> combined = new ArrayList<>(size + other.size);
+        long thisMin = getMinCount();
+        long otherMin;
+        int otherSize;
+        int[] otherIds;
+        long[] otherCounts;
+        long[] otherErrors;
+        synchronized (other) {
+            otherMin = other.getMinCount();
+            otherSize = other.size;
+            otherIds = Arrays.copyOf(other.ids, other.size);
+            otherCounts = Arrays.copyOf(other.counts, other.size);
+            otherErrors = Arrays.copyOf(other.errors, other.size);
+            total += other.total;
+        }
+
+        boolean[] matched = new boolean[otherSize];
+        for (int i = 0; i < size; i++) {
+            long count = counts[i];
+            long error = errors[i];
+            int match = -1;
+            for (int j = 0; j < otherSize; j++) {
+                if (otherIds[j] == ids[i]) {
+                    match = j;
+                    break;
+                }
+            }
+            if (match >= 0) {
+                matched[match] = true;
+                count += otherCounts[match];
+                error += otherErrors[match];
+            } else {
+                count += otherMin;
+                error += otherMin;
+            }
+            combined.add(new Entry(ids[i], count, error));
+        }
+        for (int j = 0; j < otherSize; j++) {
+            if (!matched[j]) {
+                combined.add(new Entry(otherIds[j], otherCounts[j] + thisMin, otherErrors[j] + thisMin));
+            }
+        }
+
+        combined.sort(Comparator.comparingLong(Entry::count).reversed());
+        size = Math.min(capacity, combined.size());
+        for (int i = 0; i < size; i++) {
+            Entry entry = combined.get(i);
+            ids[i] = entry.id();
+            counts[i] = entry.count();
+            errors[i] = entry.error();
+        }
+    }
+
+    public synchronized List<Entry> top(int k) {
+        List<Entry> entries = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            entries.add(new Entry(ids[i], counts[i], errors[i]));
+        }
+        entries.sort(Comparator.comparingLong(Entry::count).reversed());
+        return entries.subList(0, Math.min(k, entries.size()));
+    }
+
+    public synchronized long getTotal() {
+        return total;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Largest possible count of an id that is not monitored: the minimum counter once the sketch
+     * is full, zero before that.
+     */
+    public synchronized long getMinCount() {
+        return size == capacity ? counts[indexOfMin()] : 0;
+    }
+
+    /**
+     * Largest possible overestimate of any count in this sketch.
+     */
+    public synchronized long getMaxError() {
+        long maxError = 0;
+        for (int i = 0; i < size; i++) {
+            maxError = Math.max(maxError, errors[i]);
+        }
+        return maxError;
+    }
+
+    private int indexOf(int id) {
+        for (int i = 0; i < size; i++) {
+            if (ids[i] == id) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private int indexOfMin() {
+        int min = 0;
+        for (int i = 1; i < size; i++) {
+            if (counts[i] < counts[min]) {
+                min = i;
+            }
+        }
+        return min;
+    }
+}
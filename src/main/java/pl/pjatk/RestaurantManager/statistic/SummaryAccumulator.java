@@ -0,0 +1,135 @@
+package pl.pjatk.RestaurantManager.statistic;
+
+import pl.pjatk.RestaurantManager.model.StatisticMetric;
+import pl.pjatk.RestaurantManager.projection.OrderLine;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Set;
+
+/**
+ * Accumulators of closed orders for the summary metrics, filled only for the requested ones.
+ * The accumulators are split into four parts that can be merged separately: days (order count
+ * and revenue, {@link StatisticMetric#ORDER_COUNT}), {@link StatisticMetric#WAITERS}, dishes
+ * ({@link StatisticMetric#DISHES}, also behind ingredients) and {@link StatisticMetric#TRAFFIC}.
+ * Traffic counts orders of every status by start hour, so it is not taken from the closed
+ * orders but added separately with {@link #addTraffic}.
+ * Waiters and dishes are kept by id only, so cached segments do not hold names that may change.
+ * Partial accumulators are merged in date order, which keeps the first-seen order of waiters
+ * and dishes deterministic.
+ */
+public final class SummaryAccumulator {
+    private final boolean needsDays;
+    private final boolean needsWaiters;
+    private final boolean needsTraffic;
+    private final boolean needsDishes;
+
+    private final DailySeries days;
+    private final int[] trafficByHour = new int[24];
+    private final IntLongHashMap waiterCounts = new IntLongHashMap();
+    private final IntLongHashMap dishQuantities = new IntLongHashMap();
+
+    private int currentOrderId = -1;
+
+    public SummaryAccumulator(LocalDate startDate, LocalDate endDate, Set<StatisticMetric> metrics) {
+        this.needsDays = metrics.contains(StatisticMetric.ORDER_COUNT) || metrics.contains(StatisticMetric.TOTAL_PRICE);
+        this.needsWaiters = metrics.contains(StatisticMetric.WAITERS);
+        this.needsTraffic = metrics.contains(StatisticMetric.TRAFFIC);
+        this.needsDishes = metrics.contains(StatisticMetric.DISHES) || metrics.contains(StatisticMetric.INGREDIENTS);
+        this.days = new DailySeries(startDate, endDate);
+    }
+
+    /**
+     * Adds one order line. Lines must arrive grouped by order, so order-level figures are taken
+     * from the first line of every order.
+     */
+    public void accept(OrderLine line) {
+        if (line.getOrderId() != currentOrderId) {
+            currentOrderId = line.getOrderId();
+            LocalDateTime orderDateTime = line.getStartDateTime().toLocalDateTime();
+            int userId = line.getUserId() != null ? line.getUserId() : 0;
+            addOrder(orderDateTime.toLocalDate().toEpochDay(), orderDateTime.getHour(), userId,
+                    DailySeries.toMinorUnits(line.getTotalPrice()), 1);
+        }
+
+        if (needsDishes && line.getDishId() != null) {
+            addDish(line.getDishId(), line.getQuantity());
+        }
+    }
+
+    /**
+     * Adds {@code count} orders (negative for retractions); a waiter id of 0 means no waiter.
+     */
+    public void addOrder(long epochDay, int hour, int waiterId, long totalMinor, int count) {
+        if (needsDays) {
+            days.add(epochDay, count, count * totalMinor);
+        }
+        if (needsWaiters && waiterId != 0) {
+            waiterCounts.add(waiterId, count);
+        }
+    }
+
+    public void addTraffic(int hour, long count) {
+        if (needsTraffic) {
+            trafficByHour[hour] += (int) count;
+        }
+    }
+
+    public void addDish(int dishId, long quantity) {
+        if (needsDishes && dishId != 0) {
+            dishQuantities.add(dishId, quantity);
+        }
+    }
+
+    public void merge(SummaryAccumulator other) {
+        merge(other, StatisticMetric.ORDER_COUNT);
+        merge(other, StatisticMetric.WAITERS);
+        merge(other, StatisticMetric.DISHES);
+        merge(other, StatisticMetric.TRAFFIC);
+    }
+
+    /**
+     * Merges one part of {@code other}, named by its {@link #partOf(StatisticMetric) part metric}.
+     */
+    public void merge(SummaryAccumulator other, StatisticMetric part) {
+        switch (part) {
+            case ORDER_COUNT -> days.addAll(other.days);
+            case WAITERS -> waiterCounts.putAll(other.waiterCounts);
+            case DISHES -> dishQuantities.putAll(other.dishQuantities);
+            case TRAFFIC -> {
+                for (int hour = 0; hour < trafficByHour.length; hour++) {
+                    trafficByHour[hour] += other.trafficByHour[hour];
+                }
+            }
+            default -> throw new IllegalArgumentException("Not a summary part: " + part);
+        }
+    }
+
+    /**
+     * The part that holds {@code metric}: total price shares the day series with order count,
+     * ingredients are derived from dish quantities.
+     */
+    public static StatisticMetric partOf(StatisticMetric metric) {
+        return switch (metric) {
+            case TOTAL_PRICE -> StatisticMetric.ORDER_COUNT;
+            case INGREDIENTS -> StatisticMetric.DISHES;
+            default -> metric;
+        };
+    }
+
+    public DailySeries getDays() {
+        return days;
+    }
+
+    public int[] getTrafficByHour() {
+        return trafficByHour;
+    }
+
+    public IntLongHashMap getWaiterCounts() {
+        return waiterCounts;
+    }
+
+    public IntLongHashMap getDishQuantities() {
+        return dishQuantities;
+    }
+}
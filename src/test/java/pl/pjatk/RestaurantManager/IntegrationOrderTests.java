@@ -4,6 +4,8 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import pl.pjatk.RestaurantManager.dto.OrderSnapshot;
+import pl.pjatk.RestaurantManager.dto.ServeStatusDto;
 import pl.pjatk.RestaurantManager.exceptions.ResourceNotFoundException;
 import pl.pjatk.RestaurantManager.model.*;
 import pl.pjatk.RestaurantManager.repository.OrderRepository;
@@ -12,6 +14,7 @@ import pl.pjatk.RestaurantManager.request.OrderCreateRequest;
 import pl.pjatk.RestaurantManager.request.OrderItemRequest;
 import pl.pjatk.RestaurantManager.request.OrderUpdateRequest;
 import pl.pjatk.RestaurantManager.service.DishService;
+import pl.pjatk.RestaurantManager.service.OpenOrderRegistry;
 import pl.pjatk.RestaurantManager.service.OrderService;
 import pl.pjatk.RestaurantManager.service.TableService;
 
@@ -42,6 +45,9 @@ public class IntegrationOrderTests {
     @MockBean
     private DishService dishService;
 
+    @MockBean
+    private OpenOrderRegistry openOrderRegistry;
+
     @Test
     public void testFindAllOrders() {
         // given
@@ -209,7 +215,7 @@ public class IntegrationOrderTests {
         // given
         Order order = createSampleOrder(1);
         when(orderRepository.findById(1)).thenReturn(Optional.of(order));
-        when(orderRepository.save(any(Order.class))).thenReturn(order);
+        when(orderRepository.saveAndFlush(any(Order.class))).thenReturn(order);
 
         // when
         Optional<Order> result = orderService.setReadyToServe(1, true);
@@ -238,17 +244,15 @@ public class IntegrationOrderTests {
                 createSampleOrder(1),
                 createSampleOrder(2)
         );
-        when(orderRepository.getOrderByStatusNot(Status.CLOSED)).thenReturn(orders);
+        when(openOrderRegistry.findAll()).thenReturn(orders.stream().map(OrderSnapshot::of).toList());
 
         // when
-        Optional<List<Map<String, Object>>> result = orderService.getOpenOrderServeStatus();
+        List<ServeStatusDto> result = orderService.getOpenOrderServeStatus();
 
         // then
-        assertTrue(result.isPresent());
-        List<Map<String, Object>> resultMap = result.get();
-        assertEquals(2, resultMap.size());
-        assertEquals(Integer.valueOf(1), resultMap.get(0).get("id"));
-        assertEquals(Integer.valueOf(2), resultMap.get(1).get("id"));
+        assertEquals(2, result.size());
+        assertEquals(Integer.valueOf(1), result.get(0).getId());
+        assertEquals(Integer.valueOf(2), result.get(1).getId());
 
     }
 
@@ -0,0 +1,162 @@
+package pl.pjatk.RestaurantManager;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import pl.pjatk.RestaurantManager.dto.OrderSnapshot;
+import pl.pjatk.RestaurantManager.dto.RevenueSeriesDto;
+import pl.pjatk.RestaurantManager.event.OrderChangedEvent;
+import pl.pjatk.RestaurantManager.model.RevenueComparison;
+import pl.pjatk.RestaurantManager.model.Status;
+import pl.pjatk.RestaurantManager.projection.RevenueSeriesLine;
+import pl.pjatk.RestaurantManager.repository.DailyOrderStatisticRepository;
+import pl.pjatk.RestaurantManager.service.DailyOrderStatisticService;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class UnitDailyOrderStatisticTests {
+
+    @Mock
+    private DailyOrderStatisticRepository dailyOrderStatisticRepository;
+
+    @InjectMocks
+    private DailyOrderStatisticService dailyOrderStatisticService;
+
+    private LocalDate date;
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        date = LocalDate.of(2023, 5, 12);
+    }
+
+    @Test
+    @DisplayName("Test closing an order adds it to the daily rollup")
+    public void testCloseOrder() {
+        // Given
+        OrderSnapshot open = createSnapshot(Status.OPEN);
+        OrderSnapshot closed = createSnapshot(Status.CLOSED);
+
+        // When
+        dailyOrderStatisticService.onOrderChanged(new OrderChangedEvent(open, closed));
+
+        // Then
+        verify(dailyOrderStatisticRepository, times(1))
+                .accumulate(date, 1, BigDecimal.valueOf(50.0), 3, 1800L);
+    }
+
+    @Test
+    @DisplayName("Test reopening a closed order retracts it from the daily rollup")
+    public void testReopenOrder() {
+        // Given
+        OrderSnapshot closed = createSnapshot(Status.CLOSED);
+        OrderSnapshot open = createSnapshot(Status.OPEN);
+
+        // When
+        dailyOrderStatisticService.onOrderChanged(new OrderChangedEvent(closed, open));
+
+        // Then
+        verify(dailyOrderStatisticRepository, times(1))
+                .accumulate(date, -1, BigDecimal.valueOf(50.0).negate(), -3, -1800L);
+    }
+
+    @Test
+    @DisplayName("Test changes of open orders do not touch the daily rollup")
+    public void testOpenOrderChange() {
+        // When
+        dailyOrderStatisticService.onOrderChanged(new OrderChangedEvent(null, createSnapshot(Status.OPEN)));
+
+        // Then
+        verify(dailyOrderStatisticRepository, never()).accumulate(any(), anyInt(), any(), anyInt(), anyLong());
+    }
+
+    @Test
+    @DisplayName("Test revenue series takes its total from the running total")
+    public void testCalculateRevenueSeries() {
+        // Given
+        List<RevenueSeriesLine> lines = List.of(
+                createLine(date, "20", "20", "10", "5"),
+                createLine(date.plusDays(1), "30", "50", "12.5", "6.25"));
+        when(dailyOrderStatisticRepository.findRevenueSeries(date, date.plusDays(1))).thenReturn(lines);
+
+        // When
+        RevenueSeriesDto result = dailyOrderStatisticService.calculateRevenueSeries(date, date.plusDays(1), null);
+
+        // Then
+        assertEquals(2, result.getPoints().size());
+        assertEquals(new BigDecimal("50.00"), result.getTotal());
+        assertEquals(new BigDecimal("12.50"), result.getPoints().get(1).getMovingAverage7());
+        assertNull(result.getComparison());
+    }
+
+    @Test
+    @DisplayName("Test revenue series is compared with the previous period of the same length")
+    public void testCalculateRevenueSeries_PreviousPeriod() {
+        // Given
+        List<RevenueSeriesLine> current = List.of(createLine(date.plusDays(6), "150", "150", "0", "0"));
+        List<RevenueSeriesLine> previous = List.of(createLine(date.minusDays(1), "100", "100", "0", "0"));
+        when(dailyOrderStatisticRepository.findRevenueSeries(date, date.plusDays(6))).thenReturn(current);
+        when(dailyOrderStatisticRepository.findRevenueSeries(date.minusDays(7), date.minusDays(1))).thenReturn(previous);
+
+        // When
+        RevenueSeriesDto result = dailyOrderStatisticService.calculateRevenueSeries(date, date.plusDays(6),
+                RevenueComparison.PREVIOUS_PERIOD);
+
+        // Then
+        assertEquals(RevenueComparison.PREVIOUS_PERIOD, result.getComparedWith());
+        assertEquals(date.minusDays(7), result.getComparison().getStartDate());
+        assertEquals(new BigDecimal("100.00"), result.getComparison().getTotal());
+        assertEquals(new BigDecimal("0.5000"), result.getChange());
+    }
+
+    @Test
+    @DisplayName("Test revenue series is compared with the same weekdays a year earlier")
+    public void testCalculateRevenueSeries_PreviousYear() {
+        // Given
+        when(dailyOrderStatisticRepository.findRevenueSeries(any(), any())).thenReturn(List.of());
+
+        // When
+        RevenueSeriesDto result = dailyOrderStatisticService.calculateRevenueSeries(date, date.plusDays(6),
+                RevenueComparison.PREVIOUS_YEAR);
+
+        // Then
+        assertEquals(date.minusWeeks(52), result.getComparison().getStartDate());
+        assertEquals(date.getDayOfWeek(), result.getComparison().getStartDate().getDayOfWeek());
+        assertNull(result.getChange());
+    }
+
+    private RevenueSeriesLine createLine(LocalDate day, String revenue, String cumulativeRevenue,
+                                         String movingAverage7, String movingAverage28) {
+        RevenueSeriesLine line = mock(RevenueSeriesLine.class);
+        when(line.getDay()).thenReturn(day);
+        when(line.getRevenue()).thenReturn(new BigDecimal(revenue));
+        when(line.getCumulativeRevenue()).thenReturn(new BigDecimal(cumulativeRevenue));
+        when(line.getMovingAverage7()).thenReturn(new BigDecimal(movingAverage7));
+        when(line.getMovingAverage28()).thenReturn(new BigDecimal(movingAverage28));
+        return line;
+    }
+
+    private OrderSnapshot createSnapshot(Status status) {
+        return OrderSnapshot.builder()
+                .id(1)
+                .startDateTime(Timestamp.valueOf(LocalDateTime.of(date, LocalTime.of(18, 30))))
+                .status(status)
+                .totalPrice(BigDecimal.valueOf(50.0))
+                .duration(Duration.ofMinutes(30))
+                .items(List.of(new OrderSnapshot.Item(1, 1, 2, true), new OrderSnapshot.Item(2, 2, 1, true)))
+                .build();
+    }
+}
@@ -0,0 +1,230 @@
+package pl.pjatk.RestaurantManager;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import pl.pjatk.RestaurantManager.controller.ReportController;
+import pl.pjatk.RestaurantManager.dto.DayReportDto;
+import pl.pjatk.RestaurantManager.dto.OrderSnapshot;
+import pl.pjatk.RestaurantManager.event.OrderChangedEvent;
+import pl.pjatk.RestaurantManager.model.*;
+import pl.pjatk.RestaurantManager.repository.*;
+import pl.pjatk.RestaurantManager.service.DayReportService;
+import pl.pjatk.RestaurantManager.service.ReportJobService;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class UnitDayReportTests {
+
+    @Mock
+    private DayReportEntryRepository dayReportEntryRepository;
+
+    @Mock
+    private DayCloseRepository dayCloseRepository;
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    @Mock
+    private TableRepository tableRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private DishRepository dishRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @InjectMocks
+    private DayReportService dayReportService;
+
+    private LocalDate date;
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        date = LocalDate.of(2023, 5, 12);
+    }
+
+    @Test
+    @DisplayName("Test closing an order moves it between statuses and credits waiter and dishes")
+    public void testCloseOrder() {
+        // Given
+        OrderSnapshot open = createSnapshot(Status.OPEN);
+        OrderSnapshot closed = createSnapshot(Status.CLOSED);
+
+        // When
+        dayReportService.onOrderChanged(new OrderChangedEvent(open, closed));
+
+        // Then
+        verify(dayReportEntryRepository).accumulate(date, "STATUS", "OPEN", -1, 0, BigDecimal.valueOf(-50.0));
+        verify(dayReportEntryRepository).accumulate(date, "STATUS", "CLOSED", 1, 0, BigDecimal.valueOf(50.0));
+        verify(dayReportEntryRepository).accumulate(date, "WAITER", "7", 1, 0, BigDecimal.valueOf(50.0));
+        verify(dayReportEntryRepository).accumulate(date, "DISH", "3", 0, 2, BigDecimal.ZERO);
+        verifyNoMoreInteractions(dayReportEntryRepository);
+    }
+
+    @Test
+    @DisplayName("Test changes that cancel out do not touch the report")
+    public void testUnchangedOrder() {
+        // When
+        dayReportService.onOrderChanged(new OrderChangedEvent(createSnapshot(Status.OPEN), createSnapshot(Status.OPEN)));
+
+        // Then
+        verifyNoInteractions(dayReportEntryRepository);
+    }
+
+    @Test
+    @DisplayName("Test changes of orders of a closed day do not touch its report")
+    public void testClosedDayIsFrozen() {
+        // Given
+        when(dayCloseRepository.findWithShareLockByBusinessDate(date)).thenReturn(Optional.of(new DayClose()));
+
+        // When
+        dayReportService.onOrderChanged(new OrderChangedEvent(null, createSnapshot(Status.CANCELLED)));
+
+        // Then
+        verify(dayReportEntryRepository, never()).accumulate(any(), any(), any(), anyInt(), anyInt(), any());
+    }
+
+    @Test
+    @DisplayName("Test closing a day closes stale orders, frees their tables and recounts the day")
+    public void testCloseDay() {
+        // Given
+        Order stale = createOrder(Status.IN_PROGRESS);
+        stale.setTable(Table.builder().id(4).build());
+        Order closed = createOrder(Status.CLOSED);
+        when(dayCloseRepository.insertIfAbsent(eq(date), any())).thenReturn(1);
+        when(orderRepository.findByStartDateTimeLessThanEqualAndStatusNotIn(
+                Timestamp.valueOf(date.atTime(LocalTime.MAX)), List.of(Status.CLOSED, Status.CANCELLED)))
+                .thenReturn(List.of(stale));
+        when(orderRepository.save(stale)).thenReturn(stale);
+        when(orderRepository.findByStartDateTimeBetween(any(), any())).thenReturn(List.of(stale, closed));
+        when(tableRepository.freeWithoutOrders(Set.of(4), List.of(Status.CLOSED, Status.CANCELLED))).thenReturn(1);
+        when(dayCloseRepository.save(any(DayClose.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // When
+        DayReportDto result = dayReportService.closeDay(date);
+
+        // Then
+        assertEquals(Status.CLOSED, stale.getStatus());
+        assertNotNull(stale.getDuration());
+        verify(eventPublisher, times(1)).publishEvent(any(OrderChangedEvent.class));
+        verify(dayReportEntryRepository).deleteByDate(date);
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<DayReportEntry>> entries = ArgumentCaptor.forClass(List.class);
+        verify(dayReportEntryRepository).saveAll(entries.capture());
+        DayReportEntry statusEntry = entries.getValue().stream()
+                .filter(entry -> entry.getDimension() == DayReportDimension.STATUS)
+                .findFirst()
+                .orElseThrow();
+        assertEquals("CLOSED", statusEntry.getEntryKey());
+        assertEquals(2, statusEntry.getOrderCount());
+        assertEquals(BigDecimal.valueOf(100.0), statusEntry.getAmount());
+
+        assertTrue(result.isClosed());
+        assertEquals(1, result.getClosedStaleOrders());
+        assertEquals(1, result.getFreedTables());
+    }
+
+    @Test
+    @DisplayName("Test closing a day closed meanwhile returns its report")
+    public void testCloseDay_AlreadyClosed() {
+        // Given
+        DayClose dayClose = DayClose.builder().businessDate(date).closedAt(Timestamp.valueOf(LocalDateTime.now())).build();
+        when(dayCloseRepository.insertIfAbsent(eq(date), any())).thenReturn(0);
+        when(dayCloseRepository.findById(date)).thenReturn(Optional.of(dayClose));
+
+        // When
+        DayReportDto result = dayReportService.closeDay(date);
+
+        // Then
+        assertTrue(result.isClosed());
+        verify(orderRepository, never()).findByStartDateTimeLessThanEqualAndStatusNotIn(any(), any());
+        verify(dayReportEntryRepository, never()).deleteByDate(any());
+    }
+
+    @Test
+    @DisplayName("Test a day in the future cannot be closed")
+    public void testCloseDay_FutureDate() {
+        // Given
+        ReportController reportController = new ReportController(mock(ReportJobService.class), dayReportService);
+
+        // When
+        ResponseEntity<DayReportDto> result = reportController.closeDay(LocalDate.now().plusDays(1));
+
+        // Then
+        assertEquals(HttpStatus.BAD_REQUEST, result.getStatusCode());
+        verify(dayCloseRepository, never()).insertIfAbsent(any(), any());
+        verify(orderRepository, never()).findByStartDateTimeLessThanEqualAndStatusNotIn(any(), any());
+    }
+
+    @Test
+    @DisplayName("Test report of a closed day is read once")
+    public void testGetReport_ClosedDay() {
+        // Given
+        DayClose dayClose = DayClose.builder().businessDate(date).closedAt(Timestamp.valueOf(LocalDateTime.now())).build();
+        when(dayCloseRepository.findById(date)).thenReturn(Optional.of(dayClose));
+        when(dayReportEntryRepository.findByBusinessDate(date)).thenReturn(List.of(
+                new DayReportEntry(date, DayReportDimension.STATUS, "CLOSED", 4, 0, BigDecimal.valueOf(200.0)),
+                new DayReportEntry(date, DayReportDimension.STATUS, "CANCELLED", 1, 0, BigDecimal.valueOf(30.0)),
+                new DayReportEntry(date, DayReportDimension.WAITER, "7", 4, 0, BigDecimal.valueOf(200.0))));
+        when(userRepository.findAllById(any())).thenReturn(List.of(
+                User.builder().id(7).firstname("John").lastname("Smith").build()));
+
+        // When
+        DayReportDto first = dayReportService.getReport(date);
+        DayReportDto second = dayReportService.getReport(date);
+
+        // Then
+        assertSame(first, second);
+        assertTrue(first.isClosed());
+        assertEquals(BigDecimal.valueOf(200.0), first.getRevenue());
+        assertEquals(4, first.getOrdersByStatus().get(Status.CLOSED));
+        assertEquals(1, first.getCancelledOrders());
+        assertEquals(BigDecimal.valueOf(30.0), first.getCancelledTotal());
+        assertEquals("John Smith", first.getWaiters().get(0).getUserName());
+        verify(dayReportEntryRepository, times(1)).findByBusinessDate(date);
+    }
+
+    private OrderSnapshot createSnapshot(Status status) {
+        return OrderSnapshot.builder()
+                .id(1)
+                .userId(7)
+                .startDateTime(Timestamp.valueOf(LocalDateTime.of(date, LocalTime.of(18, 30))))
+                .status(status)
+                .totalPrice(BigDecimal.valueOf(50.0))
+                .items(List.of(new OrderSnapshot.Item(1, 3, 2, true)))
+                .build();
+    }
+
+    private Order createOrder(Status status) {
+        return Order.builder()
+                .startDateTime(Timestamp.valueOf(LocalDateTime.of(date, LocalTime.of(18, 30))))
+                .status(status)
+                .totalPrice(BigDecimal.valueOf(50.0))
+                .orderItems(List.of())
+                .build();
+    }
+}
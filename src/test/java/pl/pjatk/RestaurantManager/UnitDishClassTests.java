@@ -13,9 +13,11 @@ import pl.pjatk.RestaurantManager.model.DishIngredient;
 import pl.pjatk.RestaurantManager.model.Ingredient;
 import pl.pjatk.RestaurantManager.repository.DishRepository;
 import pl.pjatk.RestaurantManager.request.DishRequest;
+import pl.pjatk.RestaurantManager.service.DishCompositionCache;
 import pl.pjatk.RestaurantManager.service.CategoryService;
 import pl.pjatk.RestaurantManager.service.DishService;
 import pl.pjatk.RestaurantManager.service.IngredientService;
+import pl.pjatk.RestaurantManager.service.NameCache;
 
 import java.math.BigDecimal;
 import java.util.ArrayList;
@@ -37,6 +39,12 @@ public class UnitDishClassTests {
     @Mock
     private IngredientService ingredientService;
 
+    @Mock
+    private DishCompositionCache dishCompositionCache;
+
+    @Mock
+    private NameCache nameCache;
+
     @InjectMocks
     private DishService dishService;
 
@@ -0,0 +1,78 @@
+package pl.pjatk.RestaurantManager;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import pl.pjatk.RestaurantManager.projection.DishIngredientLine;
+import pl.pjatk.RestaurantManager.repository.DishIngredientRepository;
+import pl.pjatk.RestaurantManager.service.DishCompositionCache;
+import pl.pjatk.RestaurantManager.statistic.DishComposition;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class UnitDishCompositionCacheTests {
+
+    @Mock
+    private DishIngredientRepository dishIngredientRepository;
+
+    @InjectMocks
+    private DishCompositionCache dishCompositionCache;
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        DishIngredientLine flour = line(1, 7, 100.0);
+        DishIngredientLine salt = line(1, 8, 2.0);
+        when(dishIngredientRepository.findLinesByDishIds(any())).thenReturn(List.of(flour, salt));
+    }
+
+    @Test
+    @DisplayName("Should load missing dishes once and serve them from memory afterwards")
+    public void testGetCompositionsCached() {
+        // Given / When
+        Map<Integer, DishComposition> first = dishCompositionCache.getCompositions(List.of(1, 2));
+        Map<Integer, DishComposition> second = dishCompositionCache.getCompositions(List.of(1, 2));
+
+        // Then
+        DishComposition composition = first.get(1);
+        assertEquals(2, composition.size());
+        assertEquals(7, composition.ingredientIdAt(0));
+        assertEquals(100.0, composition.quantityAt(0));
+        assertEquals(8, composition.ingredientIdAt(1));
+        assertEquals(2.0, composition.quantityAt(1));
+        assertSame(DishComposition.EMPTY, first.get(2));
+        assertSame(composition, second.get(1));
+        verify(dishIngredientRepository, times(1)).findLinesByDishIds(any());
+    }
+
+    @Test
+    @DisplayName("Should reload a dish after it was invalidated")
+    public void testInvalidate() {
+        // Given
+        dishCompositionCache.getCompositions(List.of(1));
+
+        // When
+        dishCompositionCache.invalidate(1);
+        dishCompositionCache.getCompositions(List.of(1));
+
+        // Then
+        verify(dishIngredientRepository, times(2)).findLinesByDishIds(List.of(1));
+    }
+
+    private static DishIngredientLine line(Integer dishId, Integer ingredientId, Double quantity) {
+        DishIngredientLine line = mock(DishIngredientLine.class);
+        when(line.getDishId()).thenReturn(dishId);
+        when(line.getIngredientId()).thenReturn(ingredientId);
+        when(line.getQuantity()).thenReturn(quantity);
+        return line;
+    }
+}
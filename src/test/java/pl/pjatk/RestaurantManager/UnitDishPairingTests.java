@@ -0,0 +1,169 @@
+package pl.pjatk.RestaurantManager;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+import pl.pjatk.RestaurantManager.dto.OrderSnapshot;
+import pl.pjatk.RestaurantManager.dto.PairedDishesDto;
+import pl.pjatk.RestaurantManager.event.OrderChangedEvent;
+import pl.pjatk.RestaurantManager.model.Dish;
+import pl.pjatk.RestaurantManager.model.Status;
+import pl.pjatk.RestaurantManager.projection.OrderDishLine;
+import pl.pjatk.RestaurantManager.repository.DishRepository;
+import pl.pjatk.RestaurantManager.repository.OrderItemRepository;
+import pl.pjatk.RestaurantManager.service.DishPairingService;
+import pl.pjatk.RestaurantManager.service.StatisticPartitionExecutor;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.function.BiFunction;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class UnitDishPairingTests {
+
+    @Mock
+    private OrderItemRepository orderItemRepository;
+
+    @Mock
+    private DishRepository dishRepository;
+
+    @Mock
+    private StatisticPartitionExecutor partitionExecutor;
+
+    @InjectMocks
+    private DishPairingService dishPairingService;
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(dishPairingService, "days", 365);
+        when(dishRepository.findAllById(any())).thenReturn(List.of(
+                Dish.builder().id(2).name("Soup").build(),
+                Dish.builder().id(3).name("Cake").build()));
+    }
+
+    @Test
+    @DisplayName("Test rebuild merges the pairs of every chunk")
+    @SuppressWarnings("unchecked")
+    public void testRebuild() {
+        // Given
+        List<OrderDishLine> firstChunk = List.of(createLine(1, 1), createLine(1, 2), createLine(2, 1), createLine(2, 3));
+        List<OrderDishLine> secondChunk = List.of(createLine(3, 1), createLine(3, 2));
+        when(orderItemRepository.streamOrderDishes(any(), any(), eq(Status.CLOSED)))
+                .thenReturn(firstChunk.stream(), secondChunk.stream());
+        when(partitionExecutor.map(any(), any(), any())).thenAnswer(invocation -> {
+            BiFunction<LocalDate, LocalDate, Object> query = invocation.getArgument(2);
+            return List.of(query.apply(LocalDate.now().minusDays(1), LocalDate.now().minusDays(1)),
+                    query.apply(LocalDate.now(), LocalDate.now()));
+        });
+
+        // When
+        dishPairingService.rebuild();
+        PairedDishesDto result = dishPairingService.findPairedDishes(1, 5);
+
+        // Then
+        assertEquals(3, result.getOrderCount());
+        assertEquals(2, result.getPartners().size());
+        assertEquals(2, result.getPartners().get(0).getDishId());
+        assertEquals("Soup", result.getPartners().get(0).getName());
+        assertEquals(2, result.getPartners().get(0).getOrderCount());
+        assertEquals(2 / 3.0, result.getPartners().get(0).getConfidence(), 1e-9);
+        assertEquals(3, result.getPartners().get(1).getDishId());
+    }
+
+    @Test
+    @DisplayName("Test closing and reopening an order adds and retracts its pairs")
+    public void testOrderChanged() {
+        // Given
+        dishPairingService.rebuild();
+        OrderSnapshot open = createSnapshot(Status.OPEN, LocalDate.now(), 0L);
+        OrderSnapshot closed = createSnapshot(Status.CLOSED, LocalDate.now(), 1L);
+
+        // When
+        dishPairingService.onOrderChanged(new OrderChangedEvent(open, closed));
+        PairedDishesDto afterClose = dishPairingService.findPairedDishes(1, 5);
+        dishPairingService.onOrderChanged(new OrderChangedEvent(closed, open));
+        PairedDishesDto afterReopen = dishPairingService.findPairedDishes(1, 5);
+
+        // Then
+        assertEquals(1, afterClose.getOrderCount());
+        assertEquals(List.of(2, 3), afterClose.getPartners().stream().map(PairedDishesDto.Partner::getDishId).toList());
+        assertEquals(0, afterReopen.getOrderCount());
+        assertTrue(afterReopen.getPartners().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Test an order started before the window is not counted")
+    public void testOrderChangedBeforeWindow() {
+        // Given
+        dishPairingService.rebuild();
+        LocalDate startDate = LocalDate.now().minusDays(365);
+
+        // When
+        dishPairingService.onOrderChanged(new OrderChangedEvent(createSnapshot(Status.OPEN, startDate, 0L),
+                createSnapshot(Status.CLOSED, startDate, 1L)));
+
+        // Then
+        assertEquals(0, dishPairingService.findPairedDishes(1, 5).getOrderCount());
+    }
+
+    @Test
+    @DisplayName("Test rebuild keeps orders closed while reading the database")
+    @SuppressWarnings("unchecked")
+    public void testOrderChangedDuringRebuild() {
+        // Given
+        OrderSnapshot open = createSnapshot(Status.OPEN, LocalDate.now(), 0L);
+        OrderSnapshot closed = createSnapshot(Status.CLOSED, LocalDate.now(), 0L);
+        when(orderItemRepository.streamOrderDishes(any(), any(), eq(Status.CLOSED)))
+                .thenAnswer(invocation -> List.<OrderDishLine>of().stream());
+        when(partitionExecutor.map(any(), any(), any())).thenAnswer(invocation -> {
+            dishPairingService.onOrderChanged(new OrderChangedEvent(open, closed));
+            BiFunction<LocalDate, LocalDate, Object> query = invocation.getArgument(2);
+            return List.of(query.apply(LocalDate.now(), LocalDate.now()));
+        });
+
+        // When
+        dishPairingService.rebuild();
+
+        // Then
+        assertEquals(1, dishPairingService.findPairedDishes(1, 5).getOrderCount());
+    }
+
+    @Test
+    @DisplayName("Test dishes without partners do not query dish names")
+    public void testNoPartners() {
+        // When
+        PairedDishesDto result = dishPairingService.findPairedDishes(42, 5);
+
+        // Then
+        assertEquals(0, result.getOrderCount());
+        assertTrue(result.getPartners().isEmpty());
+        verify(dishRepository, never()).findAllById(any());
+    }
+
+    private OrderSnapshot createSnapshot(Status status, LocalDate startDate, Long version) {
+        return OrderSnapshot.builder()
+                .id(1)
+                .startDateTime(Timestamp.valueOf(startDate.atTime(12, 0)))
+                .status(status)
+                .version(version)
+                .items(List.of(new OrderSnapshot.Item(1, 1, 2, true), new OrderSnapshot.Item(2, 2, 1, true),
+                        new OrderSnapshot.Item(3, 3, 1, false), new OrderSnapshot.Item(4, 1, 1, false)))
+                .build();
+    }
+
+    private OrderDishLine createLine(Integer orderId, Integer dishId) {
+        OrderDishLine line = mock(OrderDishLine.class);
+        when(line.getOrderId()).thenReturn(orderId);
+        when(line.getDishId()).thenReturn(dishId);
+        return line;
+    }
+}
@@ -0,0 +1,111 @@
+package pl.pjatk.RestaurantManager;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+import pl.pjatk.RestaurantManager.dto.OrderSnapshot;
+import pl.pjatk.RestaurantManager.dto.TopDishesDto;
+import pl.pjatk.RestaurantManager.event.OrderChangedEvent;
+import pl.pjatk.RestaurantManager.model.Status;
+import pl.pjatk.RestaurantManager.projection.DailyDishAggregate;
+import pl.pjatk.RestaurantManager.repository.DishRepository;
+import pl.pjatk.RestaurantManager.repository.OrderItemRepository;
+import pl.pjatk.RestaurantManager.service.DishPopularityService;
+import pl.pjatk.RestaurantManager.statistic.SpaceSavingSketch;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+public class UnitDishPopularityTests {
+
+    @Mock
+    private OrderItemRepository orderItemRepository;
+
+    @Mock
+    private DishRepository dishRepository;
+
+    @InjectMocks
+    private DishPopularityService dishPopularityService;
+
+    private LocalDate today;
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(dishPopularityService, "days", 7);
+        ReflectionTestUtils.setField(dishPopularityService, "capacity", 2);
+        today = LocalDate.now();
+    }
+
+    @Test
+    @DisplayName("Test a dish is not guaranteed when an evicted dish may have sold more")
+    public void testGuaranteedAgainstMinCount() {
+        // Given
+        List<DailyDishAggregate> aggregates = List.of(createAggregate(1, 10), createAggregate(2, 5), createAggregate(3, 4));
+        when(orderItemRepository.sumQuantityByDayAndDish(any(), any(), eq(Status.CLOSED))).thenReturn(aggregates);
+        dishPopularityService.rebuild();
+
+        // When
+        TopDishesDto result = dishPopularityService.findTopDishes(today, today, 2);
+
+        // Then
+        assertEquals(2, result.getDishes().size());
+        assertEquals(1, result.getDishes().get(0).getDishId());
+        assertTrue(result.getDishes().get(0).isGuaranteed());
+        assertEquals(3, result.getDishes().get(1).getDishId());
+        assertFalse(result.getDishes().get(1).isGuaranteed());
+    }
+
+    @Test
+    @DisplayName("Test days that left the window are dropped on the next change")
+    @SuppressWarnings("unchecked")
+    public void testEvictDaysBeforeWindow() {
+        // Given
+        dishPopularityService.rebuild();
+        Map<LocalDate, SpaceSavingSketch> dailySketches =
+                (Map<LocalDate, SpaceSavingSketch>) ReflectionTestUtils.getField(dishPopularityService, "dailySketches");
+        dailySketches.put(today.minusDays(7), new SpaceSavingSketch(2));
+        dailySketches.put(today.minusDays(6), new SpaceSavingSketch(2));
+        OrderSnapshot closed = OrderSnapshot.builder()
+                .id(1)
+                .startDateTime(Timestamp.valueOf(today.atTime(12, 0)))
+                .status(Status.CLOSED)
+                .items(List.of(new OrderSnapshot.Item(1, 1, 2, true)))
+                .build();
+
+        // When
+        dishPopularityService.onOrderChanged(new OrderChangedEvent(null, closed));
+
+        // Then
+        assertEquals(Set.of(today.minusDays(6), today), dailySketches.keySet());
+    }
+
+    @Test
+    @DisplayName("Test k is bounded by the sketch capacity")
+    public void testIsValidK() {
+        assertTrue(dishPopularityService.isValidK(1));
+        assertTrue(dishPopularityService.isValidK(2));
+        assertFalse(dishPopularityService.isValidK(0));
+        assertFalse(dishPopularityService.isValidK(Integer.MAX_VALUE));
+    }
+
+    private DailyDishAggregate createAggregate(Integer dishId, long quantity) {
+        DailyDishAggregate aggregate = mock(DailyDishAggregate.class);
+        when(aggregate.getDay()).thenReturn(today);
+        when(aggregate.getDishId()).thenReturn(dishId);
+        when(aggregate.getQuantity()).thenReturn(quantity);
+        return aggregate;
+    }
+}
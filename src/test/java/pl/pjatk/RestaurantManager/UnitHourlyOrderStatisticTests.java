@@ -0,0 +1,124 @@
+package pl.pjatk.RestaurantManager;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import pl.pjatk.RestaurantManager.dto.HeatmapCellDto;
+import pl.pjatk.RestaurantManager.dto.OrderSnapshot;
+import pl.pjatk.RestaurantManager.event.OrderChangedEvent;
+import pl.pjatk.RestaurantManager.model.Status;
+import pl.pjatk.RestaurantManager.projection.HeatmapCell;
+import pl.pjatk.RestaurantManager.repository.HourlyOrderStatisticRepository;
+import pl.pjatk.RestaurantManager.service.HourlyOrderStatisticService;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class UnitHourlyOrderStatisticTests {
+
+    @Mock
+    private HourlyOrderStatisticRepository hourlyOrderStatisticRepository;
+
+    @InjectMocks
+    private HourlyOrderStatisticService hourlyOrderStatisticService;
+
+    private LocalDate date;
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        date = LocalDate.of(2023, 5, 12);
+    }
+
+    @Test
+    @DisplayName("Test closing an order adds it to the hour it started in")
+    public void testCloseOrder() {
+        // Given
+        OrderSnapshot open = createSnapshot(Status.OPEN);
+        OrderSnapshot closed = createSnapshot(Status.CLOSED);
+
+        // When
+        hourlyOrderStatisticService.onOrderChanged(new OrderChangedEvent(open, closed));
+
+        // Then
+        verify(hourlyOrderStatisticRepository, times(1))
+                .accumulate(LocalDateTime.of(date, LocalTime.of(18, 0)), 1, BigDecimal.valueOf(50.0), 1800L);
+    }
+
+    @Test
+    @DisplayName("Test deleting a closed order retracts it from the hourly rollup")
+    public void testDeleteClosedOrder() {
+        // When
+        hourlyOrderStatisticService.onOrderChanged(new OrderChangedEvent(createSnapshot(Status.CLOSED), null));
+
+        // Then
+        verify(hourlyOrderStatisticRepository, times(1))
+                .accumulate(LocalDateTime.of(date, LocalTime.of(18, 0)), -1, BigDecimal.valueOf(50.0).negate(), -1800L);
+    }
+
+    @Test
+    @DisplayName("Test changes of open orders do not touch the hourly rollup")
+    public void testOpenOrderChange() {
+        // When
+        hourlyOrderStatisticService.onOrderChanged(new OrderChangedEvent(null, createSnapshot(Status.OPEN)));
+
+        // Then
+        verify(hourlyOrderStatisticRepository, never()).accumulate(any(), anyInt(), any(), anyLong());
+    }
+
+    @Test
+    @DisplayName("Test heatmap has a cell for every hour of the week")
+    public void testCalculateHeatmap() {
+        // Given
+        HeatmapCell cell = mock(HeatmapCell.class);
+        when(cell.getWeekday()).thenReturn(4);
+        when(cell.getHour()).thenReturn(18);
+        when(cell.getOrderCount()).thenReturn(4L);
+        when(cell.getRevenue()).thenReturn(BigDecimal.valueOf(200.0));
+        when(cell.getTotalDurationSeconds()).thenReturn(4800L);
+        when(hourlyOrderStatisticRepository.summarizeByWeekdayAndHour(any(), any())).thenReturn(List.of(cell));
+
+        // When
+        List<HeatmapCellDto> result = hourlyOrderStatisticService.calculateHeatmap(date.minusDays(27), date);
+
+        // Then
+        assertEquals(168, result.size());
+        assertEquals(DayOfWeek.MONDAY, result.get(0).getDayOfWeek());
+        assertEquals(0, result.get(0).getHour());
+        assertEquals(0L, result.get(0).getOrderCount());
+        assertEquals(Duration.ZERO, result.get(0).getAverageDuration());
+
+        HeatmapCellDto friday = result.get(4 * 24 + 18);
+        assertEquals(DayOfWeek.FRIDAY, friday.getDayOfWeek());
+        assertEquals(18, friday.getHour());
+        assertEquals(4L, friday.getOrderCount());
+        assertEquals(BigDecimal.valueOf(200.0), friday.getRevenue());
+        assertEquals(Duration.ofMinutes(20), friday.getAverageDuration());
+        verify(hourlyOrderStatisticRepository, times(1))
+                .summarizeByWeekdayAndHour(date.minusDays(27).atStartOfDay(), date.atTime(LocalTime.MAX));
+    }
+
+    private OrderSnapshot createSnapshot(Status status) {
+        return OrderSnapshot.builder()
+                .id(1)
+                .startDateTime(Timestamp.valueOf(LocalDateTime.of(date, LocalTime.of(18, 30))))
+                .status(status)
+                .totalPrice(BigDecimal.valueOf(50.0))
+                .duration(Duration.ofMinutes(30))
+                .items(List.of(new OrderSnapshot.Item(1, 1, 2, true)))
+                .build();
+    }
+}
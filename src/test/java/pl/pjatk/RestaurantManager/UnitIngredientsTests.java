@@ -9,6 +9,7 @@ import pl.pjatk.RestaurantManager.model.Ingredient;
 import pl.pjatk.RestaurantManager.model.Unit;
 import pl.pjatk.RestaurantManager.repository.IngredientRepository;
 import pl.pjatk.RestaurantManager.request.IngredientRequest;
+import pl.pjatk.RestaurantManager.service.DishCompositionCache;
 import pl.pjatk.RestaurantManager.service.IngredientService;
 import pl.pjatk.RestaurantManager.service.UnitService;
 
@@ -29,6 +30,9 @@ public class UnitIngredientsTests {
     @Mock
     private UnitService unitService;
 
+    @Mock
+    private DishCompositionCache dishCompositionCache;
+
     @InjectMocks
     private IngredientService ingredientService;
 
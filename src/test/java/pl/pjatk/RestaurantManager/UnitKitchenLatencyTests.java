@@ -0,0 +1,123 @@
+package pl.pjatk.RestaurantManager;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+import pl.pjatk.RestaurantManager.dto.LatencyStatisticDto;
+import pl.pjatk.RestaurantManager.dto.OrderSnapshot;
+import pl.pjatk.RestaurantManager.event.OrderChangedEvent;
+import pl.pjatk.RestaurantManager.model.LatencyMetric;
+import pl.pjatk.RestaurantManager.model.Status;
+import pl.pjatk.RestaurantManager.projection.OrderLatencyLine;
+import pl.pjatk.RestaurantManager.repository.OrderRepository;
+import pl.pjatk.RestaurantManager.service.KitchenLatencyService;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class UnitKitchenLatencyTests {
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    @InjectMocks
+    private KitchenLatencyService kitchenLatencyService;
+
+    private LocalDateTime start;
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(kitchenLatencyService, "days", 31);
+        start = LocalDate.now().atTime(0, 10);
+    }
+
+    @Test
+    @DisplayName("Test intervals loaded at startup and recorded on transitions are merged")
+    public void testCalculateLatency() {
+        // Given
+        OrderLatencyLine loaded = mock(OrderLatencyLine.class);
+        when(loaded.getStartDateTime()).thenReturn(Timestamp.valueOf(start));
+        when(loaded.getOrderProcessingStart()).thenReturn(Timestamp.valueOf(start.plusMinutes(2)));
+        when(loaded.getReadyDateTime()).thenReturn(Timestamp.valueOf(start.plusMinutes(12)));
+        when(orderRepository.streamLatencies(any(), any())).thenAnswer(invocation -> Stream.of(loaded));
+        kitchenLatencyService.rebuild();
+
+        OrderSnapshot opened = createSnapshot(null, null);
+        OrderSnapshot processing = createSnapshot(start.plusMinutes(4), null);
+        OrderSnapshot ready = createSnapshot(start.plusMinutes(4), start.plusMinutes(24));
+
+        // When
+        kitchenLatencyService.onOrderChanged(new OrderChangedEvent(null, opened));
+        kitchenLatencyService.onOrderChanged(new OrderChangedEvent(opened, processing));
+        kitchenLatencyService.onOrderChanged(new OrderChangedEvent(processing, ready));
+        kitchenLatencyService.onOrderChanged(new OrderChangedEvent(ready, ready));
+        Map<LatencyMetric, LatencyStatisticDto> result = kitchenLatencyService.calculateLatency(start.toLocalDate(), start.toLocalDate());
+
+        // Then
+        LatencyStatisticDto timeToReady = result.get(LatencyMetric.TIME_TO_READY);
+        assertEquals(2, timeToReady.getCount());
+        assertEquals(Duration.ofMinutes(24), timeToReady.getMax());
+        assertEquals(2, result.get(LatencyMetric.TIME_TO_PROCESSING).getCount());
+        assertEquals(Duration.ofMinutes(4), result.get(LatencyMetric.TIME_TO_PROCESSING).getP99());
+        assertEquals(2, result.get(LatencyMetric.PREPARATION).getCount());
+        verify(orderRepository, times(1)).streamLatencies(any(), any());
+    }
+
+    @Test
+    @DisplayName("Test deleted order removes its intervals")
+    public void testDeletedOrderRemovesIntervals() {
+        // Given
+        when(orderRepository.streamLatencies(any(), any())).thenAnswer(invocation -> Stream.empty());
+        kitchenLatencyService.rebuild();
+        OrderSnapshot ready = createSnapshot(start.plusMinutes(4), start.plusMinutes(24));
+        kitchenLatencyService.onOrderChanged(new OrderChangedEvent(null, ready));
+
+        // When
+        kitchenLatencyService.onOrderChanged(new OrderChangedEvent(ready, null));
+        Map<LatencyMetric, LatencyStatisticDto> result = kitchenLatencyService.calculateLatency(start.toLocalDate(), start.toLocalDate());
+
+        // Then
+        assertEquals(0, result.get(LatencyMetric.TIME_TO_READY).getCount());
+        assertEquals(Duration.ZERO, result.get(LatencyMetric.TIME_TO_READY).getP50());
+    }
+
+    @Test
+    @DisplayName("Test ranges older than the window are read from the database")
+    public void testCalculateLatencyOutsideWindow() {
+        // Given
+        when(orderRepository.streamLatencies(any(), any())).thenAnswer(invocation -> Stream.empty());
+        kitchenLatencyService.rebuild();
+        LocalDate old = LocalDate.now().minusDays(90);
+
+        // When
+        kitchenLatencyService.calculateLatency(old, old.plusDays(1));
+
+        // Then
+        verify(orderRepository, times(2)).streamLatencies(any(), any());
+    }
+
+    private OrderSnapshot createSnapshot(LocalDateTime processingStart, LocalDateTime ready) {
+        return OrderSnapshot.builder()
+                .id(1)
+                .startDateTime(Timestamp.valueOf(start))
+                .orderProcessingStart(processingStart != null ? Timestamp.valueOf(processingStart) : null)
+                .readyDateTime(ready != null ? Timestamp.valueOf(ready) : null)
+                .status(Status.OPEN)
+                .items(List.of())
+                .build();
+    }
+}
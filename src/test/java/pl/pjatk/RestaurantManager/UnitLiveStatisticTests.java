@@ -0,0 +1,220 @@
+package pl.pjatk.RestaurantManager;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+import pl.pjatk.RestaurantManager.dto.LiveStatisticDto;
+import pl.pjatk.RestaurantManager.dto.OrderSnapshot;
+import pl.pjatk.RestaurantManager.event.OrderChangedEvent;
+import pl.pjatk.RestaurantManager.model.Status;
+import pl.pjatk.RestaurantManager.model.Table;
+import pl.pjatk.RestaurantManager.projection.OrderStateLine;
+import pl.pjatk.RestaurantManager.projection.TableSeats;
+import pl.pjatk.RestaurantManager.repository.OrderRepository;
+import pl.pjatk.RestaurantManager.repository.TableRepository;
+import pl.pjatk.RestaurantManager.service.LiveStatisticService;
+import pl.pjatk.RestaurantManager.service.OpenOrderRegistry;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class UnitLiveStatisticTests {
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    @Mock
+    private TableRepository tableRepository;
+
+    @Mock
+    private OpenOrderRegistry openOrderRegistry;
+
+    @InjectMocks
+    private LiveStatisticService liveStatisticService;
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+
+        List<OrderStateLine> lines = List.of(
+                createLine(1, 5, Status.CLOSED, "30.00", 1L),
+                createLine(2, 6, Status.CLOSED, "40.00", 1L),
+                createLine(3, null, Status.OPEN, null, 0L));
+        when(orderRepository.streamOrderStates(any(), any())).thenReturn(lines.stream());
+        when(openOrderRegistry.size()).thenReturn(1);
+        List<TableSeats> seats = List.of(createSeats(5, 4), createSeats(6, 6));
+        when(tableRepository.findAllSeats()).thenReturn(seats);
+        when(tableRepository.findById(7)).thenReturn(Optional.of(Table.builder().id(7).seatsNumber(2).build()));
+
+        liveStatisticService.reconcile();
+    }
+
+    @Test
+    @DisplayName("Test live counters start from the database")
+    public void testReconcile() {
+        // When
+        LiveStatisticDto result = liveStatisticService.getLiveStatistics();
+
+        // Then
+        assertEquals(LocalDate.now(), result.getDate());
+        assertEquals(3L, result.getOrderCount());
+        assertEquals(1L, result.getOpenOrders());
+        assertEquals(2L, result.getClosedOrders());
+        assertEquals(new BigDecimal("70.00"), result.getRevenue());
+        assertEquals(10L, result.getCovers());
+    }
+
+    @Test
+    @DisplayName("Test opening and closing an order moves it between the counters")
+    public void testOpenAndClose() {
+        // Given
+        OrderSnapshot opened = createSnapshot(4, LocalDateTime.now(), Status.OPEN, null);
+        OrderSnapshot closed = createSnapshot(4, LocalDateTime.now(), Status.CLOSED, "25.50");
+
+        // When
+        liveStatisticService.onOrderChanged(new OrderChangedEvent(null, opened));
+        LiveStatisticDto afterOpen = liveStatisticService.getLiveStatistics();
+        liveStatisticService.onOrderChanged(new OrderChangedEvent(opened, closed));
+        LiveStatisticDto afterClose = liveStatisticService.getLiveStatistics();
+
+        // Then
+        assertEquals(4L, afterOpen.getOrderCount());
+        assertEquals(14L, afterOpen.getCovers());
+        assertEquals(4L, afterClose.getOrderCount());
+        assertEquals(3L, afterClose.getClosedOrders());
+        assertEquals(new BigDecimal("95.50"), afterClose.getRevenue());
+        assertEquals(14L, afterClose.getCovers());
+        verify(tableRepository, never()).findById(any());
+    }
+
+    @Test
+    @DisplayName("Test a change updates the counters while a reconcile holds the lock")
+    public void testChangeWithoutLock() throws Exception {
+        // Given
+        Object lock = ReflectionTestUtils.getField(liveStatisticService, "lock");
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread holder = new Thread(() -> {
+            synchronized (lock) {
+                locked.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+        holder.start();
+        assertTrue(locked.await(1, TimeUnit.SECONDS));
+        OrderSnapshot opened = OrderSnapshot.builder()
+                .id(4)
+                .tableId(7)
+                .startDateTime(Timestamp.valueOf(LocalDateTime.now()))
+                .status(Status.OPEN)
+                .items(List.of())
+                .build();
+
+        try {
+            // When
+            assertTimeoutPreemptively(Duration.ofSeconds(1),
+                    () -> liveStatisticService.onOrderChanged(new OrderChangedEvent(null, opened)));
+        } finally {
+            release.countDown();
+            holder.join();
+        }
+
+        // Then
+        LiveStatisticDto result = liveStatisticService.getLiveStatistics();
+        assertEquals(4L, result.getOrderCount());
+        assertEquals(12L, result.getCovers());
+    }
+
+    @Test
+    @DisplayName("Test orders started on another day are not counted")
+    public void testOrderFromAnotherDay() {
+        // Given
+        OrderSnapshot yesterday = createSnapshot(4, LocalDateTime.now().minusDays(1), Status.OPEN, null);
+        OrderSnapshot closed = createSnapshot(4, LocalDateTime.now().minusDays(1), Status.CLOSED, "40.00");
+
+        // When
+        liveStatisticService.onOrderChanged(new OrderChangedEvent(yesterday, closed));
+        LiveStatisticDto result = liveStatisticService.getLiveStatistics();
+
+        // Then
+        assertEquals(3L, result.getOrderCount());
+        assertEquals(2L, result.getClosedOrders());
+        assertEquals(new BigDecimal("70.00"), result.getRevenue());
+    }
+
+    @Test
+    @DisplayName("Test reconcile keeps changes made while reading the database")
+    public void testChangeDuringReconcile() {
+        // Given
+        OrderStateLine staleLine = createLine(3, null, Status.OPEN, null, 0L);
+        when(orderRepository.streamOrderStates(any(), any())).thenAnswer(invocation -> {
+            liveStatisticService.onOrderChanged(new OrderChangedEvent(null,
+                    createSnapshot(4, LocalDateTime.now(), Status.OPEN, null)));
+            liveStatisticService.onOrderChanged(new OrderChangedEvent(
+                    OrderSnapshot.builder().id(3).startDateTime(Timestamp.valueOf(LocalDateTime.now()))
+                            .status(Status.OPEN).version(0L).items(List.of()).build(),
+                    OrderSnapshot.builder().id(3).startDateTime(Timestamp.valueOf(LocalDateTime.now()))
+                            .status(Status.CLOSED).totalPrice(new BigDecimal("12.00")).version(1L).items(List.of()).build()));
+            return Stream.of(staleLine);
+        });
+
+        // When
+        liveStatisticService.reconcile();
+        LiveStatisticDto result = liveStatisticService.getLiveStatistics();
+
+        // Then
+        assertEquals(2L, result.getOrderCount());
+        assertEquals(1L, result.getClosedOrders());
+        assertEquals(new BigDecimal("12.00"), result.getRevenue());
+        assertEquals(4L, result.getCovers());
+    }
+
+    private OrderStateLine createLine(Integer orderId, Integer tableId, Status status, String totalPrice, Long version) {
+        OrderStateLine line = mock(OrderStateLine.class);
+        when(line.getOrderId()).thenReturn(orderId);
+        when(line.getStartDateTime()).thenReturn(Timestamp.valueOf(LocalDateTime.now()));
+        when(line.getTableId()).thenReturn(tableId);
+        when(line.getStatus()).thenReturn(status);
+        when(line.getTotalPrice()).thenReturn(totalPrice != null ? new BigDecimal(totalPrice) : null);
+        when(line.getVersion()).thenReturn(version);
+        return line;
+    }
+
+    private TableSeats createSeats(Integer tableId, Integer seatsNumber) {
+        TableSeats seats = mock(TableSeats.class);
+        when(seats.getId()).thenReturn(tableId);
+        when(seats.getSeatsNumber()).thenReturn(seatsNumber);
+        return seats;
+    }
+
+    private OrderSnapshot createSnapshot(Integer id, LocalDateTime startDateTime, Status status, String totalPrice) {
+        return OrderSnapshot.builder()
+                .id(id)
+                .tableId(5)
+                .startDateTime(Timestamp.valueOf(startDateTime))
+                .status(status)
+                .totalPrice(totalPrice != null ? new BigDecimal(totalPrice) : null)
+                .items(List.of())
+                .build();
+    }
+}
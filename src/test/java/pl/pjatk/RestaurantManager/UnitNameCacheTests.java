@@ -0,0 +1,77 @@
+package pl.pjatk.RestaurantManager;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import pl.pjatk.RestaurantManager.projection.NameLabel;
+import pl.pjatk.RestaurantManager.repository.DishRepository;
+import pl.pjatk.RestaurantManager.repository.TableRepository;
+import pl.pjatk.RestaurantManager.repository.UserRepository;
+import pl.pjatk.RestaurantManager.service.NameCache;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class UnitNameCacheTests {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private TableRepository tableRepository;
+
+    @Mock
+    private DishRepository dishRepository;
+
+    @InjectMocks
+    private NameCache nameCache;
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        NameLabel soup = label(1, "Soup");
+        when(dishRepository.findNamesByIds(any())).thenReturn(List.of(soup));
+    }
+
+    @Test
+    @DisplayName("Should load missing names once and serve them from memory afterwards")
+    public void testGetNamesCached() {
+        // Given / When
+        Map<Integer, String> first = nameCache.getDishNames(List.of(1, 2));
+        Map<Integer, String> second = nameCache.getDishNames(List.of(1));
+
+        // Then
+        assertEquals(Map.of(1, "Soup"), first);
+        assertEquals(Map.of(1, "Soup"), second);
+        verify(dishRepository, times(1)).findNamesByIds(any());
+        verifyNoInteractions(userRepository, tableRepository);
+    }
+
+    @Test
+    @DisplayName("Should reload a name after it was invalidated")
+    public void testInvalidate() {
+        // Given
+        nameCache.getDishNames(List.of(1));
+
+        // When
+        nameCache.invalidateDish(1);
+        nameCache.getDishNames(List.of(1));
+
+        // Then
+        verify(dishRepository, times(2)).findNamesByIds(List.of(1));
+    }
+
+    private static NameLabel label(Integer id, String name) {
+        NameLabel label = mock(NameLabel.class);
+        when(label.getId()).thenReturn(id);
+        when(label.getName()).thenReturn(name);
+        return label;
+    }
+}
@@ -0,0 +1,141 @@
+package pl.pjatk.RestaurantManager;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import pl.pjatk.RestaurantManager.dto.OrderSnapshot;
+import pl.pjatk.RestaurantManager.event.OrderChangedEvent;
+import pl.pjatk.RestaurantManager.model.Status;
+import pl.pjatk.RestaurantManager.projection.OpenOrderLine;
+import pl.pjatk.RestaurantManager.repository.OrderRepository;
+import pl.pjatk.RestaurantManager.service.OpenOrderRegistry;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class UnitOpenOrderRegistryTests {
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    @InjectMocks
+    private OpenOrderRegistry openOrderRegistry;
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+
+        List<OpenOrderLine> lines = List.of(
+                createLine(1, 5, 0L, 10, 101, 2, true),
+                createLine(1, 5, 0L, 11, 102, 1, false),
+                createLine(2, 6, 3L, null, null, null, null));
+        when(orderRepository.streamOpenOrders(Status.CLOSED)).thenReturn(lines.stream());
+
+        openOrderRegistry.reconcile();
+    }
+
+    @Test
+    @DisplayName("Test reconcile groups order lines into snapshots")
+    public void testReconcile() {
+        // When
+        List<OrderSnapshot> result = openOrderRegistry.findAll();
+
+        // Then
+        assertEquals(2, result.size());
+        assertEquals(1, result.get(0).getId());
+        assertEquals(5, result.get(0).getTableId());
+        assertEquals(2, result.get(0).getItems().size());
+        assertEquals(3, result.get(0).getItemCount());
+        assertTrue(result.get(0).getItems().get(0).isReady());
+        assertEquals(2, result.get(1).getId());
+        assertTrue(result.get(1).getItems().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Test order changes are written through")
+    public void testWriteThrough() {
+        // When
+        openOrderRegistry.onOrderChanged(new OrderChangedEvent(null, createSnapshot(3, Status.OPEN, 0L)));
+        openOrderRegistry.onOrderChanged(new OrderChangedEvent(createSnapshot(1, Status.OPEN, 0L),
+                createSnapshot(1, Status.READY, 1L)));
+        openOrderRegistry.onOrderChanged(new OrderChangedEvent(createSnapshot(2, Status.READY, 3L),
+                createSnapshot(2, Status.CLOSED, 4L)));
+
+        // Then
+        List<OrderSnapshot> result = openOrderRegistry.findAll();
+        assertEquals(List.of(1, 3), result.stream().map(OrderSnapshot::getId).toList());
+        assertEquals(Status.READY, result.get(0).getStatus());
+        verify(orderRepository, times(1)).streamOpenOrders(Status.CLOSED);
+    }
+
+    @Test
+    @DisplayName("Test a deleted order is removed")
+    public void testDelete() {
+        // When
+        openOrderRegistry.onOrderChanged(new OrderChangedEvent(createSnapshot(2, Status.OPEN, 3L), null));
+
+        // Then
+        assertEquals(1, openOrderRegistry.size());
+    }
+
+    @Test
+    @DisplayName("Test a snapshot older than the cached one is ignored")
+    public void testStaleChange() {
+        // When
+        openOrderRegistry.onOrderChanged(new OrderChangedEvent(null, createSnapshot(2, Status.IN_PROGRESS, 2L)));
+
+        // Then
+        assertEquals(Status.OPEN, openOrderRegistry.findAll().get(1).getStatus());
+    }
+
+    @Test
+    @DisplayName("Test reconcile keeps changes made while reading the database")
+    public void testChangeDuringReconcile() {
+        // Given
+        OpenOrderLine staleLine = createLine(1, 5, 0L, null, null, null, null);
+        when(orderRepository.streamOpenOrders(Status.CLOSED)).thenAnswer(invocation -> {
+            openOrderRegistry.onOrderChanged(new OrderChangedEvent(null, createSnapshot(4, Status.OPEN, 0L)));
+            openOrderRegistry.onOrderChanged(new OrderChangedEvent(createSnapshot(1, Status.OPEN, 0L),
+                    createSnapshot(1, Status.CLOSED, 1L)));
+            return Stream.of(staleLine);
+        });
+
+        // When
+        openOrderRegistry.reconcile();
+
+        // Then
+        assertEquals(List.of(4), openOrderRegistry.findAll().stream().map(OrderSnapshot::getId).toList());
+    }
+
+    private static OpenOrderLine createLine(Integer orderId, Integer tableId, Long version, Integer itemId,
+                                            Integer dishId, Integer quantity, Boolean ready) {
+        OpenOrderLine line = mock(OpenOrderLine.class);
+        when(line.getOrderId()).thenReturn(orderId);
+        when(line.getTableId()).thenReturn(tableId);
+        when(line.getStatus()).thenReturn(Status.OPEN);
+        when(line.getIsReadyToServe()).thenReturn(false);
+        when(line.getVersion()).thenReturn(version);
+        when(line.getItemId()).thenReturn(itemId);
+        when(line.getDishId()).thenReturn(dishId);
+        when(line.getQuantity()).thenReturn(quantity);
+        when(line.getReady()).thenReturn(ready);
+        return line;
+    }
+
+    private static OrderSnapshot createSnapshot(Integer id, Status status, Long version) {
+        return OrderSnapshot.builder()
+                .id(id)
+                .tableId(5)
+                .status(status)
+                .isReadyToServe(false)
+                .version(version)
+                .items(List.of())
+                .build();
+    }
+}
@@ -0,0 +1,142 @@
+package pl.pjatk.RestaurantManager;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import pl.pjatk.RestaurantManager.model.ExportFormat;
+import pl.pjatk.RestaurantManager.model.Status;
+import pl.pjatk.RestaurantManager.projection.OrderExportLine;
+import pl.pjatk.RestaurantManager.repository.OrderRepository;
+import pl.pjatk.RestaurantManager.service.OrderExportService;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class UnitOrderExportTests {
+
+    private static final LocalDate DATE = LocalDate.of(2023, 5, 12);
+
+    private OrderRepository orderRepository;
+    private OrderExportService orderExportService;
+    private ObjectMapper objectMapper;
+
+    @BeforeEach
+    public void setUp() {
+        orderRepository = mock(OrderRepository.class);
+        objectMapper = new ObjectMapper().findAndRegisterModules();
+        orderExportService = new OrderExportService(orderRepository, mock(PlatformTransactionManager.class), objectMapper);
+
+        when(orderRepository.streamOrderExport(any(), any(), eq(Status.CLOSED))).thenAnswer(invocation -> Stream.of(
+                createLine(1, 1, "Soup", 2),
+                createLine(1, 2, "Cake, \"chocolate\"", 1),
+                createLine(2, null, null, null)));
+    }
+
+    @Test
+    @DisplayName("Test NDJSON export writes one line per order with its items")
+    public void testExportNdjson() throws Exception {
+        // Given
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        // When
+        int orders = orderExportService.export(DATE, DATE, Status.CLOSED, ExportFormat.NDJSON, output);
+
+        // Then
+        String[] lines = output.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, orders);
+        assertEquals(2, lines.length);
+
+        JsonNode first = objectMapper.readTree(lines[0]);
+        assertEquals(1, first.get("id").asInt());
+        assertEquals("Anna Nowak", first.get("userName").asText());
+        assertEquals(2, first.get("orderItems").size());
+        assertEquals("Soup", first.get("orderItems").get(0).get("dishName").asText());
+
+        assertTrue(lines[1].startsWith("{"));
+        JsonNode second = objectMapper.readTree(lines[1]);
+        assertEquals(2, second.get("id").asInt());
+        assertEquals(0, second.get("orderItems").size());
+    }
+
+    @Test
+    @DisplayName("Test NDJSON export flushes the output once")
+    public void testExportNdjsonFlush() {
+        // Given
+        AtomicInteger flushes = new AtomicInteger();
+        ByteArrayOutputStream output = new ByteArrayOutputStream() {
+            @Override
+            public void flush() {
+                flushes.incrementAndGet();
+            }
+        };
+
+        // When
+        orderExportService.export(DATE, DATE, Status.CLOSED, ExportFormat.NDJSON, output);
+
+        // Then
+        assertEquals(1, flushes.get());
+        assertEquals(2, output.toString(StandardCharsets.UTF_8).split("\n").length);
+    }
+
+    @Test
+    @DisplayName("Test CSV export writes one row per item and quotes text with separators")
+    public void testExportCsv() {
+        // Given
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        // When
+        int orders = orderExportService.export(DATE, DATE, Status.CLOSED, ExportFormat.CSV, output);
+
+        // Then
+        String[] lines = output.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, orders);
+        assertEquals(4, lines.length);
+        assertTrue(lines[0].startsWith("order_id,"));
+        assertEquals("1,2023-05-12T18:30,,CLOSED,true,35.50,1200,7,Anna Nowak,3,T3,1,Soup,2,true", lines[1]);
+        assertTrue(lines[2].endsWith(",2,\"Cake, \"\"chocolate\"\"\",1,true"));
+        assertTrue(lines[3].endsWith(",T3,,,,"));
+    }
+
+    private OrderExportLine createLine(Integer orderId, Integer dishId, String dishName, Integer quantity) {
+        return new ExportLine(orderId, Timestamp.valueOf(DATE.atTime(18, 30)),
+                null, Status.CLOSED, true, new BigDecimal("35.50"), Duration.ofMinutes(20), 7, "Anna", "Nowak",
+                3, "T3", dishId, dishName, quantity, dishId != null ? true : null);
+    }
+
+    private record ExportLine(Integer orderId, Timestamp startDateTime, Timestamp orderProcessingStart,
+                              Status status, Boolean isReadyToServe, BigDecimal totalPrice, Duration duration,
+                              Integer userId, String firstname, String lastname, Integer tableId, String tableName,
+                              Integer dishId, String dishName, Integer quantity, Boolean ready) implements OrderExportLine {
+        public Integer getOrderId() { return orderId; }
+        public Timestamp getStartDateTime() { return startDateTime; }
+        public Timestamp getOrderProcessingStart() { return orderProcessingStart; }
+        public Status getStatus() { return status; }
+        public Boolean getIsReadyToServe() { return isReadyToServe; }
+        public BigDecimal getTotalPrice() { return totalPrice; }
+        public Duration getDuration() { return duration; }
+        public Integer getUserId() { return userId; }
+        public String getFirstname() { return firstname; }
+        public String getLastname() { return lastname; }
+        public Integer getTableId() { return tableId; }
+        public String getTableName() { return tableName; }
+        public Integer getDishId() { return dishId; }
+        public String getDishName() { return dishName; }
+        public Integer getQuantity() { return quantity; }
+        public Boolean getReady() { return ready; }
+    }
+}
@@ -0,0 +1,131 @@
+package pl.pjatk.RestaurantManager;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import pl.pjatk.RestaurantManager.dto.OrderSnapshot;
+import pl.pjatk.RestaurantManager.event.OrderChangedEvent;
+import pl.pjatk.RestaurantManager.model.Status;
+import pl.pjatk.RestaurantManager.projection.OrderFactLine;
+import pl.pjatk.RestaurantManager.repository.OrderRepository;
+import pl.pjatk.RestaurantManager.service.OrderFactService;
+import pl.pjatk.RestaurantManager.service.StatisticDayCache;
+import pl.pjatk.RestaurantManager.statistic.OrderFactStore;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class UnitOrderFactServiceTests {
+
+    private static final LocalDateTime START = LocalDateTime.of(2023, 5, 12, 18, 0);
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private StatisticDayCache statisticDayCache;
+
+    @InjectMocks
+    private OrderFactService orderFactService;
+
+    @TempDir
+    private Path directory;
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(orderFactService, "enabled", true);
+        ReflectionTestUtils.setField(orderFactService, "directory", directory.toString());
+        orderFactService.open();
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        orderFactService.close();
+    }
+
+    @Test
+    @DisplayName("Test rebuild swaps in a new generation and keeps changes committed meanwhile")
+    public void testRebuildWithChanges() throws IOException {
+        // Given
+        OrderFactStore previousStore = orderFactService.getStore();
+        OrderFactLine closedBefore = createLine(1, 1L);
+        when(orderRepository.streamOrderFacts(Status.CLOSED)).thenAnswer(invocation -> {
+            orderFactService.onOrderChanged(new OrderChangedEvent(createSnapshot(1, Status.READY, 0L),
+                    createSnapshot(1, Status.CLOSED, 0L)));
+            orderFactService.onOrderChanged(new OrderChangedEvent(createSnapshot(2, Status.READY, 0L),
+                    createSnapshot(2, Status.CLOSED, 0L)));
+            return Stream.of(closedBefore);
+        });
+
+        // When
+        int orders = orderFactService.rebuild();
+
+        // Then
+        OrderFactStore store = orderFactService.getStore();
+        assertEquals(1, orders);
+        assertNotSame(previousStore, store);
+        assertEquals(2, sumSigns(store));
+        assertEquals("1", Files.readString(directory.resolve("current")));
+        assertFalse(Files.exists(directory.resolve("0")));
+        verify(statisticDayCache).invalidateAll();
+    }
+
+    @Test
+    @DisplayName("Test a change after the rebuild goes to the new generation")
+    public void testChangeAfterRebuild() {
+        // Given
+        orderFactService.rebuild();
+
+        // When
+        orderFactService.onOrderChanged(new OrderChangedEvent(null, createSnapshot(3, Status.CLOSED, 0L)));
+
+        // Then
+        assertEquals(1, sumSigns(orderFactService.getStore()));
+    }
+
+    private static long sumSigns(OrderFactStore store) {
+        long[] sum = new long[1];
+        store.scanOrders(Long.MIN_VALUE, Long.MAX_VALUE, (epochSecond, waiterId, totalMinor, sign) -> sum[0] += sign);
+        return sum[0];
+    }
+
+    private static OrderFactLine createLine(Integer orderId, Long version) {
+        OrderFactLine line = mock(OrderFactLine.class);
+        when(line.getOrderId()).thenReturn(orderId);
+        when(line.getStartDateTime()).thenReturn(Timestamp.valueOf(START));
+        when(line.getTotalPrice()).thenReturn(new BigDecimal("10.00"));
+        when(line.getVersion()).thenReturn(version);
+        return line;
+    }
+
+    private static OrderSnapshot createSnapshot(Integer id, Status status, Long version) {
+        return OrderSnapshot.builder()
+                .id(id)
+                .startDateTime(Timestamp.valueOf(START))
+                .status(status)
+                .totalPrice(new BigDecimal("10.00"))
+                .version(version)
+                .items(List.of())
+                .build();
+    }
+}
@@ -0,0 +1,111 @@
+package pl.pjatk.RestaurantManager;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import pl.pjatk.RestaurantManager.model.StatisticMetric;
+import pl.pjatk.RestaurantManager.statistic.DailySeries;
+import pl.pjatk.RestaurantManager.statistic.IntLongHashMap;
+import pl.pjatk.RestaurantManager.statistic.OrderFactStore;
+import pl.pjatk.RestaurantManager.statistic.SummaryAccumulator;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class UnitOrderFactStoreTests {
+
+    private static final LocalDate DATE = LocalDate.of(2023, 5, 12);
+
+    @TempDir
+    private Path directory;
+
+    @Test
+    @DisplayName("Test retraction rows cancel the previous state of an order")
+    public void testScanWithRetraction() throws IOException {
+        try (OrderFactStore store = OrderFactStore.open(directory)) {
+            // Given
+            long second = OrderFactStore.toEpochSecond(DATE.atTime(18, 30));
+            store.append(1, second, 3, 1, 5000, 600, new int[]{1, 2}, new int[]{2, 1});
+            store.append(-1, second, 3, 1, 5000, 600, new int[]{1, 2}, new int[]{2, 1});
+            store.append(1, second, 3, 2, 4000, 600, new int[]{1}, new int[]{4});
+
+            SummaryAccumulator summary = new SummaryAccumulator(DATE, DATE, EnumSet.allOf(StatisticMetric.class));
+
+            // When
+            long from = OrderFactStore.toEpochSecond(DATE.atStartOfDay());
+            long to = OrderFactStore.toEpochSecond(DATE.plusDays(1).atStartOfDay());
+            store.scanOrders(from, to, (epochSecond, waiterId, totalMinor, sign) -> summary.addOrder(
+                    OrderFactStore.toEpochDay(epochSecond), OrderFactStore.toHour(epochSecond), waiterId, totalMinor, sign));
+            store.scanItems(from, to, (epochSecond, dishId, quantity) -> summary.addDish(dishId, quantity));
+
+            // Then
+            assertEquals(1, summary.getDays().getCount(DATE));
+            assertEquals(new BigDecimal("40.00"), DailySeries.fromMinorUnits(summary.getDays().getAmount(DATE)));
+            assertEquals(0, summary.getWaiterCounts().get(1));
+            assertEquals(1, summary.getWaiterCounts().get(2));
+            assertEquals(4, summary.getDishQuantities().get(1));
+            assertEquals(0, summary.getDishQuantities().get(2));
+        }
+    }
+
+    @Test
+    @DisplayName("Test only orders inside the requested range are scanned")
+    public void testScanRange() throws IOException {
+        try (OrderFactStore store = OrderFactStore.open(directory)) {
+            // Given
+            store.append(1, OrderFactStore.toEpochSecond(DATE.atTime(23, 59, 59)), 0, 1, 100, 0, new int[0], new int[0]);
+            store.append(1, OrderFactStore.toEpochSecond(DATE.plusDays(1).atStartOfDay()), 0, 1, 100, 0, new int[0], new int[0]);
+            List<Long> seconds = new ArrayList<>();
+
+            // When
+            store.scanOrders(OrderFactStore.toEpochSecond(DATE.atStartOfDay()),
+                    OrderFactStore.toEpochSecond(DATE.plusDays(1).atStartOfDay()),
+                    (epochSecond, waiterId, totalMinor, sign) -> seconds.add(epochSecond));
+
+            // Then
+            assertEquals(List.of(OrderFactStore.toEpochSecond(DATE.atTime(23, 59, 59))), seconds);
+            assertEquals(DATE.toEpochDay(), OrderFactStore.toEpochDay(seconds.get(0)));
+            assertEquals(23, OrderFactStore.toHour(seconds.get(0)));
+        }
+    }
+
+    @Test
+    @DisplayName("Test facts survive reopening and columns grow past the initial mapping")
+    public void testReopen() throws IOException {
+        // Given
+        LocalDateTime startDateTime = DATE.atTime(12, 0);
+        try (OrderFactStore store = OrderFactStore.open(directory)) {
+            for (int i = 0; i < 5000; i++) {
+                store.append(1, OrderFactStore.toEpochSecond(startDateTime), 1, 1, 100, 60, new int[]{1}, new int[]{1});
+            }
+            store.force();
+        }
+
+        // When
+        try (OrderFactStore store = OrderFactStore.open(directory)) {
+            IntLongHashMap dishes = new IntLongHashMap();
+            store.scanItems(Long.MIN_VALUE, Long.MAX_VALUE, (epochSecond, dishId, quantity) -> dishes.add(dishId, quantity));
+
+            // Then
+            assertEquals(5000, store.getOrderRows());
+            assertEquals(5000, store.getItemRows());
+            assertEquals(5000, dishes.get(1));
+        }
+    }
+
+    @Test
+    @DisplayName("Test a directory can be used by one store at a time")
+    public void testOpenLocked() throws IOException {
+        try (OrderFactStore ignored = OrderFactStore.open(directory)) {
+            assertThrows(IOException.class, () -> OrderFactStore.open(directory));
+        }
+    }
+}
@@ -1,21 +1,36 @@
 package pl.pjatk.RestaurantManager;
 
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationEventPublisher;
+import pl.pjatk.RestaurantManager.exceptions.PreconditionFailedException;
 import pl.pjatk.RestaurantManager.exceptions.ResourceNotFoundException;
+import pl.pjatk.RestaurantManager.dto.ItemBumpDto;
+import pl.pjatk.RestaurantManager.dto.OpenOrderDto;
+import pl.pjatk.RestaurantManager.dto.OrderSnapshot;
+import pl.pjatk.RestaurantManager.dto.ServeStatusDto;
+import pl.pjatk.RestaurantManager.event.OrderChangedEvent;
 import pl.pjatk.RestaurantManager.model.*;
+import pl.pjatk.RestaurantManager.projection.OrderItemState;
 import pl.pjatk.RestaurantManager.repository.OrderItemRepository;
 import pl.pjatk.RestaurantManager.repository.OrderRepository;
 import pl.pjatk.RestaurantManager.repository.UserRepository;
+import pl.pjatk.RestaurantManager.request.ItemBumpRequest;
 import pl.pjatk.RestaurantManager.request.OrderCreateRequest;
+import pl.pjatk.RestaurantManager.request.OrderItemChangeRequest;
+import pl.pjatk.RestaurantManager.request.OrderItemPatchRequest;
 import pl.pjatk.RestaurantManager.request.OrderItemRequest;
 import pl.pjatk.RestaurantManager.request.OrderUpdateRequest;
 import pl.pjatk.RestaurantManager.service.DishService;
+import pl.pjatk.RestaurantManager.service.NameCache;
+import pl.pjatk.RestaurantManager.service.OpenOrderRegistry;
 import pl.pjatk.RestaurantManager.service.OrderService;
 import pl.pjatk.RestaurantManager.service.TableService;
 
@@ -27,6 +42,7 @@ import java.util.*;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.Mockito.*;
 
 public class UnitOrderTests {
@@ -46,6 +62,18 @@ public class UnitOrderTests {
     @Mock
     private OrderItemRepository orderItemRepository;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private OpenOrderRegistry openOrderRegistry;
+
+    @Mock
+    private NameCache nameCache;
+
+    @Mock
+    private EntityManager entityManager;
+
     @InjectMocks
     private OrderService orderService;
 
@@ -210,7 +238,7 @@ public class UnitOrderTests {
     public void testSetReadyToServe() {
         // Given
         when(orderRepository.findById(1)).thenReturn(Optional.of(order));
-        when(orderRepository.save(any(Order.class))).thenReturn(order);
+        when(orderRepository.saveAndFlush(any(Order.class))).thenReturn(order);
 
         // When
         Optional<Order> result = orderService.setReadyToServe(1, true);
@@ -219,6 +247,7 @@ public class UnitOrderTests {
         assertTrue(result.isPresent());
         assertEquals(order, result.get());
         assertTrue(result.get().getIsReadyToServe());
+        assertNotNull(result.get().getReadyDateTime());
     }
 
     @Test
@@ -238,20 +267,44 @@ public class UnitOrderTests {
     @DisplayName("Test getOpenOrderServeStatus method")
     public void testGetOpenOrderServeStatus() {
         // Given
-        List<Order> orders = Collections.singletonList(order);
-        when(orderRepository.getOrderByStatusNot(Status.CLOSED)).thenReturn(orders);
+        when(openOrderRegistry.findAll()).thenReturn(List.of(OrderSnapshot.of(order)));
 
         // When
-        Optional<List<Map<String, Object>>> result = orderService.getOpenOrderServeStatus();
+        List<ServeStatusDto> result = orderService.getOpenOrderServeStatus();
 
         // Then
-        assertTrue(result.isPresent());
-        assertEquals(1, result.get().size());
-        Map<String, Object> orderMap = result.get().get(0);
-        assertEquals(1, orderMap.get("id"));
-        assertEquals(Status.OPEN, orderMap.get("status"));
-        assertFalse((boolean) orderMap.get("isReadyToServe"));
-        assertEquals(1, orderMap.get("tableId"));
+        assertEquals(1, result.size());
+        ServeStatusDto serveStatus = result.get(0);
+        assertEquals(1, serveStatus.getId());
+        assertEquals(Status.OPEN, serveStatus.getStatus());
+        assertFalse(serveStatus.getIsReadyToServe());
+        assertEquals(1, serveStatus.getTableId());
+        verify(orderRepository, never()).getOrderByStatusNot(any());
+    }
+
+    @Test
+    @DisplayName("Test findOpenOrders method")
+    public void testFindOpenOrders() {
+        // Given
+        order.setOrderItems(List.of(OrderItem.builder().id(10).order(order).dish(dish).quantity(2).build()));
+        when(openOrderRegistry.findAll()).thenReturn(List.of(OrderSnapshot.of(order)));
+        when(nameCache.getUserNames(Set.of(1))).thenReturn(Map.of(1, "John Doe"));
+        when(nameCache.getTableNames(Set.of(1))).thenReturn(Map.of(1, "Table 1"));
+        when(nameCache.getDishNames(Set.of(1))).thenReturn(Map.of(1, "Dish 1"));
+
+        // When
+        List<OpenOrderDto> result = orderService.findOpenOrders();
+
+        // Then
+        assertEquals(1, result.size());
+        OpenOrderDto openOrder = result.get(0);
+        assertEquals(1, openOrder.getId());
+        assertEquals(new OpenOrderDto.Label(1, "John Doe"), openOrder.getUser());
+        assertEquals(new OpenOrderDto.Label(1, "Table 1"), openOrder.getTable());
+        assertEquals(List.of(new OpenOrderDto.Item(10, new OpenOrderDto.Label(1, "Dish 1"), 2, false)),
+                openOrder.getOrderItems());
+        assertEquals(Status.OPEN, openOrder.getStatus());
+        verifyNoInteractions(orderRepository);
     }
 
     @Test
@@ -281,4 +334,247 @@ public class UnitOrderTests {
         assertFalse(result);
         verify(orderRepository, never()).deleteById(anyInt());
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Test patchOrderItems method writes only the changed items")
+    public void testPatchOrderItems() {
+        // Given
+        OrderItem kept = OrderItem.builder().id(10).order(order).dish(dish).quantity(1).build();
+        OrderItem changed = OrderItem.builder().id(11).order(order).dish(dish).quantity(1).build();
+        OrderItem removed = OrderItem.builder().id(12).order(order).dish(dish).quantity(1).build();
+        order.setOrderItems(new ArrayList<>(List.of(kept, changed, removed)));
+        OrderItemPatchRequest request = OrderItemPatchRequest.builder()
+                .add(List.of(orderItemRequest, orderItemRequest))
+                .remove(List.of(12))
+                .change(List.of(new OrderItemChangeRequest(11, 3, true)))
+                .totalPrice(BigDecimal.valueOf(70.0))
+                .build();
+        when(orderRepository.findById(1)).thenReturn(Optional.of(order));
+        when(dishService.findAllById(List.of(1))).thenReturn(List.of(dish));
+        when(orderItemRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // When
+        Optional<Order> result = orderService.patchOrderItems(1, request);
+
+        // Then
+        assertTrue(result.isPresent());
+        assertEquals(4, result.get().getOrderItems().size());
+        assertEquals(3, changed.getQuantity());
+        assertTrue(changed.isReady());
+        assertEquals(1, kept.getQuantity());
+        assertEquals(BigDecimal.valueOf(70.0), result.get().getTotalPrice());
+        verify(dishService, times(1)).findAllById(List.of(1));
+        verify(dishService, never()).findById(anyInt());
+        verify(orderItemRepository, times(1)).deleteAllByIdInBatch(Set.of(12));
+        verify(orderItemRepository, never()).delete(any(OrderItem.class));
+        verify(orderRepository, never()).saveAndFlush(any(Order.class));
+        verify(eventPublisher, times(1)).publishEvent(any(Object.class));
+    }
+
+    @Test
+    @DisplayName("Test patchOrderItems method with an item of another order")
+    public void testPatchOrderItemsItemNotFound() {
+        // Given
+        order.setOrderItems(new ArrayList<>());
+        OrderItemPatchRequest request = OrderItemPatchRequest.builder()
+                .change(List.of(new OrderItemChangeRequest(99, 1, null)))
+                .build();
+        when(orderRepository.findById(1)).thenReturn(Optional.of(order));
+
+        // Then
+        assertThrows(ResourceNotFoundException.class, () -> orderService.patchOrderItems(1, request));
+        verify(eventPublisher, never()).publishEvent(any(Object.class));
+    }
+
+    @Test
+    @DisplayName("Test patchOrderItems method with a missing dish")
+    public void testPatchOrderItemsDishNotFound() {
+        // Given
+        order.setOrderItems(new ArrayList<>());
+        OrderItemPatchRequest request = OrderItemPatchRequest.builder().add(List.of(orderItemRequest)).build();
+        when(orderRepository.findById(1)).thenReturn(Optional.of(order));
+        when(dishService.findAllById(List.of(1))).thenReturn(List.of());
+
+        // Then
+        assertThrows(ResourceNotFoundException.class, () -> orderService.patchOrderItems(1, request));
+        verify(orderItemRepository, never()).saveAll(anyList());
+    }
+
+    @Test
+    @DisplayName("Test bumpItems method marks items in one update and recomputes the order")
+    public void testBumpItems() {
+        // Given
+        order.setOrderItems(new ArrayList<>(List.of(
+                OrderItem.builder().id(10).order(order).dish(dish).quantity(1).ready(false).build(),
+                OrderItem.builder().id(11).order(order).dish(dish).quantity(1).ready(false).build())));
+        Order updatedOrder = new Order();
+        updatedOrder.setId(1);
+        updatedOrder.setUser(user);
+        updatedOrder.setTable(table);
+        updatedOrder.setStatus(Status.OPEN);
+        updatedOrder.setIsReadyToServe(false);
+        updatedOrder.setOrderItems(new ArrayList<>(List.of(
+                OrderItem.builder().id(10).order(updatedOrder).dish(dish).quantity(1).ready(true).build(),
+                OrderItem.builder().id(11).order(updatedOrder).dish(dish).quantity(1).ready(true).build())));
+        List<OrderItemState> states = List.of(itemState(1, 10), itemState(1, 11));
+        ItemBumpRequest request = ItemBumpRequest.builder()
+                .itemIds(List.of(10))
+                .orders(List.of(new ItemBumpRequest.OrderItems(1, List.of(11))))
+                .build();
+        when(orderItemRepository.findItemsToMark(Set.of(10, 11), true)).thenReturn(states);
+        when(orderRepository.findAllById(Set.of(1))).thenReturn(List.of(order), List.of(updatedOrder));
+
+        // When
+        ItemBumpDto result = orderService.bumpItems(request);
+
+        // Then
+        assertEquals(2, result.getItems().size());
+        assertEquals(1, result.getOrders().size());
+        assertTrue(result.getOrders().get(0).getIsReadyToServe());
+        assertNotNull(result.getOrders().get(0).getReadyDateTime());
+        verify(orderItemRepository, times(1)).updateReady(List.of(10, 11), true);
+        verify(orderRepository, never()).saveAndFlush(any(Order.class));
+        verify(eventPublisher, times(1)).publishEvent(any(Object.class));
+    }
+
+    @Test
+    @DisplayName("Test bumpItems method skips items of another order")
+    public void testBumpItemsOtherOrder() {
+        // Given
+        List<OrderItemState> states = List.of(itemState(2, 10));
+        ItemBumpRequest request = ItemBumpRequest.builder()
+                .orders(List.of(new ItemBumpRequest.OrderItems(1, List.of(10))))
+                .build();
+        when(orderItemRepository.findItemsToMark(Set.of(10), true)).thenReturn(states);
+
+        // When
+        ItemBumpDto result = orderService.bumpItems(request);
+
+        // Then
+        assertTrue(result.getItems().isEmpty());
+        assertTrue(result.getOrders().isEmpty());
+        verify(orderItemRepository, never()).updateReady(anyList(), anyBoolean());
+        verify(eventPublisher, never()).publishEvent(any(Object.class));
+    }
+
+    @Test
+    @DisplayName("Test bumpItems method with an order entry without items")
+    public void testBumpItemsOrderWithoutItems() {
+        // Given
+        ItemBumpRequest request = ItemBumpRequest.builder()
+                .orders(List.of(new ItemBumpRequest.OrderItems(1, null)))
+                .build();
+
+        // When
+        ItemBumpDto result = orderService.bumpItems(request);
+
+        // Then
+        assertTrue(result.getItems().isEmpty());
+        assertTrue(result.getOrders().isEmpty());
+        verify(orderItemRepository, never()).findItemsToMark(any(), anyBoolean());
+    }
+
+    @Test
+    @DisplayName("Test bumpItems method with an empty request")
+    public void testBumpItemsEmpty() {
+        // When
+        ItemBumpDto result = orderService.bumpItems(new ItemBumpRequest());
+
+        // Then
+        assertTrue(result.getItems().isEmpty());
+        verify(orderItemRepository, never()).findItemsToMark(any(), anyBoolean());
+    }
+
+    @Test
+    @DisplayName("Test updateOrder method with a stale version")
+    public void testUpdateOrderStaleVersion() {
+        // Given
+        order.setVersion(3L);
+        when(orderRepository.findById(1)).thenReturn(Optional.of(order));
+
+        // Then
+        assertThrows(PreconditionFailedException.class, () -> orderService.updateOrder(1, orderUpdateRequest, 2L));
+        verify(orderRepository, never()).saveAndFlush(any(Order.class));
+        verify(eventPublisher, never()).publishEvent(any(Object.class));
+    }
+
+    @Test
+    @DisplayName("Test setReadyToServe method with the current version")
+    public void testSetReadyToServeCurrentVersion() {
+        // Given
+        order.setVersion(3L);
+        when(orderRepository.findById(1)).thenReturn(Optional.of(order));
+        when(orderRepository.saveAndFlush(order)).thenReturn(order);
+
+        // When
+        Optional<Order> result = orderService.setReadyToServe(1, true, 3L);
+
+        // Then
+        assertTrue(result.isPresent());
+        assertTrue(result.get().getIsReadyToServe());
+        verify(orderRepository, times(1)).saveAndFlush(order);
+    }
+
+    @Test
+    @DisplayName("Test setReadyToServe method with a stale version")
+    public void testSetReadyToServeStaleVersion() {
+        // Given
+        order.setVersion(3L);
+        when(orderRepository.findById(1)).thenReturn(Optional.of(order));
+
+        // Then
+        assertThrows(PreconditionFailedException.class, () -> orderService.setReadyToServe(1, true, 2L));
+        verify(orderRepository, never()).saveAndFlush(any(Order.class));
+    }
+
+    @Test
+    @DisplayName("Test updateOrder method with the version listed by findOpenOrders")
+    public void testUpdateOrderListedVersion() {
+        // Given
+        order.setVersion(3L);
+        order.setOrderItems(new ArrayList<>());
+        orderUpdateRequest.setStatus(Status.IN_PROGRESS);
+        orderUpdateRequest.setOrderItems(List.of());
+        when(orderRepository.findById(1)).thenReturn(Optional.of(order));
+        when(orderRepository.saveAndFlush(order)).thenAnswer(invocation -> {
+            order.setVersion(order.getVersion() + 1);
+            return order;
+        });
+        when(userRepository.findById(1)).thenReturn(Optional.of(user));
+        when(tableService.findById(1)).thenReturn(Optional.of(table));
+        orderService.setReadyToServe(1, true, 3L);
+        ArgumentCaptor<OrderChangedEvent> event = ArgumentCaptor.forClass(OrderChangedEvent.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        when(openOrderRegistry.findAll()).thenReturn(List.of(event.getValue().getCurrent()));
+
+        // When
+        Long listedVersion = orderService.findOpenOrders().get(0).getVersion();
+        Optional<Order> result = orderService.updateOrder(1, orderUpdateRequest, listedVersion);
+
+        // Then
+        assertEquals(4L, listedVersion);
+        assertTrue(result.isPresent());
+        assertEquals(5L, result.get().getVersion());
+    }
+
+    @Test
+    @DisplayName("Test patchOrderItems method with a stale version")
+    public void testPatchOrderItemsStaleVersion() {
+        // Given
+        order.setVersion(3L);
+        order.setOrderItems(new ArrayList<>());
+        OrderItemPatchRequest request = OrderItemPatchRequest.builder().add(List.of(orderItemRequest)).build();
+        when(orderRepository.findById(1)).thenReturn(Optional.of(order));
+
+        // Then
+        assertThrows(PreconditionFailedException.class, () -> orderService.patchOrderItems(1, request, 2L));
+        verify(orderItemRepository, never()).saveAll(anyList());
+    }
+
+    private static OrderItemState itemState(Integer orderId, Integer itemId) {
+        OrderItemState state = mock(OrderItemState.class);
+        when(state.getOrderId()).thenReturn(orderId);
+        when(state.getItemId()).thenReturn(itemId);
+        return state;
+    }
+}
@@ -0,0 +1,132 @@
+package pl.pjatk.RestaurantManager;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import pl.pjatk.RestaurantManager.dto.ReportJobDto;
+import pl.pjatk.RestaurantManager.dto.StatisticSummaryDto;
+import pl.pjatk.RestaurantManager.model.ReportJobStatus;
+import pl.pjatk.RestaurantManager.model.StatisticMetric;
+import pl.pjatk.RestaurantManager.service.ReportJobService;
+import pl.pjatk.RestaurantManager.service.StatisticService;
+
+import java.time.LocalDate;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+public class UnitReportJobTests {
+
+    private static final LocalDate START_DATE = LocalDate.of(2023, 5, 1);
+    private static final Set<StatisticMetric> METRICS = EnumSet.of(StatisticMetric.ORDER_COUNT, StatisticMetric.DISHES);
+
+    private StatisticService statisticService;
+    private ReportJobService reportJobService;
+
+    @BeforeEach
+    public void setUp() {
+        statisticService = mock(StatisticService.class);
+        reportJobService = new ReportJobService(statisticService, 1, 1, 7, 30);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        reportJobService.shutdown();
+    }
+
+    @Test
+    @DisplayName("Test job computes the range in chunks and merges their summaries")
+    public void testJobMergesChunks() throws InterruptedException {
+        // Given
+        when(statisticService.calculateSummary(any(), any(), eq(METRICS))).thenAnswer(invocation -> {
+            LocalDate chunkStart = invocation.getArgument(0);
+            return StatisticSummaryDto.builder()
+                    .orderCount(new LinkedHashMap<>(Map.of(chunkStart.toString(), 1)))
+                    .dishes(new LinkedHashMap<>(Map.of("Soup", 2)))
+                    .build();
+        });
+
+        // When
+        ReportJobDto job = reportJobService.submit(START_DATE, START_DATE.plusDays(13), METRICS);
+        ReportJobDto finished = awaitFinished(job.getId());
+
+        // Then
+        assertEquals(ReportJobStatus.DONE, finished.getStatus());
+        assertEquals(1.0, finished.getProgress());
+        StatisticSummaryDto result = reportJobService.findResult(job.getId()).orElseThrow();
+        assertEquals(Map.of("2023-05-01", 1, "2023-05-08", 1), result.getOrderCount());
+        assertEquals(Map.of("Soup", 4), result.getDishes());
+        assertNull(result.getWaiters());
+        verify(statisticService, times(2)).calculateSummary(any(), any(), eq(METRICS));
+    }
+
+    @Test
+    @DisplayName("Test identical pending jobs are deduplicated and a full queue rejects new ones")
+    public void testDeduplicateAndReject() throws InterruptedException {
+        // Given
+        CountDownLatch release = new CountDownLatch(1);
+        when(statisticService.calculateSummary(any(), any(), any())).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return new StatisticSummaryDto();
+        });
+
+        // When
+        ReportJobDto first = reportJobService.submit(START_DATE, START_DATE, METRICS);
+        ReportJobDto duplicate = reportJobService.submit(START_DATE, START_DATE, EnumSet.copyOf(METRICS));
+        ReportJobDto queued = reportJobService.submit(START_DATE, START_DATE.plusDays(1), METRICS);
+
+        // Then
+        assertEquals(first.getId(), duplicate.getId());
+        assertNotEquals(first.getId(), queued.getId());
+        assertThrows(RejectedExecutionException.class,
+                () -> reportJobService.submit(START_DATE, START_DATE.plusDays(2), METRICS));
+        release.countDown();
+        assertEquals(ReportJobStatus.DONE, awaitFinished(first.getId()).getStatus());
+        assertEquals(ReportJobStatus.DONE, awaitFinished(queued.getId()).getStatus());
+    }
+
+    @Test
+    @DisplayName("Test cancelled job has no result and frees its spec")
+    public void testCancel() throws InterruptedException {
+        // Given
+        CountDownLatch started = new CountDownLatch(1);
+        when(statisticService.calculateSummary(any(), any(), any())).thenAnswer(invocation -> {
+            started.countDown();
+            Thread.sleep(5000);
+            return new StatisticSummaryDto();
+        });
+        ReportJobDto job = reportJobService.submit(START_DATE, START_DATE.plusDays(30), METRICS);
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        // When
+        ReportJobDto cancelled = reportJobService.cancel(job.getId()).orElseThrow();
+
+        // Then
+        assertEquals(ReportJobStatus.CANCELLED, cancelled.getStatus());
+        assertNotNull(cancelled.getFinishedAt());
+        assertTrue(reportJobService.findResult(job.getId()).isEmpty());
+        assertNotEquals(job.getId(), reportJobService.submit(START_DATE, START_DATE.plusDays(30), METRICS).getId());
+        assertTrue(reportJobService.cancel("unknown").isEmpty());
+    }
+
+    private ReportJobDto awaitFinished(String id) throws InterruptedException {
+        for (int attempt = 0; attempt < 500; attempt++) {
+            ReportJobDto job = reportJobService.findJob(id).orElseThrow();
+            if (job.getFinishedAt() != null) {
+                return job;
+            }
+            Thread.sleep(10);
+        }
+        return fail("Job " + id + " did not finish");
+    }
+}
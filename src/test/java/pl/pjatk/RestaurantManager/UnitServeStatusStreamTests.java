@@ -0,0 +1,228 @@
+package pl.pjatk.RestaurantManager;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import pl.pjatk.RestaurantManager.dto.OrderSnapshot;
+import pl.pjatk.RestaurantManager.dto.ServeStatusDto;
+import pl.pjatk.RestaurantManager.event.OrderChangedEvent;
+import pl.pjatk.RestaurantManager.model.Status;
+import pl.pjatk.RestaurantManager.service.OrderService;
+import pl.pjatk.RestaurantManager.service.ServeStatusStreamService;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class UnitServeStatusStreamTests {
+
+    @Mock
+    private OrderService orderService;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+
+    @InjectMocks
+    private ServeStatusStreamService serveStatusStreamService;
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(serveStatusStreamService, "bufferSize", 4);
+        ReflectionTestUtils.setField(serveStatusStreamService, "senderThreads", 2);
+        ReflectionTestUtils.setField(serveStatusStreamService, "heartbeatMs", 60000L);
+        serveStatusStreamService.start();
+
+        when(orderService.getOpenOrderServeStatus()).thenReturn(List.of(
+                new ServeStatusDto(1, Status.OPEN, false, 5), new ServeStatusDto(2, Status.OPEN, false, 6)));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        serveStatusStreamService.shutdown();
+    }
+
+    @Test
+    @DisplayName("Test subscribe sends a snapshot of the watched tables")
+    public void testSnapshot() throws IOException {
+        // Given
+        SseEmitter emitter = mock(SseEmitter.class);
+
+        // When
+        serveStatusStreamService.subscribe(emitter, Set.of(5));
+
+        // Then
+        List<String> events = sentEvents(emitter, 1);
+        assertTrue(events.get(0).contains("event:snapshot"));
+        assertTrue(events.get(0).contains("\"id\":1"));
+        assertFalse(events.get(0).contains("\"id\":2"));
+        assertEquals(1, serveStatusStreamService.getSubscriberCount());
+    }
+
+    @Test
+    @DisplayName("Test a readiness change is pushed only to subscribers of its table")
+    public void testChange() throws IOException {
+        // Given
+        SseEmitter watching = mock(SseEmitter.class);
+        SseEmitter other = mock(SseEmitter.class);
+        serveStatusStreamService.subscribe(watching, Set.of(5));
+        serveStatusStreamService.subscribe(other, Set.of(6));
+
+        // When
+        serveStatusStreamService.onOrderChanged(new OrderChangedEvent(
+                createSnapshot(1, 5, Status.IN_PROGRESS, false), createSnapshot(1, 5, Status.IN_PROGRESS, true)));
+
+        // Then
+        List<String> events = sentEvents(watching, 2);
+        assertTrue(events.get(1).contains("event:change"));
+        assertTrue(events.get(1).contains("\"isReadyToServe\":true"));
+        sentEvents(other, 1);
+    }
+
+    @Test
+    @DisplayName("Test changes outside the serve status are not pushed")
+    public void testUnrelatedChange() throws IOException {
+        // Given
+        SseEmitter emitter = mock(SseEmitter.class);
+        serveStatusStreamService.subscribe(emitter, null);
+        OrderSnapshot previous = createSnapshot(1, 5, Status.OPEN, false);
+        OrderSnapshot current = OrderSnapshot.builder()
+                .id(1)
+                .tableId(5)
+                .status(Status.OPEN)
+                .isReadyToServe(false)
+                .totalPrice(BigDecimal.TEN)
+                .items(List.of())
+                .build();
+
+        // When
+        serveStatusStreamService.onOrderChanged(new OrderChangedEvent(previous, current));
+        serveStatusStreamService.sendHeartbeat();
+
+        // Then
+        List<String> events = sentEvents(emitter, 2);
+        assertTrue(events.get(1).contains(":heartbeat"));
+    }
+
+    @Test
+    @DisplayName("Test heartbeats are queued by the service every heartbeat interval")
+    public void testScheduledHeartbeat() throws IOException {
+        // Given
+        serveStatusStreamService.shutdown();
+        ReflectionTestUtils.setField(serveStatusStreamService, "heartbeatMs", 20L);
+        serveStatusStreamService.start();
+        SseEmitter emitter = mock(SseEmitter.class);
+
+        // When
+        serveStatusStreamService.subscribe(emitter, null);
+
+        // Then
+        ArgumentCaptor<SseEmitter.SseEventBuilder> captor = ArgumentCaptor.forClass(SseEmitter.SseEventBuilder.class);
+        verify(emitter, timeout(1000).atLeast(3)).send(captor.capture());
+        assertTrue(captor.getAllValues().get(1).build().stream()
+                .anyMatch(data -> data.getData().toString().contains("heartbeat")));
+    }
+
+    @Test
+    @DisplayName("Test closing an order pushes its removal")
+    public void testRemove() throws IOException {
+        // Given
+        SseEmitter emitter = mock(SseEmitter.class);
+        serveStatusStreamService.subscribe(emitter, Set.of(5));
+
+        // When
+        serveStatusStreamService.onOrderChanged(new OrderChangedEvent(
+                createSnapshot(1, 5, Status.READY, true), createSnapshot(1, 5, Status.CLOSED, true)));
+
+        // Then
+        List<String> events = sentEvents(emitter, 2);
+        assertTrue(events.get(1).contains("event:remove"));
+        assertTrue(events.get(1).contains("\"id\":1"));
+    }
+
+    @Test
+    @DisplayName("Test a subscriber whose connection fails is dropped")
+    public void testFailedSubscriber() throws IOException {
+        // Given
+        SseEmitter emitter = mock(SseEmitter.class);
+        doThrow(new IOException("Broken pipe")).when(emitter).send(any(SseEmitter.SseEventBuilder.class));
+
+        // When
+        serveStatusStreamService.subscribe(emitter, null);
+
+        // Then
+        verify(emitter, timeout(1000)).send(any(SseEmitter.SseEventBuilder.class));
+        verify(orderService, timeout(1000)).getOpenOrderServeStatus();
+        long deadline = System.currentTimeMillis() + 1000;
+        while (serveStatusStreamService.getSubscriberCount() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.onSpinWait();
+        }
+        assertEquals(0, serveStatusStreamService.getSubscriberCount());
+    }
+
+    @Test
+    @DisplayName("Test a subscriber that does not keep up is dropped without delaying the others")
+    public void testSlowSubscriber() throws Exception {
+        // Given
+        CountDownLatch blocked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        SseEmitter slow = mock(SseEmitter.class);
+        doAnswer(invocation -> {
+            blocked.countDown();
+            release.await();
+            return null;
+        }).when(slow).send(any(SseEmitter.SseEventBuilder.class));
+        SseEmitter fast = mock(SseEmitter.class);
+        serveStatusStreamService.subscribe(slow, null);
+        serveStatusStreamService.subscribe(fast, null);
+        assertTrue(blocked.await(1, TimeUnit.SECONDS));
+
+        // When
+        for (int i = 0; i < 5; i++) {
+            serveStatusStreamService.sendHeartbeat();
+            sentEvents(fast, i + 2);
+        }
+
+        // Then
+        assertEquals(1, serveStatusStreamService.getSubscriberCount());
+        release.countDown();
+        verify(slow, timeout(1000)).complete();
+    }
+
+    private static List<String> sentEvents(SseEmitter emitter, int count) throws IOException {
+        ArgumentCaptor<SseEmitter.SseEventBuilder> captor = ArgumentCaptor.forClass(SseEmitter.SseEventBuilder.class);
+        verify(emitter, timeout(1000).times(count)).send(captor.capture());
+        return captor.getAllValues().stream()
+                .map(event -> event.build().stream()
+                        .map(data -> data.getData().toString())
+                        .collect(Collectors.joining()))
+                .toList();
+    }
+
+    private static OrderSnapshot createSnapshot(Integer id, Integer tableId, Status status, boolean isReadyToServe) {
+        return OrderSnapshot.builder()
+                .id(id)
+                .tableId(tableId)
+                .status(status)
+                .isReadyToServe(isReadyToServe)
+                .items(List.of())
+                .build();
+    }
+}
@@ -0,0 +1,227 @@
+package pl.pjatk.RestaurantManager;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import pl.pjatk.RestaurantManager.statistic.CoOccurrenceMatrix;
+import pl.pjatk.RestaurantManager.statistic.DailySeries;
+import pl.pjatk.RestaurantManager.statistic.IntLongHashMap;
+import pl.pjatk.RestaurantManager.statistic.LatencyHistogram;
+import pl.pjatk.RestaurantManager.statistic.RollingHourlyHistogram;
+import pl.pjatk.RestaurantManager.statistic.SpaceSavingSketch;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class UnitStatisticKernelTests {
+
+    @Test
+    @DisplayName("Test IntLongHashMap keeps insertion order while growing")
+    public void testIntLongHashMapGrow() {
+        // Given
+        IntLongHashMap map = new IntLongHashMap(2);
+
+        // When
+        for (int key = 1000; key > 0; key--) {
+            map.add(key, key);
+        }
+        map.add(500, 1);
+
+        // Then
+        assertEquals(1000, map.size());
+        assertEquals(1000, map.keyAt(0));
+        assertEquals(1, map.keyAt(999));
+        assertEquals(501, map.get(500));
+        assertEquals(0, map.get(5000));
+        assertFalse(map.containsKey(0));
+    }
+
+    @Test
+    @DisplayName("Test DailySeries exports only days with orders")
+    public void testDailySeries() {
+        // Given
+        LocalDate startDate = LocalDate.of(2023, 5, 1);
+        DailySeries series = new DailySeries(startDate, LocalDate.of(2023, 5, 31));
+
+        // When
+        series.add(LocalDate.of(2023, 5, 12).toEpochDay(), 1, DailySeries.toMinorUnits(new BigDecimal("50.00")));
+        series.add(LocalDate.of(2023, 5, 12).toEpochDay(), 1, DailySeries.toMinorUnits(new BigDecimal("20.5")));
+        series.add(LocalDate.of(2023, 6, 1).toEpochDay(), 1, 100);
+
+        // Then
+        assertEquals(Map.of("2023-05-12", 2), series.toCountMap());
+        assertEquals(Map.of("2023-05-12", new BigDecimal("70.50")), series.toAmountMap());
+        assertEquals(List.of("2023-05-12"), List.copyOf(series.toCountMap().keySet()));
+    }
+
+    @Test
+    @DisplayName("Test RollingHourlyHistogram recycles slots of days outside the window")
+    public void testRollingHourlyHistogram() {
+        // Given
+        RollingHourlyHistogram histogram = new RollingHourlyHistogram(7);
+        LocalDate today = LocalDate.of(2023, 5, 12);
+
+        // When
+        histogram.add(today.minusDays(7), 0, 4);
+        histogram.add(today, 0, 1);
+        histogram.add(today, 23, 2);
+        histogram.add(today.minusDays(7), 0, 4);
+
+        // Then
+        assertEquals(1, histogram.get(today, today)[0]);
+        assertEquals(2, histogram.get(today, today)[23]);
+        assertEquals(0, histogram.get(today.minusDays(6), today)[0]);
+        assertNull(histogram.get(today.minusDays(7), today));
+        assertNull(histogram.get(today.plusDays(1), today));
+    }
+
+    @Test
+    @DisplayName("Test SpaceSavingSketch keeps heavy hitters within the error bound")
+    public void testSpaceSavingSketch() {
+        // Given
+        SpaceSavingSketch sketch = new SpaceSavingSketch(4);
+
+        // When
+        sketch.offer(1, 50);
+        sketch.offer(2, 30);
+        for (int id = 10; id < 30; id++) {
+            sketch.offer(id, 1);
+        }
+        sketch.offer(1, 10);
+
+        // Then
+        List<SpaceSavingSketch.Entry> top = sketch.top(2);
+        assertEquals(1, top.get(0).id());
+        assertEquals(60, top.get(0).count());
+        assertEquals(2, top.get(1).id());
+        assertEquals(30, top.get(1).count());
+        assertEquals(110, sketch.getTotal());
+        assertTrue(sketch.getMaxError() <= sketch.getTotal() / sketch.getCapacity());
+        assertTrue(sketch.getMinCount() > 0);
+    }
+
+    @Test
+    @DisplayName("Test merged SpaceSavingSketch sums counts of both sketches")
+    public void testSpaceSavingSketchMerge() {
+        // Given
+        SpaceSavingSketch monday = new SpaceSavingSketch(8);
+        monday.offer(1, 5);
+        monday.offer(2, 3);
+        SpaceSavingSketch tuesday = new SpaceSavingSketch(8);
+        tuesday.offer(2, 4);
+        tuesday.offer(3, 1);
+
+        // When
+        SpaceSavingSketch merged = new SpaceSavingSketch(8);
+        merged.merge(monday);
+        merged.merge(tuesday);
+
+        // Then
+        List<SpaceSavingSketch.Entry> top = merged.top(3);
+        assertEquals(new SpaceSavingSketch.Entry(2, 7, 0), top.get(0));
+        assertEquals(new SpaceSavingSketch.Entry(1, 5, 0), top.get(1));
+        assertEquals(new SpaceSavingSketch.Entry(3, 1, 0), top.get(2));
+        assertEquals(13, merged.getTotal());
+        assertEquals(0, merged.getMinCount());
+    }
+
+    @Test
+    @DisplayName("Test LatencyHistogram percentiles stay within the bucket precision")
+    public void testLatencyHistogramPercentiles() {
+        // Given
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int value = 1; value <= 10000; value++) {
+            histogram.record(value);
+        }
+
+        // When
+        long p50 = histogram.getValueAtPercentile(50);
+        long p99 = histogram.getValueAtPercentile(99);
+
+        // Then
+        assertEquals(10000, histogram.getTotalCount());
+        assertEquals(5000, p50, 5000 / 64.0);
+        assertEquals(9900, p99, 9900 / 64.0);
+        assertEquals(10000, histogram.getValueAtPercentile(100));
+        assertEquals(10000, histogram.getMaxValue());
+    }
+
+    @Test
+    @DisplayName("Test merged LatencyHistogram equals recording into one histogram")
+    public void testLatencyHistogramMerge() {
+        // Given
+        LatencyHistogram lunch = new LatencyHistogram();
+        LatencyHistogram dinner = new LatencyHistogram();
+        LatencyHistogram all = new LatencyHistogram();
+        for (int value = 0; value < 100; value++) {
+            lunch.record(value * 7L);
+            dinner.record(value * 300L);
+            all.record(value * 7L);
+            all.record(value * 300L);
+        }
+        dinner.record(12);
+        dinner.remove(12);
+
+        // When
+        LatencyHistogram merged = new LatencyHistogram();
+        merged.merge(lunch);
+        merged.merge(dinner);
+
+        // Then
+        assertEquals(200, merged.getTotalCount());
+        assertEquals(all.getValueAtPercentile(50), merged.getValueAtPercentile(50));
+        assertEquals(all.getValueAtPercentile(95), merged.getValueAtPercentile(95));
+        assertEquals(29700, merged.getMaxValue());
+        assertEquals(0, new LatencyHistogram().getValueAtPercentile(99));
+    }
+
+    @Test
+    @DisplayName("Test CoOccurrenceMatrix sorts partners and forgets retracted orders")
+    public void testCoOccurrenceMatrix() {
+        // Given
+        CoOccurrenceMatrix matrix = new CoOccurrenceMatrix();
+        matrix.add(new int[]{1, 2, 3}, 1);
+        matrix.add(new int[]{1, 3}, 1);
+        matrix.add(new int[]{1, 4}, 1);
+
+        // When
+        List<CoOccurrenceMatrix.Partner> before = matrix.top(1, 2);
+        matrix.add(new int[]{1, 3}, -1);
+        List<CoOccurrenceMatrix.Partner> after = matrix.top(1, 5);
+
+        // Then
+        assertEquals(List.of(new CoOccurrenceMatrix.Partner(3, 2), new CoOccurrenceMatrix.Partner(2, 1)), before);
+        assertEquals(List.of(new CoOccurrenceMatrix.Partner(2, 1), new CoOccurrenceMatrix.Partner(3, 1),
+                new CoOccurrenceMatrix.Partner(4, 1)), after);
+        assertEquals(2, matrix.getOrderCount(1));
+        assertEquals(List.of(new CoOccurrenceMatrix.Partner(1, 1), new CoOccurrenceMatrix.Partner(2, 1)), matrix.top(3, 5));
+        assertEquals(List.of(new CoOccurrenceMatrix.Partner(1, 1)), matrix.top(4, 5));
+        assertEquals(List.of(), matrix.top(99, 5));
+    }
+
+    @Test
+    @DisplayName("Test merged CoOccurrenceMatrix equals adding all orders to one matrix")
+    public void testCoOccurrenceMatrixMerge() {
+        // Given
+        CoOccurrenceMatrix first = new CoOccurrenceMatrix();
+        CoOccurrenceMatrix second = new CoOccurrenceMatrix();
+        CoOccurrenceMatrix single = new CoOccurrenceMatrix();
+        first.add(new int[]{1, 2}, 1);
+        second.add(new int[]{1, 2, 5}, 1);
+        single.add(new int[]{1, 2}, 1);
+        single.add(new int[]{1, 2, 5}, 1);
+
+        // When
+        first.top(1, 5);
+        first.merge(second);
+
+        // Then
+        assertEquals(single.top(1, 5), first.top(1, 5));
+        assertEquals(single.top(5, 5), first.top(5, 5));
+        assertEquals(2, first.getOrderCount(2));
+        assertEquals(3, first.size());
+    }
+}
@@ -0,0 +1,139 @@
+package pl.pjatk.RestaurantManager;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import pl.pjatk.RestaurantManager.model.StatisticMetric;
+import pl.pjatk.RestaurantManager.projection.OrderLine;
+import pl.pjatk.RestaurantManager.service.StatisticPartitionExecutor;
+import pl.pjatk.RestaurantManager.statistic.SummaryAccumulator;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class UnitStatisticPartitionExecutorTests {
+
+    private StatisticPartitionExecutor statisticPartitionExecutor;
+
+    @BeforeEach
+    public void setUp() {
+        statisticPartitionExecutor = new StatisticPartitionExecutor(mock(PlatformTransactionManager.class), 4, 2, 7);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        statisticPartitionExecutor.shutdown();
+    }
+
+    @Test
+    @DisplayName("Test range is split into chunks returned in chunk order")
+    public void testMapKeepsChunkOrder() {
+        // Given
+        LocalDate startDate = LocalDate.of(2023, 5, 1);
+        LocalDate endDate = LocalDate.of(2023, 5, 20);
+
+        // When
+        List<String> result = statisticPartitionExecutor.map(startDate, endDate, (chunkStart, chunkEnd) -> {
+            if (chunkStart.equals(startDate)) {
+                try {
+                    Thread.sleep(50);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return chunkStart + "/" + chunkEnd;
+        });
+
+        // Then
+        assertEquals(List.of("2023-05-01/2023-05-07", "2023-05-08/2023-05-14", "2023-05-15/2023-05-20"), result);
+    }
+
+    @Test
+    @DisplayName("Test callers over the limit query their whole range without fanning out")
+    public void testMapOverCallerLimit() {
+        // Given
+        StatisticPartitionExecutor singleCaller = new StatisticPartitionExecutor(mock(PlatformTransactionManager.class), 4, 1, 7);
+        LocalDate startDate = LocalDate.of(2023, 5, 1);
+
+        try {
+            // When
+            List<List<String>> result = singleCaller.map(startDate, startDate.plusDays(13), (chunkStart, chunkEnd) ->
+                    singleCaller.map(chunkStart, chunkEnd.plusDays(7), (nestedStart, nestedEnd) -> nestedStart + "/" + nestedEnd));
+
+            // Then
+            assertEquals(List.of(List.of("2023-05-01/2023-05-14"), List.of("2023-05-08/2023-05-21")), result);
+        } finally {
+            singleCaller.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("Test failure of one chunk is rethrown to the caller")
+    public void testMapRethrowsChunkFailure() {
+        // Given
+        LocalDate startDate = LocalDate.of(2023, 5, 1);
+
+        // When / Then
+        assertThrows(IllegalArgumentException.class, () -> statisticPartitionExecutor.map(startDate, startDate.plusDays(20),
+                (chunkStart, chunkEnd) -> {
+                    if (chunkStart.isAfter(startDate)) {
+                        throw new IllegalArgumentException("chunk failed");
+                    }
+                    return chunkStart;
+                }));
+    }
+
+    @Test
+    @DisplayName("Test merged chunk accumulators equal a single scan")
+    public void testMergedAccumulatorsMatchSingleScan() {
+        // Given
+        Set<StatisticMetric> metrics = EnumSet.allOf(StatisticMetric.class);
+        LocalDate startDate = LocalDate.of(2023, 5, 1);
+        List<OrderLine> lines = List.of(
+                createLine(1, startDate.atTime(12, 0).toString(), 2, 10),
+                createLine(2, startDate.plusDays(9).atTime(18, 0).toString(), 1, 11),
+                createLine(3, startDate.plusDays(9).atTime(19, 0).toString(), 2, 10));
+        SummaryAccumulator single = new SummaryAccumulator(startDate, startDate.plusDays(13), metrics);
+        lines.forEach(single::accept);
+
+        // When
+        SummaryAccumulator merged = new SummaryAccumulator(startDate, startDate.plusDays(13), metrics);
+        SummaryAccumulator firstWeek = new SummaryAccumulator(startDate, startDate.plusDays(6), metrics);
+        SummaryAccumulator secondWeek = new SummaryAccumulator(startDate.plusDays(7), startDate.plusDays(13), metrics);
+        firstWeek.accept(lines.get(0));
+        secondWeek.accept(lines.get(1));
+        secondWeek.accept(lines.get(2));
+        merged.merge(firstWeek);
+        merged.merge(secondWeek);
+
+        // Then
+        assertEquals(single.getDays().toCountMap(), merged.getDays().toCountMap());
+        assertEquals(single.getDays().toAmountMap(), merged.getDays().toAmountMap());
+        assertArrayEquals(single.getTrafficByHour(), merged.getTrafficByHour());
+        assertEquals(2, merged.getWaiterCounts().get(2));
+        assertEquals(1, merged.getWaiterCounts().get(1));
+        assertEquals(2, merged.getWaiterCounts().keyAt(0));
+        assertEquals(20, merged.getDishQuantities().get(10));
+    }
+
+    private OrderLine createLine(Integer orderId, String startDateTime, Integer userId, Integer dishId) {
+        OrderLine line = mock(OrderLine.class);
+        when(line.getOrderId()).thenReturn(orderId);
+        when(line.getStartDateTime()).thenReturn(Timestamp.valueOf(startDateTime.replace('T', ' ') + ":00"));
+        when(line.getTotalPrice()).thenReturn(new BigDecimal("10.00"));
+        when(line.getUserId()).thenReturn(userId);
+        when(line.getDishId()).thenReturn(dishId);
+        when(line.getQuantity()).thenReturn(10);
+        return line;
+    }
+}
@@ -0,0 +1,373 @@
+package pl.pjatk.RestaurantManager;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.transaction.PlatformTransactionManager;
+import pl.pjatk.RestaurantManager.dto.OrderSnapshot;
+import pl.pjatk.RestaurantManager.dto.StatisticSummaryDto;
+import pl.pjatk.RestaurantManager.dto.WaiterStatisticDto;
+import pl.pjatk.RestaurantManager.event.OrderChangedEvent;
+import pl.pjatk.RestaurantManager.model.StatisticMetric;
+import pl.pjatk.RestaurantManager.model.Status;
+import pl.pjatk.RestaurantManager.projection.HourlyAggregate;
+import pl.pjatk.RestaurantManager.projection.IngredientLabel;
+import pl.pjatk.RestaurantManager.projection.OrderLine;
+import pl.pjatk.RestaurantManager.projection.WaiterPerformance;
+import pl.pjatk.RestaurantManager.repository.IngredientRepository;
+import pl.pjatk.RestaurantManager.repository.OrderRepository;
+import pl.pjatk.RestaurantManager.service.DailyOrderStatisticService;
+import pl.pjatk.RestaurantManager.service.DishCompositionCache;
+import pl.pjatk.RestaurantManager.service.NameCache;
+import pl.pjatk.RestaurantManager.service.OrderFactService;
+import pl.pjatk.RestaurantManager.service.StatisticDayCache;
+import pl.pjatk.RestaurantManager.service.StatisticPartitionExecutor;
+import pl.pjatk.RestaurantManager.service.StatisticService;
+import pl.pjatk.RestaurantManager.service.TrafficStatisticService;
+import pl.pjatk.RestaurantManager.statistic.DishComposition;
+import pl.pjatk.RestaurantManager.statistic.OrderFactStore;
+import pl.pjatk.RestaurantManager.statistic.SummaryAccumulator;
+
+import java.math.BigDecimal;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+public class UnitStatisticTests {
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    @Mock
+    private IngredientRepository ingredientRepository;
+
+    @Mock
+    private DishCompositionCache dishCompositionCache;
+
+    @Mock
+    private DailyOrderStatisticService dailyOrderStatisticService;
+
+    @Mock
+    private TrafficStatisticService trafficStatisticService;
+
+    @Mock
+    private OrderFactService orderFactService;
+
+    @Mock
+    private NameCache nameCache;
+
+    @Spy
+    private StatisticPartitionExecutor statisticPartitionExecutor =
+            new StatisticPartitionExecutor(mock(PlatformTransactionManager.class), 1, 2, 7);
+
+    @Spy
+    private StatisticDayCache statisticDayCache = new StatisticDayCache(4096);
+
+    @TempDir
+    private Path factDirectory;
+
+    @InjectMocks
+    private StatisticService statisticService;
+
+    private LocalDate date;
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        date = LocalDate.of(2023, 5, 12);
+
+        List<OrderLine> lines = List.of(
+                createLine(1, 18, "50.00", 1, 2),
+                createLine(1, 18, "50.00", 2, 1),
+                createLine(2, 19, "20.00", 1, 1));
+        when(orderRepository.streamOrderLines(any(), any(), eq(Status.CLOSED))).thenReturn(lines.stream());
+        when(nameCache.getUserNames(any())).thenReturn(Map.of(1, "John Doe"));
+        when(nameCache.getDishNames(any())).thenReturn(Map.of(1, "Soup", 2, "Cake"));
+    }
+
+    @Test
+    @DisplayName("Test summary fills every metric from one scan")
+    public void testCalculateSummary() {
+        // Given
+        IngredientLabel flour = mock(IngredientLabel.class);
+        when(flour.getId()).thenReturn(7);
+        when(flour.getName()).thenReturn("Flour");
+        when(flour.getUnit()).thenReturn("g");
+        when(dishCompositionCache.getCompositions(any())).thenReturn(Map.of(
+                1, new DishComposition(new int[]{7}, new double[]{100.0}),
+                2, DishComposition.EMPTY));
+        when(ingredientRepository.findLabelsByIds(any())).thenReturn(List.of(flour));
+        List<HourlyAggregate> hours = List.of(createHour(18, 1), createHour(19, 1), createHour(20, 1));
+        when(orderRepository.countByDayAndHour(any(), any())).thenReturn(hours);
+
+        // When
+        StatisticSummaryDto result = statisticService.calculateSummary(date, date, EnumSet.allOf(StatisticMetric.class));
+
+        // Then
+        verify(orderRepository, times(1)).streamOrderLines(any(), any(), eq(Status.CLOSED));
+        assertEquals(Map.of("2023-05-12", 2), result.getOrderCount());
+        assertEquals(Map.of("2023-05-12", new BigDecimal("70.00")), result.getTotalPrice());
+        assertEquals(Map.of("John Doe", 2), result.getWaiters());
+        assertEquals(Map.of("Soup", 3, "Cake", 1), result.getDishes());
+        assertEquals(Map.of("Flour [g]", 300.0), result.getIngredients());
+        assertEquals(24, result.getTraffic().size());
+        assertEquals(1, result.getTraffic().get(18));
+        assertEquals(1, result.getTraffic().get(19));
+        assertEquals(1, result.getTraffic().get(20));
+    }
+
+    @Test
+    @DisplayName("Test ingredient statistics leave out deleted ingredients")
+    public void testCalculateIngredientStatisticsDeletedIngredient() {
+        // Given
+        IngredientLabel flour = mock(IngredientLabel.class);
+        when(flour.getId()).thenReturn(7);
+        when(flour.getName()).thenReturn("Flour");
+        when(dishCompositionCache.getCompositions(any())).thenReturn(Map.of(
+                1, new DishComposition(new int[]{7, 8}, new double[]{100.0, 5.0}),
+                2, DishComposition.EMPTY));
+        when(ingredientRepository.findLabelsByIds(any())).thenReturn(List.of(flour));
+
+        // When
+        LinkedHashMap<String, Double> result = statisticService.calculateIngredientStatistics(date, date);
+
+        // Then
+        assertEquals(Map.of("Flour", 300.0), result);
+        assertFalse(result.containsKey(null));
+    }
+
+    @Test
+    @DisplayName("Test summary leaves out metrics that were not requested")
+    public void testCalculateSummarySelectedMetrics() {
+        // When
+        StatisticSummaryDto result = statisticService.calculateSummary(date, date, EnumSet.of(StatisticMetric.DISHES));
+
+        // Then
+        assertNull(result.getOrderCount());
+        assertNull(result.getIngredients());
+        assertEquals(Map.of("Soup", 3, "Cake", 1), result.getDishes());
+        verify(dishCompositionCache, never()).getCompositions(any());
+    }
+
+    @Test
+    @DisplayName("Test cached day segments are reused by later calls")
+    public void testCalculateSummaryUsesCachedDays() {
+        // Given
+        statisticService.calculateSummary(date, date, EnumSet.of(StatisticMetric.WAITERS));
+
+        // When
+        LinkedHashMap<String, Integer> result = statisticService.calculateWaiterStatistics(date, date);
+
+        // Then
+        verify(orderRepository, times(1)).streamOrderLines(any(), any(), eq(Status.CLOSED));
+        assertEquals(Map.of("John Doe", 2), result);
+    }
+
+    @Test
+    @DisplayName("Test cached day segments show the current names")
+    public void testCalculateSummaryCachedDaysRenamed() {
+        // Given
+        statisticService.calculateSummary(date, date, EnumSet.of(StatisticMetric.DISHES));
+        when(nameCache.getDishNames(any())).thenReturn(Map.of(1, "Tomato soup", 2, "Cake"));
+
+        // When
+        LinkedHashMap<String, Integer> result = statisticService.calculateDishStatistics(date, date);
+
+        // Then
+        verify(orderRepository, times(1)).streamOrderLines(any(), any(), eq(Status.CLOSED));
+        assertEquals(Map.of("Tomato soup", 3, "Cake", 1), result);
+    }
+
+    @Test
+    @DisplayName("Test a changed order drops its day and only that day is computed again")
+    public void testCalculateSummaryRecomputesInvalidatedDay() {
+        // Given
+        LocalDate previousDay = date.minusDays(1);
+        when(orderRepository.streamOrderLines(any(), any(), eq(Status.CLOSED)))
+                .thenAnswer(invocation -> Stream.empty());
+        statisticService.calculateSummary(previousDay, date, EnumSet.of(StatisticMetric.ORDER_COUNT));
+        OrderSnapshot changed = OrderSnapshot.builder()
+                .id(1)
+                .status(Status.CLOSED)
+                .startDateTime(Timestamp.valueOf(date.atTime(18, 0)))
+                .items(List.of())
+                .build();
+
+        // When
+        statisticDayCache.onOrderChanged(new OrderChangedEvent(changed, null));
+        statisticService.calculateSummary(previousDay, date, EnumSet.of(StatisticMetric.ORDER_COUNT));
+
+        // Then
+        verify(orderRepository).streamOrderLines(Timestamp.valueOf(previousDay.atStartOfDay()),
+                Timestamp.valueOf(date.atTime(LocalTime.MAX)), Status.CLOSED);
+        verify(orderRepository).streamOrderLines(Timestamp.valueOf(date.atStartOfDay()),
+                Timestamp.valueOf(date.atTime(LocalTime.MAX)), Status.CLOSED);
+        assertNotNull(statisticDayCache.get(StatisticMetric.ORDER_COUNT, previousDay));
+    }
+
+    @Test
+    @DisplayName("Test a segment is dropped only when its own day was invalidated while computed")
+    public void testDayCacheGenerationPerDay() {
+        // Given
+        LocalDate previousDay = date.minusDays(1);
+        Set<StatisticMetric> parts = EnumSet.of(StatisticMetric.ORDER_COUNT);
+        long generation = statisticDayCache.getGeneration();
+
+        // When
+        statisticDayCache.invalidate(previousDay);
+        statisticDayCache.put(generation, StatisticMetric.ORDER_COUNT, date, new SummaryAccumulator(date, date, parts));
+        statisticDayCache.put(generation, StatisticMetric.ORDER_COUNT, previousDay,
+                new SummaryAccumulator(previousDay, previousDay, parts));
+
+        // Then
+        assertNotNull(statisticDayCache.get(StatisticMetric.ORDER_COUNT, date));
+        assertNull(statisticDayCache.get(StatisticMetric.ORDER_COUNT, previousDay));
+    }
+
+    @Test
+    @DisplayName("Test summary is aggregated from the fact store when it is available")
+    public void testCalculateSummaryFromFacts() throws IOException {
+        try (OrderFactStore facts = OrderFactStore.open(factDirectory)) {
+            // Given
+            facts.append(1, OrderFactStore.toEpochSecond(date.atTime(18, 0)), 1, 1, 5000, 0, new int[]{1, 2}, new int[]{2, 1});
+            facts.append(1, OrderFactStore.toEpochSecond(date.atTime(19, 0)), 1, 1, 2000, 0, new int[]{1}, new int[]{1});
+            facts.append(1, OrderFactStore.toEpochSecond(date.atTime(20, 0)), 1, 2, 900, 0, new int[]{2}, new int[]{1});
+            facts.append(-1, OrderFactStore.toEpochSecond(date.atTime(20, 0)), 1, 2, 900, 0, new int[]{2}, new int[]{1});
+            when(orderFactService.getStore()).thenReturn(facts);
+            List<HourlyAggregate> hours = List.of(createHour(18, 1), createHour(19, 1));
+            when(orderRepository.countByDayAndHour(any(), any())).thenReturn(hours);
+
+            // When
+            StatisticSummaryDto result = statisticService.calculateSummary(date, date, EnumSet.of(
+                    StatisticMetric.ORDER_COUNT, StatisticMetric.TOTAL_PRICE, StatisticMetric.WAITERS,
+                    StatisticMetric.DISHES, StatisticMetric.TRAFFIC));
+
+            // Then
+            verify(orderRepository, never()).streamOrderLines(any(), any(), any());
+            verify(nameCache).getUserNames(List.of(1));
+            assertEquals(Map.of("2023-05-12", 2), result.getOrderCount());
+            assertEquals(Map.of("2023-05-12", new BigDecimal("70.00")), result.getTotalPrice());
+            assertEquals(Map.of("John Doe", 2), result.getWaiters());
+            assertEquals(Map.of("Soup", 3, "Cake", 1), result.getDishes());
+            assertEquals(1, result.getTraffic().get(18));
+            assertEquals(1, result.getTraffic().get(19));
+            assertEquals(0, result.getTraffic().get(20));
+        }
+    }
+
+    @Test
+    @DisplayName("Test traffic statistics are served from the in-memory histogram")
+    public void testCalculateOrderCountByHourFromHistogram() {
+        // Given
+        int[] countByHour = new int[24];
+        countByHour[0] = 2;
+        countByHour[18] = 5;
+        when(trafficStatisticService.countByHour(date)).thenReturn(countByHour);
+
+        // When
+        Map<Integer, Integer> result = statisticService.calculateOrderCountByHour(date);
+
+        // Then
+        assertEquals(24, result.size());
+        assertEquals(2, result.get(0));
+        assertEquals(5, result.get(18));
+        assertNull(result.get(24));
+        verify(orderRepository, never()).countByDayAndHour(any(), any());
+    }
+
+    @Test
+    @DisplayName("Test traffic statistics fall back to the database outside the histogram window")
+    public void testCalculateOrderCountByHourFallback() {
+        // Given
+        HourlyAggregate midnight = mock(HourlyAggregate.class);
+        when(midnight.getHour()).thenReturn(0);
+        when(midnight.getOrderCount()).thenReturn(3L);
+        when(trafficStatisticService.countByHour(date)).thenReturn(null);
+        when(orderRepository.countByDayAndHour(any(), any())).thenReturn(List.of(midnight));
+
+        // When
+        Map<Integer, Integer> result = statisticService.calculateOrderCountByHour(date);
+
+        // Then
+        assertEquals(24, result.size());
+        assertEquals(3, result.get(0));
+        assertEquals(0, result.get(23));
+    }
+
+    @Test
+    @DisplayName("Test waiter performance keeps waiters sharing a name apart")
+    public void testCalculateWaiterPerformance() {
+        // Given
+        WaiterPerformance first = createPerformance(1, 3L, "90.00", 1800.0, 120.0);
+        WaiterPerformance second = createPerformance(2, 1L, "20.00", 600.0, null);
+        when(orderRepository.summarizeByWaiter(any(), any())).thenReturn(List.of(first, second));
+
+        // When
+        List<WaiterStatisticDto> result = statisticService.calculateWaiterPerformance(date, date);
+
+        // Then
+        assertEquals(2, result.size());
+        assertEquals(1, result.get(0).getUserId());
+        assertEquals("John Doe", result.get(0).getUserName());
+        assertEquals(3L, result.get(0).getOrderCount());
+        assertEquals(new BigDecimal("90.00"), result.get(0).getRevenue());
+        assertEquals(Duration.ofMinutes(30), result.get(0).getAverageDuration());
+        assertEquals(Duration.ofMinutes(2), result.get(0).getAverageTimeToProcessing());
+        assertEquals(2, result.get(1).getUserId());
+        assertEquals("John Doe", result.get(1).getUserName());
+        assertNull(result.get(1).getAverageTimeToProcessing());
+    }
+
+    private OrderLine createLine(Integer orderId, int hour, String totalPrice, Integer dishId, Integer quantity) {
+        OrderLine line = mock(OrderLine.class);
+        when(line.getOrderId()).thenReturn(orderId);
+        when(line.getStartDateTime()).thenReturn(Timestamp.valueOf(LocalDateTime.of(date.getYear(), date.getMonth(), date.getDayOfMonth(), hour, 0)));
+        when(line.getTotalPrice()).thenReturn(new BigDecimal(totalPrice));
+        when(line.getUserId()).thenReturn(1);
+        when(line.getDishId()).thenReturn(dishId);
+        when(line.getQuantity()).thenReturn(quantity);
+        return line;
+    }
+
+    private HourlyAggregate createHour(int hour, long orderCount) {
+        HourlyAggregate aggregate = mock(HourlyAggregate.class);
+        when(aggregate.getDay()).thenReturn(date);
+        when(aggregate.getHour()).thenReturn(hour);
+        when(aggregate.getOrderCount()).thenReturn(orderCount);
+        return aggregate;
+    }
+
+
+    private WaiterPerformance createPerformance(Integer userId, Long orderCount, String revenue,
+                                                Double durationSeconds, Double processingSeconds) {
+        WaiterPerformance performance = mock(WaiterPerformance.class);
+        when(performance.getUserId()).thenReturn(userId);
+        when(performance.getFirstname()).thenReturn("John");
+        when(performance.getLastname()).thenReturn("Doe");
+        when(performance.getOrderCount()).thenReturn(orderCount);
+        when(performance.getRevenue()).thenReturn(new BigDecimal(revenue));
+        when(performance.getAverageDurationSeconds()).thenReturn(durationSeconds);
+        when(performance.getAverageProcessingSeconds()).thenReturn(processingSeconds);
+        return performance;
+    }
+}
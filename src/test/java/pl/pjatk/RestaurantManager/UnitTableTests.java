@@ -20,6 +20,7 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import pl.pjatk.RestaurantManager.model.Table;
 import pl.pjatk.RestaurantManager.repository.TableRepository;
 import pl.pjatk.RestaurantManager.request.TableRequest;
+import pl.pjatk.RestaurantManager.service.NameCache;
 import pl.pjatk.RestaurantManager.service.TableService;
 
 @ExtendWith(MockitoExtension.class)
@@ -28,6 +29,9 @@ public class UnitTableTests {
     @Mock
     private TableRepository tableRepository;
 
+    @Mock
+    private NameCache nameCache;
+
     @InjectMocks
     private TableService tableService;
 
@@ -0,0 +1,116 @@
+package pl.pjatk.RestaurantManager;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import pl.pjatk.RestaurantManager.dto.TableUtilizationDto;
+import pl.pjatk.RestaurantManager.model.Status;
+import pl.pjatk.RestaurantManager.model.Table;
+import pl.pjatk.RestaurantManager.projection.TableIntervalLine;
+import pl.pjatk.RestaurantManager.repository.OrderRepository;
+import pl.pjatk.RestaurantManager.repository.TableRepository;
+import pl.pjatk.RestaurantManager.service.TableUtilizationService;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+public class UnitTableUtilizationTests {
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    @Mock
+    private TableRepository tableRepository;
+
+    @InjectMocks
+    private TableUtilizationService tableUtilizationService;
+
+    private LocalDate date;
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        date = LocalDate.of(2023, 5, 12);
+        when(tableRepository.findAll()).thenReturn(List.of(
+                Table.builder().id(1).name("Window").seatsNumber(4).build(),
+                Table.builder().id(2).name("Bar").seatsNumber(2).build()));
+    }
+
+    @Test
+    @DisplayName("Test overlapping orders of a table count as one seating")
+    public void testOverlappingOrders() {
+        // Given
+        List<TableIntervalLine> lines = List.of(
+                createLine(1, LocalTime.of(18, 0), 60),
+                createLine(1, LocalTime.of(18, 30), 60),
+                createLine(1, LocalTime.of(19, 30), 30),
+                createLine(2, LocalTime.of(12, 0), 45));
+        when(orderRepository.streamTableIntervals(any(), any(), eq(Status.CLOSED))).thenReturn(lines.stream());
+
+        // When
+        TableUtilizationDto result = tableUtilizationService.calculateUtilization(date, date, 60);
+
+        // Then
+        TableUtilizationDto.TableUsage window = result.getTables().get(0);
+        assertEquals(120, window.getOccupiedMinutes());
+        assertEquals(2, window.getTurnover());
+        assertEquals(120 / 1440.0, window.getUtilization(), 1e-9);
+
+        TableUtilizationDto.TableUsage bar = result.getTables().get(1);
+        assertEquals(45, bar.getOccupiedMinutes());
+        assertEquals(1, bar.getTurnover());
+    }
+
+    @Test
+    @DisplayName("Test seat hours are split across slots and clipped to the range")
+    public void testSlots() {
+        // Given
+        List<TableIntervalLine> lines = List.of(
+                createLine(1, LocalTime.of(18, 45), 30),
+                createLine(2, LocalTime.of(23, 30), 60));
+        when(orderRepository.streamTableIntervals(any(), any(), eq(Status.CLOSED))).thenReturn(lines.stream());
+
+        // When
+        TableUtilizationDto result = tableUtilizationService.calculateUtilization(date, date, 60);
+
+        // Then
+        assertEquals(24, result.getSlots().size());
+        assertEquals(LocalTime.of(18, 0), result.getSlots().get(18).getStart());
+        assertEquals(1.0, result.getSlots().get(18).getSeatHours(), 1e-9);
+        assertEquals(1.0, result.getSlots().get(19).getSeatHours(), 1e-9);
+        assertEquals(1.0 / 6, result.getSlots().get(19).getUtilization(), 1e-9);
+        assertEquals(1.0, result.getSlots().get(23).getSeatHours(), 1e-9);
+        assertEquals(0.0, result.getSlots().get(0).getSeatHours(), 1e-9);
+        assertEquals(30, result.getTables().get(1).getOccupiedMinutes());
+    }
+
+    @Test
+    @DisplayName("Test slot length must divide a day")
+    public void testIsValidSlot() {
+        // Then
+        assertTrue(TableUtilizationService.isValidSlot(15));
+        assertTrue(TableUtilizationService.isValidSlot(1440));
+        assertFalse(TableUtilizationService.isValidSlot(0));
+        assertFalse(TableUtilizationService.isValidSlot(7));
+    }
+
+    private TableIntervalLine createLine(Integer tableId, LocalTime start, int minutes) {
+        TableIntervalLine line = mock(TableIntervalLine.class);
+        when(line.getTableId()).thenReturn(tableId);
+        when(line.getStartDateTime()).thenReturn(Timestamp.valueOf(LocalDateTime.of(date, start)));
+        when(line.getDuration()).thenReturn(Duration.ofMinutes(minutes));
+        return line;
+    }
+}
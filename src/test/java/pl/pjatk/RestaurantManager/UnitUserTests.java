@@ -10,6 +10,7 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import pl.pjatk.RestaurantManager.model.User;
 import pl.pjatk.RestaurantManager.repository.UserRepository;
 import pl.pjatk.RestaurantManager.request.UserRequest;
+import pl.pjatk.RestaurantManager.service.NameCache;
 import pl.pjatk.RestaurantManager.service.TableService;
 import pl.pjatk.RestaurantManager.service.UserService;
 
@@ -35,10 +36,13 @@ public class UnitUserTests {
     @Mock
     private PasswordEncoder passwordEncoder;
 
+    @Mock
+    private NameCache nameCache;
+
     @BeforeEach
     public void setUp() {
         MockitoAnnotations.openMocks(this);
-        userService = new UserService(userRepository, tableService, passwordEncoder);
+        userService = new UserService(userRepository, tableService, passwordEncoder, nameCache);
     }
 
     @Test
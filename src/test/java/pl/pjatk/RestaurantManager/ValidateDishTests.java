@@ -12,9 +12,11 @@ import pl.pjatk.RestaurantManager.model.Dish;
 import pl.pjatk.RestaurantManager.repository.DishIngredientRepository;
 import pl.pjatk.RestaurantManager.repository.DishRepository;
 import pl.pjatk.RestaurantManager.request.DishRequest;
+import pl.pjatk.RestaurantManager.service.DishCompositionCache;
 import pl.pjatk.RestaurantManager.service.CategoryService;
 import pl.pjatk.RestaurantManager.service.DishService;
 import pl.pjatk.RestaurantManager.service.IngredientService;
+import pl.pjatk.RestaurantManager.service.NameCache;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -36,6 +38,12 @@ public class ValidateDishTests {
     @Mock
     private DishIngredientRepository dishIngredientRepository;
 
+    @Mock
+    private DishCompositionCache dishCompositionCache;
+
+    @Mock
+    private NameCache nameCache;
+
     @InjectMocks
     private DishService dishService;
 
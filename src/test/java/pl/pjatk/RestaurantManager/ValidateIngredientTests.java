@@ -16,6 +16,7 @@ import org.mockito.MockitoAnnotations;
 import pl.pjatk.RestaurantManager.model.Ingredient;
 import pl.pjatk.RestaurantManager.repository.IngredientRepository;
 import pl.pjatk.RestaurantManager.request.IngredientRequest;
+import pl.pjatk.RestaurantManager.service.DishCompositionCache;
 import pl.pjatk.RestaurantManager.service.IngredientService;
 import pl.pjatk.RestaurantManager.service.UnitService;
 
@@ -27,6 +28,9 @@ public class ValidateIngredientTests {
     @Mock
     private UnitService unitService;
 
+    @Mock
+    private DishCompositionCache dishCompositionCache;
+
     @InjectMocks
     private IngredientService ingredientService;
 
@@ -14,7 +14,10 @@ import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationEventPublisher;
 
+import pl.pjatk.RestaurantManager.dto.OrderSnapshot;
+import pl.pjatk.RestaurantManager.dto.ServeStatusDto;
 import pl.pjatk.RestaurantManager.exceptions.ResourceNotFoundException;
 import pl.pjatk.RestaurantManager.model.*;
 import pl.pjatk.RestaurantManager.repository.OrderItemRepository;
@@ -24,6 +27,7 @@ import pl.pjatk.RestaurantManager.request.OrderCreateRequest;
 import pl.pjatk.RestaurantManager.request.OrderItemRequest;
 import pl.pjatk.RestaurantManager.request.OrderUpdateRequest;
 import pl.pjatk.RestaurantManager.service.DishService;
+import pl.pjatk.RestaurantManager.service.OpenOrderRegistry;
 import pl.pjatk.RestaurantManager.service.OrderService;
 import pl.pjatk.RestaurantManager.service.TableService;
 
@@ -44,6 +48,12 @@ public class ValidateOrderTests {
     @Mock
     private OrderItemRepository orderItemRepository;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private OpenOrderRegistry openOrderRegistry;
+
     @InjectMocks
     private OrderService orderService;
 
@@ -163,7 +173,7 @@ public class ValidateOrderTests {
         when(userRepository.findById(request.getUserId())).thenReturn(Optional.of(order.getUser()));
         when(tableService.findById(request.getTableId())).thenReturn(Optional.of(order.getTable()));
         when(dishService.findById(any())).thenReturn(Optional.of(dish));
-        when(orderRepository.save(any(Order.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(orderRepository.saveAndFlush(any(Order.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
         Optional<Order> result = orderService.updateOrder(id, request);
 
@@ -174,7 +184,7 @@ public class ValidateOrderTests {
         verify(userRepository, times(1)).findById(request.getUserId());
         verify(tableService, times(1)).findById(request.getTableId());
         verify(dishService, times(orderItems.size())).findById(any());
-        verify(orderRepository, times(1)).save(order);
+        verify(orderRepository, times(1)).saveAndFlush(order);
     }
 
 
@@ -214,7 +224,7 @@ public class ValidateOrderTests {
         Optional<Order> optionalOrder = Optional.of(order);
 
         when(orderRepository.findById(id)).thenReturn(optionalOrder);
-        when(orderRepository.save(order)).thenReturn(order);
+        when(orderRepository.saveAndFlush(order)).thenReturn(order);
 
         Optional<Order> result = orderService.setReadyToServe(id, isReady);
 
@@ -222,7 +232,7 @@ public class ValidateOrderTests {
         assertEquals(order, result.get());
         assertEquals(isReady, order.getIsReadyToServe());
         verify(orderRepository, times(1)).findById(id);
-        verify(orderRepository, times(1)).save(order);
+        verify(orderRepository, times(1)).saveAndFlush(order);
     }
 
     @Test
@@ -247,22 +257,16 @@ public class ValidateOrderTests {
         order.setStatus(Status.OPEN);
         order.setIsReadyToServe(false);
         order.setTable(new Table());
-        List<Order> orders = Collections.singletonList(order);
 
-        when(orderRepository.getOrderByStatusNot(Status.CLOSED)).thenReturn(orders);
+        when(openOrderRegistry.findAll()).thenReturn(List.of(OrderSnapshot.of(order)));
 
-        Optional<List<Map<String, Object>>> result = orderService.getOpenOrderServeStatus();
+        List<ServeStatusDto> result = orderService.getOpenOrderServeStatus();
 
-        assertTrue(result.isPresent());
-        List<Map<String, Object>> expectedResult = new ArrayList<>();
-        Map<String, Object> orderMap = new HashMap<>();
-        orderMap.put("id", order.getId());
-        orderMap.put("status", order.getStatus());
-        orderMap.put("isReadyToServe", order.getIsReadyToServe());
-        orderMap.put("tableId", order.getTable().getId());
-        expectedResult.add(orderMap);
-        assertEquals(expectedResult, result.get());
-        verify(orderRepository, times(1)).getOrderByStatusNot(Status.CLOSED);
+        List<ServeStatusDto> expectedResult = List.of(new ServeStatusDto(order.getId(), order.getStatus(),
+                order.getIsReadyToServe(), order.getTable().getId()));
+        assertEquals(expectedResult, result);
+        verify(openOrderRegistry, times(1)).findAll();
+        verify(orderRepository, never()).getOrderByStatusNot(Status.CLOSED);
     }
 
     @Test
@@ -8,6 +8,7 @@ import org.mockito.MockitoAnnotations;
 import pl.pjatk.RestaurantManager.model.Table;
 import pl.pjatk.RestaurantManager.repository.TableRepository;
 import pl.pjatk.RestaurantManager.request.TableRequest;
+import pl.pjatk.RestaurantManager.service.NameCache;
 import pl.pjatk.RestaurantManager.service.TableService;
 
 import java.util.ArrayList;
@@ -26,10 +27,13 @@ class ValidateTableTests {
     @Mock
     private TableRepository tableRepository;
 
+    @Mock
+    private NameCache nameCache;
+
     @BeforeEach
     public void setUp() {
         MockitoAnnotations.openMocks(this);
-        tableService = new TableService(tableRepository);
+        tableService = new TableService(tableRepository, nameCache);
     }
 
     @Test
@@ -9,6 +9,7 @@ import pl.pjatk.RestaurantManager.model.Role;
 import pl.pjatk.RestaurantManager.model.User;
 import pl.pjatk.RestaurantManager.repository.UserRepository;
 import pl.pjatk.RestaurantManager.request.UserRequest;
+import pl.pjatk.RestaurantManager.service.NameCache;
 import pl.pjatk.RestaurantManager.service.TableService;
 import pl.pjatk.RestaurantManager.service.UserService;
 
@@ -30,12 +31,15 @@ class ValidateUserTests {
     @Mock
     private PasswordEncoder passwordEncoder;
 
+    @Mock
+    private NameCache nameCache;
+
     private UserService userService;
 
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
-        userService = new UserService(userRepository, tableService, passwordEncoder);
+        userService = new UserService(userRepository, tableService, passwordEncoder, nameCache);
     }
 
     @Test
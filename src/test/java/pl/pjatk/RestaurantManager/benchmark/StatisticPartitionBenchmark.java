@@ -0,0 +1,132 @@
+package pl.pjatk.RestaurantManager.benchmark;
+
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.transaction.PlatformTransactionManager;
+import pl.pjatk.RestaurantManager.dto.StatisticSummaryDto;
+import pl.pjatk.RestaurantManager.model.StatisticMetric;
+import pl.pjatk.RestaurantManager.model.Status;
+import pl.pjatk.RestaurantManager.projection.OrderLine;
+import pl.pjatk.RestaurantManager.repository.IngredientRepository;
+import pl.pjatk.RestaurantManager.repository.OrderRepository;
+import pl.pjatk.RestaurantManager.service.DailyOrderStatisticService;
+import pl.pjatk.RestaurantManager.service.DishCompositionCache;
+import pl.pjatk.RestaurantManager.service.NameCache;
+import pl.pjatk.RestaurantManager.service.StatisticDayCache;
+import pl.pjatk.RestaurantManager.service.OrderFactService;
+import pl.pjatk.RestaurantManager.service.StatisticPartitionExecutor;
+import pl.pjatk.RestaurantManager.service.StatisticService;
+import pl.pjatk.RestaurantManager.service.TrafficStatisticService;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+/**
+ * Measures the summary over three years of synthetic closed orders with the range split into
+ * chunks scanned on pools of different sizes. The repository is an in-memory stand-in that
+ * serves the lines of the requested days, so the figures show aggregation speedup against
+ * core count, not database parallelism. Run with:
+ * {@code mvn test-compile exec:exec -Dexec.classpathScope=test -Dexec.executable=java -Dexec.args="-cp %classpath pl.pjatk.RestaurantManager.benchmark.StatisticPartitionBenchmark"}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StatisticPartitionBenchmark {
+
+    private static final int ORDERS = 1_000_000;
+    private static final LocalDate START_DATE = LocalDate.of(2021, 1, 1);
+    private static final LocalDate END_DATE = LocalDate.of(2023, 12, 31);
+
+    @Param({"1", "2", "4", "8"})
+    private int threads;
+
+    @Param({"7", "30"})
+    private int chunkDays;
+
+    private StatisticPartitionExecutor statisticPartitionExecutor;
+    private StatisticService statisticService;
+    private Set<StatisticMetric> metrics;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        int days = (int) (END_DATE.toEpochDay() - START_DATE.toEpochDay() + 1);
+        List<List<OrderLine>> linesByDay = new ArrayList<>(days);
+        for (int day = 0; day < days; day++) {
+            linesByDay.add(new ArrayList<>());
+        }
+        for (int orderId = 1; orderId <= ORDERS; orderId++) {
+            int day = random.nextInt(days);
+            LocalDateTime startDateTime = START_DATE.plusDays(day).atTime(11 + random.nextInt(12), random.nextInt(60));
+            BigDecimal totalPrice = BigDecimal.valueOf(1000 + random.nextInt(20000), 2);
+            int userId = 1 + random.nextInt(20);
+            int items = 1 + random.nextInt(3);
+            for (int item = 0; item < items; item++) {
+                int dishId = 1 + random.nextInt(80);
+                linesByDay.get(day).add(new SyntheticLine(orderId, Timestamp.valueOf(startDateTime), totalPrice,
+                        userId, dishId, 1 + random.nextInt(3)));
+            }
+        }
+
+        OrderRepository orderRepository = Mockito.mock(OrderRepository.class);
+        when(orderRepository.streamOrderLines(any(), any(), eq(Status.CLOSED))).thenAnswer(invocation -> {
+            int firstDay = (int) (((Timestamp) invocation.getArgument(0)).toLocalDateTime().toLocalDate().toEpochDay() - START_DATE.toEpochDay());
+            int lastDay = (int) (((Timestamp) invocation.getArgument(1)).toLocalDateTime().toLocalDate().toEpochDay() - START_DATE.toEpochDay());
+            return linesByDay.subList(Math.max(firstDay, 0), Math.min(lastDay + 1, days)).stream().flatMap(List::stream);
+        });
+
+        statisticPartitionExecutor = new StatisticPartitionExecutor(Mockito.mock(PlatformTransactionManager.class), threads, 2, chunkDays);
+        statisticService = new StatisticService(orderRepository,
+                Mockito.mock(IngredientRepository.class),
+                Mockito.mock(DishCompositionCache.class),
+                Mockito.mock(DailyOrderStatisticService.class),
+                Mockito.mock(TrafficStatisticService.class),
+                Mockito.mock(OrderFactService.class),
+                Mockito.mock(NameCache.class),
+                statisticPartitionExecutor,
+                new StatisticDayCache(0));
+        metrics = EnumSet.of(StatisticMetric.ORDER_COUNT, StatisticMetric.TOTAL_PRICE, StatisticMetric.WAITERS,
+                StatisticMetric.DISHES, StatisticMetric.TRAFFIC);
+    }
+
+    @TearDown
+    public void tearDown() {
+        statisticPartitionExecutor.shutdown();
+    }
+
+    @Benchmark
+    public StatisticSummaryDto partitionedSummary() {
+        return statisticService.calculateSummary(START_DATE, END_DATE, metrics);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(StatisticPartitionBenchmark.class.getSimpleName())
+                .jvmArgs("-Xmx4g")
+                .build()).run();
+    }
+
+    private record SyntheticLine(Integer orderId, Timestamp startDateTime, BigDecimal totalPrice,
+                                 Integer userId, Integer dishId, Integer quantity) implements OrderLine {
+        public Integer getOrderId() { return orderId; }
+        public Timestamp getStartDateTime() { return startDateTime; }
+        public BigDecimal getTotalPrice() { return totalPrice; }
+        public Integer getUserId() { return userId; }
+        public Integer getDishId() { return dishId; }
+        public Integer getQuantity() { return quantity; }
+    }
+}
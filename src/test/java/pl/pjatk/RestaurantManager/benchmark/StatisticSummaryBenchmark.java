@@ -0,0 +1,226 @@
+package pl.pjatk.RestaurantManager.benchmark;
+
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.transaction.PlatformTransactionManager;
+import pl.pjatk.RestaurantManager.dto.StatisticSummaryDto;
+import pl.pjatk.RestaurantManager.model.StatisticMetric;
+import pl.pjatk.RestaurantManager.model.Status;
+import pl.pjatk.RestaurantManager.projection.NameLabel;
+import pl.pjatk.RestaurantManager.projection.OrderLine;
+import pl.pjatk.RestaurantManager.repository.DishRepository;
+import pl.pjatk.RestaurantManager.repository.IngredientRepository;
+import pl.pjatk.RestaurantManager.repository.OrderRepository;
+import pl.pjatk.RestaurantManager.repository.TableRepository;
+import pl.pjatk.RestaurantManager.repository.UserRepository;
+import pl.pjatk.RestaurantManager.service.DailyOrderStatisticService;
+import pl.pjatk.RestaurantManager.service.DishCompositionCache;
+import pl.pjatk.RestaurantManager.service.NameCache;
+import pl.pjatk.RestaurantManager.service.StatisticDayCache;
+import pl.pjatk.RestaurantManager.service.OrderFactService;
+import pl.pjatk.RestaurantManager.service.StatisticPartitionExecutor;
+import pl.pjatk.RestaurantManager.service.StatisticService;
+import pl.pjatk.RestaurantManager.service.TrafficStatisticService;
+import pl.pjatk.RestaurantManager.statistic.DailySeries;
+import pl.pjatk.RestaurantManager.statistic.OrderFactStore;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+/**
+ * Compares the primitive summary kernels, fed by the order line stream, by the mapped fact
+ * columns or by warm cached day segments, with the previous String/boxed map aggregation on one
+ * million synthetic closed orders. Run with:
+ * {@code mvn test-compile exec:exec -Dexec.classpathScope=test -Dexec.executable=java -Dexec.args="-cp %classpath pl.pjatk.RestaurantManager.benchmark.StatisticSummaryBenchmark"}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StatisticSummaryBenchmark {
+
+    private static final int ORDERS = 1_000_000;
+    private static final LocalDate START_DATE = LocalDate.of(2021, 1, 1);
+    private static final LocalDate END_DATE = LocalDate.of(2023, 12, 31);
+
+    private List<OrderLine> lines;
+    private StatisticService statisticService;
+    private StatisticService factStatisticService;
+    private StatisticService cachedStatisticService;
+    private Path factDirectory;
+    private OrderFactStore facts;
+    private Set<StatisticMetric> metrics;
+
+    @Setup
+    public void setUp() throws IOException {
+        Random random = new Random(42);
+        int days = (int) (END_DATE.toEpochDay() - START_DATE.toEpochDay() + 1);
+        lines = new ArrayList<>(ORDERS * 2);
+        for (int orderId = 1; orderId <= ORDERS; orderId++) {
+            LocalDateTime startDateTime = START_DATE.plusDays(random.nextInt(days)).atTime(11 + random.nextInt(12), random.nextInt(60));
+            BigDecimal totalPrice = BigDecimal.valueOf(1000 + random.nextInt(20000), 2);
+            int userId = 1 + random.nextInt(20);
+            int items = 1 + random.nextInt(3);
+            for (int item = 0; item < items; item++) {
+                int dishId = 1 + random.nextInt(80);
+                lines.add(new SyntheticLine(orderId, Timestamp.valueOf(startDateTime), totalPrice,
+                        userId, dishId, 1 + random.nextInt(3)));
+            }
+        }
+
+        factDirectory = Files.createTempDirectory("order-facts");
+        facts = OrderFactStore.open(factDirectory);
+        for (int i = 0; i < lines.size(); ) {
+            OrderLine order = lines.get(i);
+            int end = i;
+            while (end < lines.size() && lines.get(end).getOrderId().equals(order.getOrderId())) {
+                end++;
+            }
+            int[] dishIds = new int[end - i];
+            int[] quantities = new int[end - i];
+            for (int item = i; item < end; item++) {
+                dishIds[item - i] = lines.get(item).getDishId();
+                quantities[item - i] = lines.get(item).getQuantity();
+            }
+            facts.append(1, OrderFactStore.toEpochSecond(order.getStartDateTime().toLocalDateTime()), 1,
+                    order.getUserId(), DailySeries.toMinorUnits(order.getTotalPrice()), 0, dishIds, quantities);
+            i = end;
+        }
+
+        OrderRepository orderRepository = Mockito.mock(OrderRepository.class);
+        when(orderRepository.streamOrderLines(any(), any(), eq(Status.CLOSED))).thenAnswer(invocation -> lines.stream());
+        UserRepository userRepository = Mockito.mock(UserRepository.class);
+        when(userRepository.findNamesByIds(any())).thenAnswer(invocation -> names(invocation.getArgument(0), "Waiter No"));
+        DishRepository dishRepository = Mockito.mock(DishRepository.class);
+        when(dishRepository.findNamesByIds(any())).thenAnswer(invocation -> names(invocation.getArgument(0), "Dish "));
+        NameCache nameCache = new NameCache(userRepository, Mockito.mock(TableRepository.class), dishRepository);
+        OrderFactService orderFactService = Mockito.mock(OrderFactService.class);
+        when(orderFactService.getStore()).thenReturn(facts);
+
+        statisticService = new StatisticService(orderRepository,
+                Mockito.mock(IngredientRepository.class),
+                Mockito.mock(DishCompositionCache.class),
+                Mockito.mock(DailyOrderStatisticService.class),
+                Mockito.mock(TrafficStatisticService.class),
+                Mockito.mock(OrderFactService.class),
+                nameCache,
+                new StatisticPartitionExecutor(Mockito.mock(PlatformTransactionManager.class), 1, 2, 7),
+                new StatisticDayCache(0));
+        factStatisticService = new StatisticService(orderRepository,
+                Mockito.mock(IngredientRepository.class),
+                Mockito.mock(DishCompositionCache.class),
+                Mockito.mock(DailyOrderStatisticService.class),
+                Mockito.mock(TrafficStatisticService.class),
+                orderFactService,
+                nameCache,
+                new StatisticPartitionExecutor(Mockito.mock(PlatformTransactionManager.class), 1, 2, 7),
+                new StatisticDayCache(0));
+        cachedStatisticService = new StatisticService(orderRepository,
+                Mockito.mock(IngredientRepository.class),
+                Mockito.mock(DishCompositionCache.class),
+                Mockito.mock(DailyOrderStatisticService.class),
+                Mockito.mock(TrafficStatisticService.class),
+                orderFactService,
+                nameCache,
+                new StatisticPartitionExecutor(Mockito.mock(PlatformTransactionManager.class), 1, 2, 7),
+                new StatisticDayCache(16384));
+        metrics = EnumSet.of(StatisticMetric.ORDER_COUNT, StatisticMetric.TOTAL_PRICE, StatisticMetric.WAITERS,
+                StatisticMetric.DISHES, StatisticMetric.TRAFFIC);
+        cachedStatisticService.calculateSummary(START_DATE, END_DATE, metrics);
+    }
+
+    @Benchmark
+    public StatisticSummaryDto primitiveKernels() {
+        return statisticService.calculateSummary(START_DATE, END_DATE, metrics);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        facts.close();
+        try (Stream<Path> files = Files.list(factDirectory)) {
+            for (Path file : files.toList()) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(factDirectory);
+    }
+
+    @Benchmark
+    public StatisticSummaryDto mappedColumns() {
+        return factStatisticService.calculateSummary(START_DATE, END_DATE, metrics);
+    }
+
+    @Benchmark
+    public StatisticSummaryDto cachedDaySegments() {
+        return cachedStatisticService.calculateSummary(START_DATE, END_DATE, metrics);
+    }
+
+    @Benchmark
+    public StatisticSummaryDto boxedMaps() {
+        Map<String, Integer> orderCount = new LinkedHashMap<>();
+        Map<String, BigDecimal> totalPrice = new LinkedHashMap<>();
+        Map<String, Integer> waiters = new LinkedHashMap<>();
+        Map<String, Integer> dishes = new LinkedHashMap<>();
+        Map<Integer, Integer> traffic = new HashMap<>();
+
+        Integer currentOrderId = null;
+        for (OrderLine line : lines) {
+            if (!line.getOrderId().equals(currentOrderId)) {
+                currentOrderId = line.getOrderId();
+                LocalDateTime orderDateTime = line.getStartDateTime().toLocalDateTime();
+                String formattedDate = orderDateTime.toLocalDate().toString();
+                orderCount.put(formattedDate, orderCount.getOrDefault(formattedDate, 0) + 1);
+                totalPrice.put(formattedDate, totalPrice.getOrDefault(formattedDate, BigDecimal.ZERO).add(line.getTotalPrice()));
+                String waiterName = "Waiter No" + line.getUserId();
+                waiters.put(waiterName, waiters.getOrDefault(waiterName, 0) + 1);
+                traffic.put(orderDateTime.getHour(), traffic.getOrDefault(orderDateTime.getHour(), 0) + 1);
+            }
+            dishes.merge("Dish " + line.getDishId(), line.getQuantity(), Integer::sum);
+        }
+
+        return new StatisticSummaryDto(orderCount, totalPrice, waiters, dishes, null, traffic);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(StatisticSummaryBenchmark.class.getSimpleName())
+                .jvmArgs("-Xmx4g")
+                .build()).run();
+    }
+
+    private static List<NameLabel> names(Collection<Integer> ids, String prefix) {
+        return ids.stream().<NameLabel>map(id -> new SyntheticName(id, prefix + id)).toList();
+    }
+
+    private record SyntheticName(Integer id, String name) implements NameLabel {
+        public Integer getId() { return id; }
+        public String getName() { return name; }
+    }
+
+    private record SyntheticLine(Integer orderId, Timestamp startDateTime, BigDecimal totalPrice,
+                                 Integer userId, Integer dishId, Integer quantity) implements OrderLine {
+        public Integer getOrderId() { return orderId; }
+        public Timestamp getStartDateTime() { return startDateTime; }
+        public BigDecimal getTotalPrice() { return totalPrice; }
+        public Integer getUserId() { return userId; }
+        public Integer getDishId() { return dishId; }
+        public Integer getQuantity() { return quantity; }
+    }
+}